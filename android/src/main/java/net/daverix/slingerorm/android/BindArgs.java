@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteQuery;
+import android.database.sqlite.SQLiteQueryBuilder;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs queries, updates and deletes with where arguments of any type. The String based methods in
+ * {@link SQLiteDatabase} are used unless an argument has to be bound as a BLOB, which they can't
+ * do, the statement is then taken from a {@link StatementCache} and every argument is bound with
+ * its own type.
+ */
+final class BindArgs {
+    private BindArgs() {
+    }
+
+    static Cursor query(SQLiteDatabase db, boolean distinct, String tableName, String[] columns,
+                        String where, Object[] whereArgs, String groupBy, String having,
+                        String orderBy, String limit) {
+        if (!hasBlobs(whereArgs)) {
+            return db.query(distinct, tableName, columns, where, toStrings(whereArgs), groupBy,
+                    having, orderBy, limit);
+        }
+
+        String sql = SQLiteQueryBuilder.buildQueryString(distinct, tableName, columns, where,
+                groupBy, having, orderBy, limit);
+        return db.rawQueryWithFactory(new BindingCursorFactory(whereArgs), sql, null, tableName);
+    }
+
+    static Cursor rawQuery(SQLiteDatabase db, String sql, Object[] args) {
+        if (!hasBlobs(args))
+            return db.rawQuery(sql, toStrings(args));
+
+        return db.rawQueryWithFactory(new BindingCursorFactory(args), sql, null, null);
+    }
+
+    static int update(SQLiteDatabase db, StatementCache statements, String tableName,
+                      ContentValues contentValues, String where, Object[] whereArgs) {
+        if (!hasBlobs(whereArgs))
+            return db.update(tableName, contentValues, where, toStrings(whereArgs));
+
+        StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        Object[] bindArgs = new Object[contentValues.size() + whereArgs.length];
+        int i = 0;
+        for (Map.Entry<String, Object> value : contentValues.valueSet()) {
+            if (i > 0) sql.append(",");
+
+            sql.append(value.getKey()).append("=?");
+            bindArgs[i++] = value.getValue();
+        }
+        System.arraycopy(whereArgs, 0, bindArgs, i, whereArgs.length);
+        appendWhere(sql, where);
+
+        return statements.executeUpdateDelete(sql.toString(), bindArgs);
+    }
+
+    static int delete(SQLiteDatabase db, StatementCache statements, String tableName, String where,
+                      Object[] whereArgs) {
+        if (!hasBlobs(whereArgs))
+            return db.delete(tableName, where, toStrings(whereArgs));
+
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(tableName);
+        appendWhere(sql, where);
+
+        return statements.executeUpdateDelete(sql.toString(), whereArgs);
+    }
+
+    private static void appendWhere(StringBuilder sql, String where) {
+        if (where != null && where.length() > 0) {
+            sql.append(" WHERE ").append(where);
+        }
+    }
+
+    private static boolean hasBlobs(Object[] args) {
+        if (args == null || args instanceof String[]) return false;
+
+        for (Object arg : args) {
+            if (arg instanceof byte[] || arg instanceof UUID) return true;
+        }
+        return false;
+    }
+
+    private static String[] toStrings(Object[] args) {
+        if (args == null) return null;
+        if (args instanceof String[]) return (String[]) args;
+
+        String[] strings = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            strings[i] = toString(args[i]);
+        }
+        return strings;
+    }
+
+    private static String toString(Object arg) {
+        if (arg == null) return null;
+        if (arg instanceof Boolean) return (Boolean) arg ? "1" : "0";
+        if (arg instanceof Date) return String.valueOf(((Date) arg).getTime());
+        if (arg instanceof BigDecimal) return Codecs.fromBigDecimal((BigDecimal) arg);
+
+        return arg.toString();
+    }
+
+    static void bind(SQLiteProgram program, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            int index = i + 1;
+            if (arg == null) {
+                program.bindNull(index);
+            } else if (arg instanceof byte[]) {
+                program.bindBlob(index, (byte[]) arg);
+            } else if (arg instanceof UUID) {
+                program.bindBlob(index, Codecs.fromUUID((UUID) arg));
+            } else if (arg instanceof Float || arg instanceof Double) {
+                program.bindDouble(index, ((Number) arg).doubleValue());
+            } else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short ||
+                    arg instanceof Byte) {
+                program.bindLong(index, ((Number) arg).longValue());
+            } else if (arg instanceof Boolean) {
+                program.bindLong(index, (Boolean) arg ? 1 : 0);
+            } else if (arg instanceof Date) {
+                program.bindLong(index, ((Date) arg).getTime());
+            } else {
+                program.bindString(index, toString(arg));
+            }
+        }
+    }
+
+    private static class BindingCursorFactory implements SQLiteDatabase.CursorFactory {
+        private final Object[] args;
+
+        BindingCursorFactory(Object[] args) {
+            this.args = args;
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver driver, String editTable,
+                                SQLiteQuery query) {
+            bind(query, args);
+            return new SQLiteCursor(db, driver, editTable, query);
+        }
+    }
+}
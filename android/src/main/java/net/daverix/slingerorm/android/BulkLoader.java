@@ -0,0 +1,264 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>Inserts a large number of items into an empty or growing table, like on the first sync. The
+ * items are inserted with one compiled statement in transactions of chunkSize items each. While
+ * loading, the non-unique indexes of the table and the triggers keeping its full text index in
+ * sync are dropped, they are created again and the full text index is rebuilt once when the load
+ * is done, even if it fails. The dropped statements are saved in the database first, so if the app
+ * is killed during the load they are restored by the next load or @CreateTables call, see
+ * {@link SchemaMigrator#restoreDroppedSchema()}.</p>
+ *
+ * <p>Items can be sorted by primary key within each chunk, so rows are appended to the table in
+ * key order instead of all over it. With relaxDurability the connection doesn't sync to disk
+ * during the load, a crash may then lose the last committed chunks but never corrupts the
+ * database. Items that conflict with existing rows fail the load, the chunks before it are kept.
+ * Changes aren't tracked and generated keys aren't set on the items.</p>
+ */
+public class BulkLoader<T> {
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+    private static final String SQL_SCHEMA = "SELECT type, name, sql FROM sqlite_master WHERE tbl_name = ? AND sql IS NOT NULL";
+
+    private final Database db;
+    private final Mapper<T> mapper;
+    private final int chunkSize;
+    private final boolean sortByPrimaryKey;
+    private final boolean relaxDurability;
+
+    public BulkLoader(Database db, Mapper<T> mapper) {
+        this(db, mapper, DEFAULT_CHUNK_SIZE, false, false);
+    }
+
+    /**
+     * @param db the database to load into
+     * @param mapper the mapper of the items
+     * @param chunkSize the number of items to insert per transaction
+     * @param sortByPrimaryKey true to sort the items of each chunk by primary key
+     * @param relaxDurability true to turn off syncing to disk during the load
+     */
+    public BulkLoader(Database db, Mapper<T> mapper, int chunkSize, boolean sortByPrimaryKey,
+                      boolean relaxDurability) {
+        if (db == null) throw new IllegalArgumentException("db is null");
+        if (mapper == null) throw new IllegalArgumentException("mapper is null");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be at least 1");
+
+        this.db = db;
+        this.mapper = mapper;
+        this.chunkSize = chunkSize;
+        this.sortByPrimaryKey = sortByPrimaryKey;
+        this.relaxDurability = relaxDurability;
+    }
+
+    /**
+     * Inserts all items
+     * @param items the items to insert
+     * @return the number of inserted items
+     * @throws IllegalStateException if called inside a transaction, since the chunks couldn't be
+     * committed
+     */
+    public long load(Iterator<? extends T> items) {
+        if (items == null) throw new IllegalArgumentException("items is null");
+        if (db.inTransaction())
+            throw new IllegalStateException("bulk load can't be done inside a transaction");
+
+        String tableName = mapper.getTableName();
+        String[] columns = mapper.getFieldNames();
+        String sql = createInsertSql(tableName, columns);
+        SchemaMigrator migrator = new SchemaMigrator(db);
+        dropIndexesAndFullTextTriggers(migrator, tableName);
+        long synchronous = relaxDurability ? relaxDurability() : -1;
+        try {
+            return insertAll(items, sql, columns);
+        } finally {
+            if (synchronous != -1) {
+                db.execSQL("PRAGMA synchronous = " + synchronous);
+            }
+            migrator.restoreDroppedSchema();
+        }
+    }
+
+    private long insertAll(Iterator<? extends T> items, String sql, String[] columns) {
+        long count = 0;
+        List<Row> chunk = new ArrayList<Row>(chunkSize);
+        while (items.hasNext()) {
+            T item = items.next();
+            if (item == null) throw new IllegalArgumentException("items contains null");
+
+            chunk.add(new Row(sortByPrimaryKey ? mapper.getItemQueryBindArgs(item) : null,
+                    mapper.mapValues(item)));
+            if (chunk.size() == chunkSize) {
+                count += insertChunk(chunk, sql, columns);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            count += insertChunk(chunk, sql, columns);
+        }
+        return count;
+    }
+
+    private int insertChunk(List<Row> chunk, String sql, String[] columns) {
+        if (sortByPrimaryKey) {
+            Collections.sort(chunk, KEY_ORDER);
+        }
+
+        db.beginTransaction();
+        try {
+            for (Row row : chunk) {
+                Object[] args = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    args[i] = row.values.get(columns[i]);
+                }
+                db.executeInsert(sql, args);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return chunk.size();
+    }
+
+    private void dropIndexesAndFullTextTriggers(SchemaMigrator migrator, String tableName) {
+        List<String[]> drops = new ArrayList<String[]>();
+        Cursor cursor = db.rawQuery(SQL_SCHEMA, new Object[]{tableName});
+        try {
+            String fullTextTriggerPrefix = tableName + "_fts_";
+            while (cursor.moveToNext()) {
+                String type = cursor.getString(0);
+                String name = cursor.getString(1);
+                String sql = cursor.getString(2);
+                if (("index".equals(type) && !sql.regionMatches(true, 0, "CREATE UNIQUE", 0, 13)) ||
+                        ("trigger".equals(type) && name.startsWith(fullTextTriggerPrefix))) {
+                    drops.add(new String[]{type, name, sql});
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        for (String[] drop : drops) {
+            migrator.dropSchema(drop[0], drop[1], tableName, drop[2]);
+        }
+    }
+
+    /**
+     * @return the synchronous setting to restore after the load
+     */
+    private long relaxDurability() {
+        // read in a transaction so a pooled database asks the writer connection
+        long synchronous;
+        db.beginTransaction();
+        try {
+            synchronous = db.simpleQueryForLong("PRAGMA synchronous", null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        db.execSQL("PRAGMA synchronous = OFF");
+        return synchronous;
+    }
+
+    private static String createInsertSql(String tableName, String[] columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append("(");
+        StringBuilder values = new StringBuilder(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(columns[i]);
+            values.append("?");
+        }
+        return sql.append(values).append(")").toString();
+    }
+
+    private static final Comparator<Row> KEY_ORDER = new Comparator<Row>() {
+        @Override
+        public int compare(Row first, Row second) {
+            for (int i = 0; i < first.key.length; i++) {
+                int result = compareValues(first.key[i], second.key[i]);
+                if (result != 0) return result;
+            }
+            return 0;
+        }
+    };
+
+    /**
+     * Compares values the way SQLite orders them: NULL first, then numbers, text and blobs
+     */
+    private static int compareValues(Object first, Object second) {
+        int firstClass = getStorageClass(first);
+        int secondClass = getStorageClass(second);
+        if (firstClass != secondClass) return firstClass < secondClass ? -1 : 1;
+
+        switch (firstClass) {
+            case 0:
+                return 0;
+            case 1:
+                if (first instanceof Double || first instanceof Float ||
+                        second instanceof Double || second instanceof Float) {
+                    return Double.compare(toNumber(first).doubleValue(), toNumber(second).doubleValue());
+                }
+                long firstLong = toNumber(first).longValue();
+                long secondLong = toNumber(second).longValue();
+                return firstLong < secondLong ? -1 : firstLong == secondLong ? 0 : 1;
+            case 2:
+                return first.toString().compareTo(second.toString());
+            default:
+                byte[] firstBytes = (byte[]) first;
+                byte[] secondBytes = (byte[]) second;
+                for (int i = 0; i < Math.min(firstBytes.length, secondBytes.length); i++) {
+                    int result = (firstBytes[i] & 0xff) - (secondBytes[i] & 0xff);
+                    if (result != 0) return result;
+                }
+                return firstBytes.length - secondBytes.length;
+        }
+    }
+
+    private static int getStorageClass(Object value) {
+        if (value == null) return 0;
+        if (value instanceof Number || value instanceof Boolean) return 1;
+        if (value instanceof byte[]) return 3;
+        return 2;
+    }
+
+    private static Number toNumber(Object value) {
+        if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+        return (Number) value;
+    }
+
+    private static class Row {
+        private final Object[] key;
+        private final ContentValues values;
+
+        Row(Object[] key, ContentValues values) {
+            this.key = key;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android;
+
+import android.content.ContentValues;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Remembers the values items had when they were last read from or written to the database, so an
+ * update can write only the columns that have changed since. Items are compared by identity and
+ * held weakly, an item that is no longer used is forgotten. The remembered values are only
+ * correct while the changes are committed, so every tracker forgets everything when a transaction
+ * begun through a {@link Database} is rolled back.
+ * @param <T> the type of the items
+ */
+public final class ChangeTracker<T> {
+    private static final Map<ChangeTracker<?>, Boolean> TRACKERS = new WeakHashMap<ChangeTracker<?>, Boolean>();
+
+    private final ReferenceQueue<T> queue = new ReferenceQueue<T>();
+    private final Map<ItemKey<T>, ContentValues> snapshots = new HashMap<ItemKey<T>, ContentValues>();
+
+    public ChangeTracker() {
+        synchronized (TRACKERS) {
+            TRACKERS.put(this, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Forgets the remembered values of every tracker, called when a transaction is rolled back
+     * since the values written or read in it are gone
+     */
+    public static void clearAll() {
+        List<ChangeTracker<?>> trackers;
+        synchronized (TRACKERS) {
+            trackers = new ArrayList<ChangeTracker<?>>(TRACKERS.keySet());
+        }
+
+        for (ChangeTracker<?> tracker : trackers) {
+            tracker.clear();
+        }
+    }
+
+    /**
+     * Remembers values as the values stored for item
+     * @param item the item that was read or written
+     * @param values all values of item, as returned by {@link Mapper#mapValues(Object)}
+     */
+    public synchronized void track(T item, ContentValues values) {
+        if (item == null) throw new IllegalArgumentException("item is null");
+        if (values == null) throw new IllegalArgumentException("values is null");
+
+        removeCollected();
+        snapshots.put(new ItemKey<T>(item, queue), new ContentValues(values));
+    }
+
+    /**
+     * Gets the values that differ from the remembered values of item
+     * @param item the item to update
+     * @param values all current values of item
+     * @return the changed values, empty if nothing changed or values if item isn't tracked
+     */
+    public synchronized ContentValues getChangedValues(T item, ContentValues values) {
+        if (item == null) throw new IllegalArgumentException("item is null");
+        if (values == null) throw new IllegalArgumentException("values is null");
+
+        ContentValues snapshot = snapshots.get(new ItemKey<T>(item, null));
+        if (snapshot == null) return values;
+
+        ContentValues changedValues = new ContentValues();
+        for (Map.Entry<String, Object> entry : values.valueSet()) {
+            String key = entry.getKey();
+            if (!snapshot.containsKey(key) || !isEqual(snapshot.get(key), entry.getValue())) {
+                putValue(changedValues, key, entry.getValue());
+            }
+        }
+        return changedValues;
+    }
+
+    /**
+     * Forgets the remembered values of item, the next update writes all values
+     */
+    public synchronized void forget(T item) {
+        if (item == null) throw new IllegalArgumentException("item is null");
+
+        snapshots.remove(new ItemKey<T>(item, null));
+    }
+
+    /**
+     * Forgets the remembered values of all items, used when rows are changed without going
+     * through the items
+     */
+    public synchronized void clear() {
+        snapshots.clear();
+        while (queue.poll() != null) {
+            // the keys are already removed
+        }
+    }
+
+    /**
+     * @return the number of tracked items
+     */
+    public synchronized int size() {
+        removeCollected();
+        return snapshots.size();
+    }
+
+    private void removeCollected() {
+        Reference<? extends T> reference;
+        while ((reference = queue.poll()) != null) {
+            snapshots.remove(reference);
+        }
+    }
+
+    private static boolean isEqual(Object first, Object second) {
+        if (first instanceof byte[] && second instanceof byte[])
+            return Arrays.equals((byte[]) first, (byte[]) second);
+
+        return first == null ? second == null : first.equals(second);
+    }
+
+    private static void putValue(ContentValues values, String key, Object value) {
+        if (value == null) {
+            values.putNull(key);
+        } else if (value instanceof String) {
+            values.put(key, (String) value);
+        } else if (value instanceof Long) {
+            values.put(key, (Long) value);
+        } else if (value instanceof Integer) {
+            values.put(key, (Integer) value);
+        } else if (value instanceof Short) {
+            values.put(key, (Short) value);
+        } else if (value instanceof Byte) {
+            values.put(key, (Byte) value);
+        } else if (value instanceof Double) {
+            values.put(key, (Double) value);
+        } else if (value instanceof Float) {
+            values.put(key, (Float) value);
+        } else if (value instanceof Boolean) {
+            values.put(key, (Boolean) value);
+        } else if (value instanceof byte[]) {
+            values.put(key, (byte[]) value);
+        } else {
+            throw new IllegalArgumentException("unsupported type " + value.getClass() + " for " + key);
+        }
+    }
+
+    /**
+     * A weak reference that is equal to other references to the same item. The hash is kept so
+     * the key can still be removed after the item has been collected.
+     */
+    private static class ItemKey<T> extends WeakReference<T> {
+        private final int hash;
+
+        ItemKey(T item, ReferenceQueue<T> queue) {
+            super(item, queue);
+            this.hash = System.identityHashCode(item);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof ItemKey)) return false;
+
+            Object item = get();
+            return item != null && item == ((ItemKey<?>) other).get();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android;
+
+import android.database.Cursor;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Conversions used by the generated mappers for types SlingerORM stores without a custom
+ * serializer. UUIDs are stored as 16 byte BLOBs, dates as milliseconds since the epoch and
+ * BigDecimals either as text or, when the field has a fixed scale, as a long with the decimal
+ * point moved scale digits to the right. Nulls are kept as nulls in both directions.
+ */
+public final class Codecs {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private Codecs() {
+    }
+
+    public static byte[] fromUUID(UUID value) {
+        if (value == null) return null;
+
+        byte[] bytes = new byte[16];
+        putLong(bytes, 0, value.getMostSignificantBits());
+        putLong(bytes, 8, value.getLeastSignificantBits());
+        return bytes;
+    }
+
+    /**
+     * Converts value to upper case hexadecimal text, the same text SQLite's hex() function returns
+     * for a BLOB.
+     */
+    public static String toHex(byte[] value) {
+        if (value == null) return null;
+
+        StringBuilder builder = new StringBuilder(value.length * 2);
+        for (byte b : value) {
+            builder.append(HEX_DIGITS[(b >> 4) & 0xf]).append(HEX_DIGITS[b & 0xf]);
+        }
+        return builder.toString();
+    }
+
+    public static UUID toUUID(Cursor cursor, int columnIndex) {
+        if (cursor.isNull(columnIndex)) return null;
+
+        return toUUID(cursor.getBlob(columnIndex));
+    }
+
+    static UUID toUUID(byte[] bytes) {
+        if (bytes.length != 16)
+            throw new IllegalArgumentException("expected 16 bytes for a UUID but got " + bytes.length);
+
+        return new UUID(getLong(bytes, 0), getLong(bytes, 8));
+    }
+
+    public static Long fromDate(Date value) {
+        return value != null ? value.getTime() : null;
+    }
+
+    public static Date toDate(Cursor cursor, int columnIndex) {
+        if (cursor.isNull(columnIndex)) return null;
+
+        return new Date(cursor.getLong(columnIndex));
+    }
+
+    /**
+     * Converts value to text without an exponent, so 1E+3 is stored as 1000. The text doesn't
+     * sort as a number, use {@link net.daverix.slingerorm.entity.DecimalScale} for values that
+     * are compared or sorted in the database.
+     */
+    public static String fromBigDecimal(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    public static BigDecimal toBigDecimal(Cursor cursor, int columnIndex) {
+        if (cursor.isNull(columnIndex)) return null;
+
+        return new BigDecimal(cursor.getString(columnIndex));
+    }
+
+    /**
+     * Converts value to a long with the decimal point moved scale digits to the right.
+     * @throws ArithmeticException if value has more than scale decimals or doesn't fit in a long
+     */
+    public static Long fromBigDecimal(BigDecimal value, int scale) {
+        if (value == null) return null;
+
+        return value.movePointRight(scale).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(Cursor cursor, int columnIndex, int scale) {
+        if (cursor.isNull(columnIndex)) return null;
+
+        return BigDecimal.valueOf(cursor.getLong(columnIndex), scale);
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long getLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+}
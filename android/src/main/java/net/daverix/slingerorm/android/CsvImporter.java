@@ -0,0 +1,454 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatatypeMismatchException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>Imports a CSV or TSV file into the table of a mapper without creating any items. The first
+ * record of the file is a header naming the columns, in any order, which must be field names of
+ * the mapper. Columns that aren't in the header get their default value. The file is read as
+ * UTF-8 through a {@link FileChannel} one record at a time and every record is bound directly to
+ * one compiled insert, in transactions of chunkSize records each.</p>
+ *
+ * <p>Values are read as they are stored in the database, after any serializer has been applied,
+ * and converted by the type of their column: INTEGER and REAL columns are parsed as numbers, BLOB
+ * columns as hex and TEXT columns are kept as they are. Fields may be quoted with " and a quote
+ * inside a quoted field is written as "". An empty field is NULL while a quoted empty field is an
+ * empty string.</p>
+ *
+ * <p>A record that has the wrong number of fields, a value that can't be converted or that breaks
+ * a constraint of the table is rejected and written to the reject file, together with the
+ * header, so it can be fixed and imported again. Any other database error, like a full disk, stops
+ * the import. If reading the file or writing to the database fails, the records imported in
+ * earlier chunks are kept.</p>
+ */
+public class CsvImporter {
+    public static final char COMMA = ',';
+    public static final char TAB = '\t';
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int TYPE_INTEGER = 0;
+    private static final int TYPE_REAL = 1;
+    private static final int TYPE_NUMERIC = 2;
+    private static final int TYPE_TEXT = 3;
+    private static final int TYPE_BLOB = 4;
+
+    private final Database db;
+    private final Mapper<?> mapper;
+    private final char delimiter;
+    private final int chunkSize;
+
+    public CsvImporter(Database db, Mapper<?> mapper) {
+        this(db, mapper, COMMA, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param db the database to import into
+     * @param mapper the mapper of the table to import into
+     * @param delimiter the character separating fields, like {@link #COMMA} or {@link #TAB}
+     * @param chunkSize the number of records to insert per transaction
+     */
+    public CsvImporter(Database db, Mapper<?> mapper, char delimiter, int chunkSize) {
+        if (db == null) throw new IllegalArgumentException("db is null");
+        if (mapper == null) throw new IllegalArgumentException("mapper is null");
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n')
+            throw new IllegalArgumentException("delimiter can't be a quote or line break");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be at least 1");
+
+        this.db = db;
+        this.mapper = mapper;
+        this.delimiter = delimiter;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports all records of file
+     * @param file the file to import
+     * @param rejectFile the file to write rejected records to, it's only created or overwritten
+     *                   if a record is rejected. Rejected records are skipped if it's null.
+     * @return the number of imported and rejected records
+     * @throws IOException if file can't be read or rejectFile can't be written
+     * @throws IllegalArgumentException if the header has a column that isn't a field of the mapper
+     * @throws IllegalStateException if called inside a transaction, since the chunks couldn't be
+     * committed
+     */
+    public Result importFile(File file, File rejectFile) throws IOException {
+        if (file == null) throw new IllegalArgumentException("file is null");
+        if (db.inTransaction())
+            throw new IllegalStateException("import can't be done inside a transaction");
+
+        RecordReader reader = new RecordReader(new FileInputStream(file).getChannel(), delimiter);
+        RecordWriter rejects = null;
+        try {
+            String[] header = reader.readRecord();
+            if (header == null) return new Result(0, 0);
+
+            String[] columns = getColumns(header);
+            int[] types = getColumnTypes(columns);
+            String sql = createInsertSql(mapper.getTableName(), columns);
+
+            long imported = 0;
+            long rejected = 0;
+            String[] record = reader.readRecord();
+            while (record != null) {
+                db.beginTransaction();
+                try {
+                    for (int i = 0; i < chunkSize && record != null; i++) {
+                        if (insert(sql, types, record)) {
+                            imported++;
+                        } else {
+                            rejected++;
+                            if (rejectFile != null) {
+                                if (rejects == null) {
+                                    rejects = new RecordWriter(rejectFile, delimiter);
+                                    rejects.writeRecord(header);
+                                }
+                                rejects.writeRecord(record);
+                            }
+                        }
+                        record = reader.readRecord();
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+            return new Result(imported, rejected);
+        } finally {
+            reader.close();
+            if (rejects != null) {
+                rejects.close();
+            }
+        }
+    }
+
+    /**
+     * @return true if the record was inserted, false if it was rejected
+     */
+    private boolean insert(String sql, int[] types, String[] record) {
+        if (record.length != types.length) return false;
+
+        Object[] args = new Object[types.length];
+        try {
+            for (int i = 0; i < types.length; i++) {
+                args[i] = convert(record[i], types[i]);
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        try {
+            db.executeInsert(sql, args);
+            return true;
+        } catch (SQLiteConstraintException | SQLiteDatatypeMismatchException e) {
+            return false;
+        }
+    }
+
+    private String[] getColumns(String[] header) {
+        String[] fieldNames = mapper.getFieldNames();
+        String[] columns = new String[header.length];
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i] != null ? header[i].trim() : "";
+            for (String fieldName : fieldNames) {
+                if (fieldName.equalsIgnoreCase(name)) {
+                    columns[i] = fieldName;
+                    break;
+                }
+            }
+            if (columns[i] == null)
+                throw new IllegalArgumentException("column " + name + " in header isn't a field of " + mapper.getTableName());
+
+            for (int j = 0; j < i; j++) {
+                if (columns[j].equals(columns[i]))
+                    throw new IllegalArgumentException("column " + name + " is in the header more than once");
+            }
+        }
+        return columns;
+    }
+
+    private int[] getColumnTypes(String[] columns) {
+        int[] types = new int[columns.length];
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + mapper.getTableName() + ")", null);
+        try {
+            int nameIndex = cursor.getColumnIndexOrThrow("name");
+            int typeIndex = cursor.getColumnIndexOrThrow("type");
+            while (cursor.moveToNext()) {
+                String name = cursor.getString(nameIndex);
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i].equalsIgnoreCase(name)) {
+                        types[i] = getAffinity(cursor.getString(typeIndex));
+                    }
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return types;
+    }
+
+    /**
+     * Gets the type affinity of a declared column type following the rules of SQLite
+     */
+    private static int getAffinity(String declaredType) {
+        String type = declaredType != null ? declaredType.toUpperCase(Locale.US) : "";
+        if (type.contains("INT")) return TYPE_INTEGER;
+        if (type.contains("CHAR") || type.contains("CLOB") || type.contains("TEXT")) return TYPE_TEXT;
+        if (type.contains("BLOB") || type.isEmpty()) return TYPE_BLOB;
+        if (type.contains("REAL") || type.contains("FLOA") || type.contains("DOUB")) return TYPE_REAL;
+        return TYPE_NUMERIC;
+    }
+
+    /**
+     * @throws IllegalArgumentException if value can't be converted
+     */
+    private static Object convert(String value, int type) {
+        if (value == null) return null;
+
+        switch (type) {
+            case TYPE_INTEGER:
+                return Long.parseLong(value.trim());
+            case TYPE_REAL:
+                return Double.parseDouble(value.trim());
+            case TYPE_NUMERIC:
+                try {
+                    return Long.parseLong(value.trim());
+                } catch (NumberFormatException e) {
+                    return Double.parseDouble(value.trim());
+                }
+            case TYPE_BLOB:
+                return parseHex(value.trim());
+            default:
+                return value;
+        }
+    }
+
+    private static byte[] parseHex(String value) {
+        if (value.length() % 2 != 0)
+            throw new IllegalArgumentException("hex value has an odd number of digits");
+
+        byte[] bytes = new byte[value.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(value.charAt(i * 2), 16);
+            int low = Character.digit(value.charAt(i * 2 + 1), 16);
+            if (high == -1 || low == -1)
+                throw new IllegalArgumentException("invalid hex value " + value);
+
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    private static String createInsertSql(String tableName, String[] columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append("(");
+        StringBuilder values = new StringBuilder(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(columns[i]);
+            values.append("?");
+        }
+        return sql.append(values).append(")").toString();
+    }
+
+    public static class Result {
+        private final long importedRecords;
+        private final long rejectedRecords;
+
+        Result(long importedRecords, long rejectedRecords) {
+            this.importedRecords = importedRecords;
+            this.rejectedRecords = rejectedRecords;
+        }
+
+        public long getImportedRecords() {
+            return importedRecords;
+        }
+
+        public long getRejectedRecords() {
+            return rejectedRecords;
+        }
+    }
+
+    private static class RecordReader implements Closeable {
+        private final FileChannel channel;
+        private final char delimiter;
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        private final CharsetDecoder decoder = UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        private final StringBuilder field = new StringBuilder();
+        private boolean endOfInput;
+        private boolean started;
+        private int peeked = -2;
+
+        RecordReader(FileChannel channel, char delimiter) {
+            this.channel = channel;
+            this.delimiter = delimiter;
+            chars.flip();
+        }
+
+        /**
+         * @return the fields of the next record that isn't empty, or null at the end of the file.
+         * Fields that are empty and not quoted are null.
+         */
+        String[] readRecord() throws IOException {
+            List<String> fields = new ArrayList<String>();
+            int c = read();
+            while (c == '\r' || c == '\n') {
+                c = read();
+            }
+            if (c == -1) return null;
+
+            boolean quoted = false;
+            field.setLength(0);
+            while (true) {
+                if (c == '"' && !quoted && field.length() == 0) {
+                    quoted = true;
+                    readQuoted();
+                } else if (c == delimiter) {
+                    fields.add(toField(quoted));
+                    quoted = false;
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else if (c == '\r') {
+                    c = read();
+                    if (c == '\n' || c == -1) break;
+
+                    field.append('\r');
+                    continue;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(toField(quoted));
+            return fields.toArray(new String[fields.size()]);
+        }
+
+        private void readQuoted() throws IOException {
+            while (true) {
+                int c = read();
+                if (c == -1) return;
+
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        peeked = next;
+                        return;
+                    }
+                }
+                field.append((char) c);
+            }
+        }
+
+        private String toField(boolean quoted) {
+            if (!quoted && field.length() == 0) return null;
+
+            return field.toString();
+        }
+
+        private int read() throws IOException {
+            if (peeked != -2) {
+                int c = peeked;
+                peeked = -2;
+                return c;
+            }
+
+            if (!chars.hasRemaining() && !fill()) return -1;
+
+            char c = chars.get();
+            if (!started) {
+                started = true;
+                if (c == '\uFEFF') return read();
+            }
+            return c;
+        }
+
+        private boolean fill() throws IOException {
+            chars.clear();
+            while (chars.position() == 0 && !endOfInput) {
+                endOfInput = channel.read(bytes) == -1;
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if (result.isError()) result.throwException();
+                bytes.compact();
+                if (endOfInput) {
+                    decoder.flush(chars);
+                }
+            }
+            chars.flip();
+            return chars.hasRemaining();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static class RecordWriter implements Closeable {
+        private final Writer writer;
+        private final char delimiter;
+
+        RecordWriter(File file, char delimiter) throws IOException {
+            this.writer = Channels.newWriter(new FileOutputStream(file).getChannel(), "UTF-8");
+            this.delimiter = delimiter;
+        }
+
+        void writeRecord(String[] fields) throws IOException {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    writer.write(delimiter);
+                }
+                CursorExporter.writeCsvField(writer, fields[i], delimiter);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android;
+
+import android.annotation.TargetApi;
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.os.Build;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Streams the rows of a cursor to a channel as CSV, TSV or JSON Lines without creating any
+ * items. The rows are encoded as UTF-8 into one buffer that is reused and written to the channel
+ * each time it's full, so the memory used doesn't depend on the number of rows. The output can
+ * optionally be compressed with gzip.</p>
+ *
+ * <p>Values are written as they are stored in the database. CSV and TSV start with a header of
+ * the column names, NULL is an empty field, an empty string is a quoted empty field and blobs are
+ * hex, the format read by {@link CsvImporter}. JSON Lines writes one object per row with the
+ * column names as keys and blobs as hex strings.</p>
+ *
+ * <p>The type of a value is read with {@link Cursor#getType(int)}, which was added in Honeycomb.
+ * On older versions only a cursor reading a window directly, like the cursor of a query, tells
+ * the type of its values. The values of other cursors, like a {@link android.database.CursorWrapper},
+ * are written as text.</p>
+ */
+public class CursorExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    public enum Format {
+        CSV,
+        TSV,
+        JSON_LINES
+    }
+
+    private final Format format;
+    private final boolean gzip;
+
+    public CursorExporter(Format format) {
+        this(format, false);
+    }
+
+    /**
+     * @param format the format to write
+     * @param gzip true to compress the output with gzip
+     */
+    public CursorExporter(Format format, boolean gzip) {
+        if (format == null) throw new IllegalArgumentException("format is null");
+
+        this.format = format;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Exports all rows in the table of mapper with the columns of {@link Mapper#getFieldNames()}
+     * @param db the database to read from
+     * @param mapper the mapper of the table to export
+     * @param channel the channel to write to, it's left open
+     * @return the number of exported rows
+     * @throws IOException if writing to channel fails
+     */
+    public long export(Database db, Mapper<?> mapper, WritableByteChannel channel) throws IOException {
+        if (db == null) throw new IllegalArgumentException("db is null");
+        if (mapper == null) throw new IllegalArgumentException("mapper is null");
+
+        Cursor cursor = db.query(false, mapper.getTableName(), mapper.getFieldNames(), null, null,
+                null, null, null, null);
+        try {
+            return export(cursor, channel);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Exports the rows of cursor from its current position to the end
+     * @param cursor the cursor to export, it's left open
+     * @param channel the channel to write to, it's left open
+     * @return the number of exported rows
+     * @throws IOException if writing to channel fails
+     */
+    public long export(Cursor cursor, WritableByteChannel channel) throws IOException {
+        if (cursor == null) throw new IllegalArgumentException("cursor is null");
+        if (channel == null) throw new IllegalArgumentException("channel is null");
+
+        GZIPOutputStream gzipStream = null;
+        WritableByteChannel target = channel;
+        if (gzip) {
+            gzipStream = new GZIPOutputStream(new NonClosingOutputStream(
+                    Channels.newOutputStream(channel)), BUFFER_SIZE);
+            target = Channels.newChannel(gzipStream);
+        }
+
+        try {
+            // not closed since that would close the channel
+            Writer writer = Channels.newWriter(target, UTF_8.newEncoder(), BUFFER_SIZE);
+            String[] columnNames = cursor.getColumnNames();
+            long rows;
+            if (format == Format.JSON_LINES) {
+                rows = writeJsonLines(cursor, columnNames, writer);
+            } else {
+                rows = writeDelimited(cursor, columnNames, format == Format.CSV ? ',' : '\t', writer);
+            }
+            writer.flush();
+            return rows;
+        } finally {
+            if (gzipStream != null) {
+                // writes the trailer and releases the native memory of the deflater
+                gzipStream.close();
+            }
+        }
+    }
+
+    private static long writeDelimited(Cursor cursor, String[] columnNames, char delimiter,
+                                       Writer writer) throws IOException {
+        for (int i = 0; i < columnNames.length; i++) {
+            if (i > 0) {
+                writer.write(delimiter);
+            }
+            writeCsvField(writer, columnNames[i], delimiter);
+        }
+        writer.write("\r\n");
+
+        long rows = 0;
+        while (cursor.moveToNext()) {
+            for (int i = 0; i < columnNames.length; i++) {
+                if (i > 0) {
+                    writer.write(delimiter);
+                }
+                switch (getType(cursor, i)) {
+                    case Cursor.FIELD_TYPE_NULL:
+                        break;
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        writer.write(Long.toString(cursor.getLong(i)));
+                        break;
+                    case Cursor.FIELD_TYPE_FLOAT:
+                        writer.write(Double.toString(cursor.getDouble(i)));
+                        break;
+                    case Cursor.FIELD_TYPE_BLOB:
+                        writeHex(writer, cursor.getBlob(i));
+                        break;
+                    default:
+                        writeCsvField(writer, cursor.getString(i), delimiter);
+                        break;
+                }
+            }
+            writer.write("\r\n");
+            rows++;
+        }
+        return rows;
+    }
+
+    private static long writeJsonLines(Cursor cursor, String[] columnNames, Writer writer)
+            throws IOException {
+        String[] keys = new String[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            StringBuilder key = new StringBuilder(i == 0 ? "{" : ",");
+            appendJsonString(key, columnNames[i]);
+            keys[i] = key.append(':').toString();
+        }
+
+        long rows = 0;
+        StringBuilder text = new StringBuilder();
+        while (cursor.moveToNext()) {
+            for (int i = 0; i < columnNames.length; i++) {
+                writer.write(keys[i]);
+                switch (getType(cursor, i)) {
+                    case Cursor.FIELD_TYPE_NULL:
+                        writer.write("null");
+                        break;
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        writer.write(Long.toString(cursor.getLong(i)));
+                        break;
+                    case Cursor.FIELD_TYPE_FLOAT:
+                        double value = cursor.getDouble(i);
+                        writer.write(Double.isInfinite(value) ? "null" : Double.toString(value));
+                        break;
+                    case Cursor.FIELD_TYPE_BLOB:
+                        writer.write('"');
+                        writeHex(writer, cursor.getBlob(i));
+                        writer.write('"');
+                        break;
+                    default:
+                        text.setLength(0);
+                        appendJsonString(text, cursor.getString(i));
+                        writer.append(text);
+                        break;
+                }
+            }
+            writer.write(columnNames.length == 0 ? "{}\n" : "}\n");
+            rows++;
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int getType(Cursor cursor, int columnIndex) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB)
+            return getTypeHoneycomb(cursor, columnIndex);
+
+        if (cursor.isNull(columnIndex)) return Cursor.FIELD_TYPE_NULL;
+        if (!(cursor instanceof AbstractWindowedCursor)) return Cursor.FIELD_TYPE_STRING;
+
+        AbstractWindowedCursor windowedCursor = (AbstractWindowedCursor) cursor;
+        if (windowedCursor.isLong(columnIndex)) return Cursor.FIELD_TYPE_INTEGER;
+        if (windowedCursor.isFloat(columnIndex)) return Cursor.FIELD_TYPE_FLOAT;
+        if (windowedCursor.isBlob(columnIndex)) return Cursor.FIELD_TYPE_BLOB;
+        return Cursor.FIELD_TYPE_STRING;
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static int getTypeHoneycomb(Cursor cursor, int columnIndex) {
+        return cursor.getType(columnIndex);
+    }
+
+    private static void appendJsonString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append("\\u00");
+                        builder.append(HEX_DIGITS[c >> 4]);
+                        builder.append(HEX_DIGITS[c & 0xf]);
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+        builder.append('"');
+    }
+
+    private static void writeHex(Writer writer, byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            writer.write(HEX_DIGITS[b >> 4 & 0xf]);
+            writer.write(HEX_DIGITS[b & 0xf]);
+        }
+    }
+
+    /**
+     * Writes a text field, quoted if it's empty or has a quote, delimiter or line break in it.
+     * Nothing is written for null.
+     */
+    static void writeCsvField(Writer writer, String field, char delimiter) throws IOException {
+        if (field == null) return;
+
+        if (field.isEmpty() || field.indexOf(delimiter) != -1 || field.indexOf('"') != -1 ||
+                field.indexOf('\r') != -1 || field.indexOf('\n') != -1) {
+            writer.write('"');
+            writer.write(field.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(field);
+        }
+    }
+
+    /**
+     * Lets the gzip stream be closed, to release its deflater, without closing the channel
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
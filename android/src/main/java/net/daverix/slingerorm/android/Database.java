@@ -3,17 +3,81 @@ package net.daverix.slingerorm.android;
 import android.content.ContentValues;
 import android.database.Cursor;
 
+/**
+ * The database used by the generated storage classes. Where arguments can be strings or any of
+ * the types the generated mappers store, byte arrays and UUIDs are bound as BLOBs.
+ */
 public interface Database {
     void execSQL(String sql);
 
-    int delete(String tableName, String where, String[] whereArgs);
+    int delete(String tableName, String where, Object[] whereArgs);
 
     Cursor query(boolean distinct, String tableName, String[] columns, String where,
-                 String[] whereArgs, String groupBy, String having, String orderBy, String limit);
+                 Object[] whereArgs, String groupBy, String having, String orderBy, String limit);
 
-    int update(String tableName, ContentValues contentValues, String where, String[] whereArgs);
+    /**
+     * Runs a complete SELECT statement. The statement is compiled once per connection and then
+     * reused from the statement cache of the connection, so pass the same String every time.
+     * @param sql a SELECT statement
+     * @param args arguments for the question marks in sql, the same types as where arguments
+     * @return a cursor positioned before the first row
+     */
+    Cursor rawQuery(String sql, Object[] args);
+
+    /**
+     * Executes an INSERT statement that is compiled once and kept in the statement cache of the
+     * database
+     * @param sql an INSERT statement
+     * @param bindArgs arguments for the question marks in sql, the same types as where arguments
+     * @return the row id of the inserted row, -1 if it wasn't inserted
+     */
+    long executeInsert(String sql, Object[] bindArgs);
+
+    /**
+     * Executes an UPDATE or DELETE statement that is compiled once and kept in the statement cache
+     * of the database
+     * @param sql an UPDATE or DELETE statement
+     * @param bindArgs arguments for the question marks in sql, the same types as where arguments
+     * @return the number of changed rows
+     */
+    int executeUpdateDelete(String sql, Object[] bindArgs);
+
+    /**
+     * Runs a query that returns one integer, like a count, with a statement that is compiled once
+     * and kept in the statement cache of the database
+     * @param sql a SELECT statement
+     * @param bindArgs arguments for the question marks in sql, the same types as where arguments
+     * @return the first column of the first row
+     * @throws android.database.sqlite.SQLiteDoneException if there are no rows
+     */
+    long simpleQueryForLong(String sql, Object[] bindArgs);
+
+    int update(String tableName, ContentValues contentValues, String where, Object[] whereArgs);
 
     long replace(String tableName, ContentValues contentValues);
 
     long insert(String tableName, ContentValues contentValues);
+
+    /**
+     * Begins a transaction on the connection used for writing. Transactions can be nested. If the
+     * transaction is rolled back the implementation must call {@link ChangeTracker#clearAll()},
+     * since the trackers may remember values that never reached the database.
+     */
+    void beginTransaction();
+
+    /**
+     * Marks the current transaction as successful so it's committed by {@link #endTransaction()}
+     */
+    void setTransactionSuccessful();
+
+    /**
+     * Ends the current transaction, it's rolled back unless {@link #setTransactionSuccessful()}
+     * has been called.
+     */
+    void endTransaction();
+
+    /**
+     * @return true if the current thread is inside a transaction
+     */
+    boolean inTransaction();
 }
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A {@link Database} that funnels writes from many threads through one writer thread. The
+ * writer executes the queued writes in shared transactions that are committed when maxGroupSize
+ * writes have been executed or maxDelayMillis have passed since the first write in the group,
+ * whichever comes first. A write is completed when the transaction it was part of is committed,
+ * so many small writes share the cost of one commit. If the transaction is rolled back every write
+ * in it fails.</p>
+ *
+ * <p>The synchronous write methods block until the write is committed, use the async variants to
+ * get a {@link Future} instead. A write that fails doesn't fail the other writes in its group.
+ * Queries and writes made from a thread that has started its own transaction with
+ * {@link #beginTransaction()} bypass the queue and go directly to the wrapped database.</p>
+ */
+public class GroupCommitDatabase implements Database, Closeable {
+    private final Database db;
+    private final int maxGroupSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<PendingWrite<?>>();
+    private final PendingWrite<Void> stop = new PendingWrite<Void>(() -> null);
+    private final Thread writerThread;
+    private final Object closeLock = new Object();
+    private boolean closed;
+
+    public GroupCommitDatabase(Database db, int maxGroupSize, long maxDelayMillis) {
+        if (db == null) throw new IllegalArgumentException("db is null");
+        if (maxGroupSize < 1) throw new IllegalArgumentException("maxGroupSize must be at least 1");
+        if (maxDelayMillis < 0) throw new IllegalArgumentException("maxDelayMillis is negative");
+
+        this.db = db;
+        this.maxGroupSize = maxGroupSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.writerThread = new Thread(this::processWrites, "SlingerORM group commit");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void execSQL(String sql) {
+        if (db.inTransaction()) {
+            db.execSQL(sql);
+            return;
+        }
+
+        getResult(submit(() -> {
+            db.execSQL(sql);
+            return null;
+        }));
+    }
+
+    @Override
+    public int delete(String tableName, String where, Object[] whereArgs) {
+        if (db.inTransaction()) return db.delete(tableName, where, whereArgs);
+
+        return getResult(deleteAsync(tableName, where, whereArgs));
+    }
+
+    public Future<Integer> deleteAsync(String tableName, String where, Object[] whereArgs) {
+        return submit(() -> db.delete(tableName, where, whereArgs));
+    }
+
+    @Override
+    public Cursor query(boolean distinct, String tableName, String[] columns, String where,
+                        Object[] whereArgs, String groupBy, String having, String orderBy,
+                        String limit) {
+        return db.query(distinct, tableName, columns, where, whereArgs, groupBy, having, orderBy,
+                limit);
+    }
+
+    @Override
+    public Cursor rawQuery(String sql, Object[] args) {
+        return db.rawQuery(sql, args);
+    }
+
+    @Override
+    public int update(String tableName, ContentValues contentValues, String where, Object[] whereArgs) {
+        if (db.inTransaction()) return db.update(tableName, contentValues, where, whereArgs);
+
+        return getResult(updateAsync(tableName, contentValues, where, whereArgs));
+    }
+
+    public Future<Integer> updateAsync(String tableName, ContentValues contentValues, String where,
+                                       Object[] whereArgs) {
+        return submit(() -> db.update(tableName, contentValues, where, whereArgs));
+    }
+
+    @Override
+    public long replace(String tableName, ContentValues contentValues) {
+        if (db.inTransaction()) return db.replace(tableName, contentValues);
+
+        return getResult(replaceAsync(tableName, contentValues));
+    }
+
+    public Future<Long> replaceAsync(String tableName, ContentValues contentValues) {
+        return submit(() -> db.replace(tableName, contentValues));
+    }
+
+    @Override
+    public long insert(String tableName, ContentValues contentValues) {
+        if (db.inTransaction()) return db.insert(tableName, contentValues);
+
+        return getResult(insertAsync(tableName, contentValues));
+    }
+
+    public Future<Long> insertAsync(String tableName, ContentValues contentValues) {
+        return submit(() -> db.insert(tableName, contentValues));
+    }
+
+    @Override
+    public long executeInsert(String sql, Object[] bindArgs) {
+        if (db.inTransaction()) return db.executeInsert(sql, bindArgs);
+
+        return getResult(executeInsertAsync(sql, bindArgs));
+    }
+
+    public Future<Long> executeInsertAsync(String sql, Object[] bindArgs) {
+        return submit(() -> db.executeInsert(sql, bindArgs));
+    }
+
+    @Override
+    public int executeUpdateDelete(String sql, Object[] bindArgs) {
+        if (db.inTransaction()) return db.executeUpdateDelete(sql, bindArgs);
+
+        return getResult(executeUpdateDeleteAsync(sql, bindArgs));
+    }
+
+    public Future<Integer> executeUpdateDeleteAsync(String sql, Object[] bindArgs) {
+        return submit(() -> db.executeUpdateDelete(sql, bindArgs));
+    }
+
+    @Override
+    public long simpleQueryForLong(String sql, Object[] bindArgs) {
+        return db.simpleQueryForLong(sql, bindArgs);
+    }
+
+    @Override
+    public void beginTransaction() {
+        db.beginTransaction();
+    }
+
+    @Override
+    public void setTransactionSuccessful() {
+        db.setTransactionSuccessful();
+    }
+
+    @Override
+    public void endTransaction() {
+        db.endTransaction();
+    }
+
+    @Override
+    public boolean inTransaction() {
+        return db.inTransaction();
+    }
+
+    /**
+     * Commits the writes that are already queued and stops the writer thread. Writes submitted
+     * after this fail with an {@link IllegalStateException}. The database is also closed if the
+     * writer thread is interrupted.
+     */
+    @Override
+    public void close() {
+        synchronized (closeLock) {
+            if (closed) return;
+
+            closed = true;
+            queue.add(stop);
+        }
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> write) {
+        PendingWrite<T> pendingWrite = new PendingWrite<T>(write);
+        synchronized (closeLock) {
+            if (closed) throw new IllegalStateException("database is closed");
+
+            queue.add(pendingWrite);
+        }
+        return pendingWrite;
+    }
+
+    private void processWrites() {
+        try {
+            List<PendingWrite<?>> group = new ArrayList<PendingWrite<?>>(maxGroupSize);
+            boolean stopping = false;
+            while (!stopping) {
+                PendingWrite<?> first = takeNext();
+                if (first == stop) break;
+
+                try {
+                    db.beginTransaction();
+                } catch (RuntimeException e) {
+                    first.fail(e);
+                    continue;
+                }
+
+                boolean committed = false;
+                try {
+                    first.execute();
+                    group.add(first);
+
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    while (group.size() < maxGroupSize) {
+                        PendingWrite<?> next = pollNext(deadline - System.nanoTime());
+                        if (next == null) break;
+                        if (next == stop) {
+                            stopping = true;
+                            break;
+                        }
+
+                        next.execute();
+                        group.add(next);
+                    }
+
+                    db.setTransactionSuccessful();
+                    committed = true;
+                } finally {
+                    endGroup(group, committed);
+                    group.clear();
+                }
+            }
+        } finally {
+            failRemainingWrites();
+        }
+    }
+
+    /**
+     * Closes the database from the writer thread, which may be stopping because it was
+     * interrupted, and fails the writes nobody will execute. Holding the lock makes sure no write
+     * is added after the queue has been drained.
+     */
+    private void failRemainingWrites() {
+        synchronized (closeLock) {
+            closed = true;
+            PendingWrite<?> remaining;
+            while ((remaining = queue.poll()) != null) {
+                if (remaining != stop) {
+                    remaining.fail(new IllegalStateException("database is closed"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the transaction of group and completes its writes if it was committed
+     * @param committed true if the transaction was marked as successful, endTransaction silently
+     * rolls it back otherwise
+     */
+    private void endGroup(List<PendingWrite<?>> group, boolean committed) {
+        try {
+            db.endTransaction();
+        } catch (RuntimeException e) {
+            for (PendingWrite<?> write : group) {
+                write.fail(e);
+            }
+            return;
+        }
+
+        if (!committed) {
+            for (PendingWrite<?> write : group) {
+                write.fail(new IllegalStateException("the transaction was rolled back"));
+            }
+            return;
+        }
+
+        for (PendingWrite<?> write : group) {
+            write.complete();
+        }
+    }
+
+    private PendingWrite<?> takeNext() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            return stop;
+        }
+    }
+
+    private PendingWrite<?> pollNext(long timeoutNanos) {
+        if (timeoutNanos <= 0) return queue.poll();
+
+        try {
+            return queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            return stop;
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static class PendingWrite<T> extends FutureTask<T> {
+        private final Callable<T> write;
+        private T result;
+        private Throwable error;
+
+        PendingWrite(Callable<T> write) {
+            super(write);
+            this.write = write;
+        }
+
+        void execute() {
+            if (isCancelled()) return;
+
+            try {
+                result = write.call();
+            } catch (Throwable e) {
+                error = e;
+            }
+        }
+
+        void complete() {
+            if (error != null) {
+                setException(error);
+            } else {
+                set(result);
+            }
+        }
+
+        void fail(Throwable e) {
+            setException(e);
+        }
+    }
+}
@@ -28,6 +28,13 @@ public interface Mapper<T> {
      */
     String createTable();
 
+    /**
+     * Describes the columns of the table and the version of the entity each column was added in,
+     * used by {@link SchemaMigrator} to upgrade the table
+     * @return the schema of the table
+     */
+    TableSchema getSchema();
+
     /**
      * Gets the name of the table for the given mapper type
      * @return database table name
@@ -55,6 +62,16 @@ public interface Mapper<T> {
      */
     T mapItem(Cursor cursor);
 
+    /**
+     * Pulls data from cursor like {@link #mapItem(Cursor)} but reads the columns by position
+     * instead of by name. The columns must be in the order of {@link #getFieldNames()} starting
+     * at offset, which lets one cursor hold the columns of several types.
+     * @param cursor a standard {@link Cursor} that must have it's pointer set to an element
+     * @param offset index of the column of the first field name
+     * @return an instance of {@link T} with mapped data from the cursor
+     */
+    T mapItem(Cursor cursor, int offset);
+
     /**
      * Pulls data from cursor and creates instances for each position iterating through the cursor
      * until it's on the last position. Cursor will be moved to the first position automatically.
@@ -73,7 +90,41 @@ public interface Mapper<T> {
     /**
      * Provides arguments for the sql query provided by {@link #getItemQuery()}
      * @param item the item which should be updated or deleted
-     * @return an array of arguments
+     * @return an array of arguments. A primary key stored as a BLOB, like a UUID, is given as
+     * hexadecimal text which a BLOB column never equals, compare it with hex(column) = ? or use
+     * {@link #getItemQueryBindArgs(T)} with this query
      */
     String[] getItemQueryArguments(T item);
+
+    /**
+     * Provides arguments for the sql query provided by {@link #getItemQuery()} as the values that
+     * are stored in the database, to be passed as where arguments to {@link Database}
+     * @param item the item which should be updated or deleted
+     * @return an array of arguments
+     */
+    Object[] getItemQueryBindArgs(T item);
+
+    /**
+     * Converts a value of the field stored in a column the way this mapper converts it when it
+     * maps an item, used for arguments that are compared with or written to the column
+     * @param columnName the name of the column
+     * @param value a value of the type of the field
+     * @return the value as it's stored in the database
+     */
+    Object getStoredValue(String columnName, Object value);
+
+    /**
+     * Sets the primary key that the database generated for an item that was inserted without one
+     * @param item the inserted item
+     * @param rowId the rowid returned by the insert, ignored if the primary key isn't generated by
+     * the database
+     */
+    void setRowId(T item, long rowId);
+
+    /**
+     * Gets the tracker that remembers the values of the items this mapper has mapped, used to
+     * update only the columns that have changed
+     * @return the tracker or null if the type doesn't track changes
+     */
+    ChangeTracker<T> getChangeTracker();
 }
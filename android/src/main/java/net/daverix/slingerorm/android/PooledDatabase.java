@@ -0,0 +1,284 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Database} that keeps one writer connection and a pool of read-only connections to the
+ * same database file. The database is put in write-ahead-logging mode so readers don't block the
+ * writer or each other. Queries are executed on a reader which is handed back to the pool when the
+ * returned cursor is closed, everything else goes to the writer. Queries made from a thread that
+ * is inside a transaction run on the writer so they see the uncommitted changes. A query made while
+ * every reader is in use waits for one to be handed back, except from a thread that already holds
+ * a reader, like from a loop over a cursor that is still open, which would wait for itself. Those
+ * queries run on the writer, as do queries that waited {@link #READER_TIMEOUT_MILLIS} without
+ * getting a reader.
+ *
+ * <p>Compiled statements belong to the connection they were compiled on, so the writer and every
+ * reader has its own {@link StatementCache}.</p>
+ */
+public class PooledDatabase implements Database, Closeable {
+    public static final long READER_TIMEOUT_MILLIS = 5000;
+
+    private final SQLiteDatabase writer;
+    private final List<SQLiteDatabase> readers;
+    private final BlockingQueue<SQLiteDatabase> idleReaders;
+    private final StatementCache writerStatements;
+    private final Map<SQLiteDatabase, StatementCache> readerStatements;
+    private final Map<SQLiteDatabase, Thread> readerOwners;
+
+    public PooledDatabase(SQLiteDatabase writer, int readerCount) {
+        this(writer, readerCount, SQLiteDatabaseWrapper.DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Opens readerCount read-only connections to the file that writer is using. The writer is
+     * still owned by the caller, {@link #close()} only closes the readers.
+     * @param writer an open database backed by a file
+     * @param readerCount number of read-only connections to keep open
+     * @param statementCacheSize the number of compiled statements to keep for each connection
+     */
+    public PooledDatabase(SQLiteDatabase writer, int readerCount, int statementCacheSize) {
+        if (writer == null) throw new IllegalArgumentException("writer is null");
+        if (readerCount < 1) throw new IllegalArgumentException("readerCount must be at least 1");
+
+        if (!writer.enableWriteAheadLogging())
+            throw new IllegalArgumentException("could not enable write-ahead logging for " + writer.getPath());
+
+        this.writer = writer;
+        this.readers = new ArrayList<SQLiteDatabase>(readerCount);
+        this.idleReaders = new ArrayBlockingQueue<SQLiteDatabase>(readerCount);
+        this.writerStatements = new StatementCache(writer, statementCacheSize);
+        this.readerStatements = new IdentityHashMap<SQLiteDatabase, StatementCache>(readerCount);
+        this.readerOwners = new IdentityHashMap<SQLiteDatabase, Thread>(readerCount);
+        for (int i = 0; i < readerCount; i++) {
+            SQLiteDatabase reader = SQLiteDatabase.openDatabase(writer.getPath(), null,
+                    SQLiteDatabase.OPEN_READONLY);
+            readers.add(reader);
+            idleReaders.add(reader);
+            readerStatements.put(reader, new StatementCache(reader, statementCacheSize));
+        }
+    }
+
+    @Override
+    public void execSQL(String sql) {
+        writer.execSQL(sql);
+    }
+
+    @Override
+    public int delete(String tableName, String where, Object[] whereArgs) {
+        return BindArgs.delete(writer, writerStatements, tableName, where, whereArgs);
+    }
+
+    @Override
+    public Cursor query(boolean distinct, String tableName, String[] columns, String where,
+                        Object[] whereArgs, String groupBy, String having, String orderBy,
+                        String limit) {
+        SQLiteDatabase reader = acquireReader();
+        if (reader == null) {
+            return BindArgs.query(writer, distinct, tableName, columns, where, whereArgs, groupBy,
+                    having, orderBy, limit);
+        }
+
+        try {
+            Cursor cursor = BindArgs.query(reader, distinct, tableName, columns, where, whereArgs,
+                    groupBy, having, orderBy, limit);
+            return new ReaderCursor(cursor, reader);
+        } catch (RuntimeException e) {
+            releaseReader(reader);
+            throw e;
+        }
+    }
+
+    @Override
+    public Cursor rawQuery(String sql, Object[] args) {
+        SQLiteDatabase reader = acquireReader();
+        if (reader == null)
+            return BindArgs.rawQuery(writer, sql, args);
+
+        try {
+            return new ReaderCursor(BindArgs.rawQuery(reader, sql, args), reader);
+        } catch (RuntimeException e) {
+            releaseReader(reader);
+            throw e;
+        }
+    }
+
+    @Override
+    public int update(String tableName, ContentValues contentValues, String where, Object[] whereArgs) {
+        return BindArgs.update(writer, writerStatements, tableName, contentValues, where,
+                whereArgs);
+    }
+
+    @Override
+    public long executeInsert(String sql, Object[] bindArgs) {
+        return writerStatements.executeInsert(sql, bindArgs);
+    }
+
+    @Override
+    public int executeUpdateDelete(String sql, Object[] bindArgs) {
+        return writerStatements.executeUpdateDelete(sql, bindArgs);
+    }
+
+    @Override
+    public long simpleQueryForLong(String sql, Object[] bindArgs) {
+        SQLiteDatabase reader = acquireReader();
+        if (reader == null)
+            return writerStatements.simpleQueryForLong(sql, bindArgs);
+
+        try {
+            return readerStatements.get(reader).simpleQueryForLong(sql, bindArgs);
+        } finally {
+            releaseReader(reader);
+        }
+    }
+
+    @Override
+    public long replace(String tableName, ContentValues contentValues) {
+        return writer.replaceOrThrow(tableName, null, contentValues);
+    }
+
+    @Override
+    public long insert(String tableName, ContentValues contentValues) {
+        return writer.insertOrThrow(tableName, null, contentValues);
+    }
+
+    /**
+     * Begins a transaction on the writer that makes every {@link ChangeTracker} forget its values
+     * if it's rolled back
+     */
+    @Override
+    public void beginTransaction() {
+        writer.beginTransactionWithListener(SQLiteDatabaseWrapper.ROLLBACK_LISTENER);
+    }
+
+    @Override
+    public void setTransactionSuccessful() {
+        writer.setTransactionSuccessful();
+    }
+
+    @Override
+    public void endTransaction() {
+        writer.endTransaction();
+    }
+
+    @Override
+    public boolean inTransaction() {
+        return writer.inTransaction();
+    }
+
+    /**
+     * @return the cache of compiled statements for the writer
+     */
+    public StatementCache getStatementCache() {
+        return writerStatements;
+    }
+
+    /**
+     * @return the caches of compiled statements for the readers, one per reader
+     */
+    public List<StatementCache> getReaderStatementCaches() {
+        List<StatementCache> caches = new ArrayList<StatementCache>(readers.size());
+        for (SQLiteDatabase reader : readers) {
+            caches.add(readerStatements.get(reader));
+        }
+        return caches;
+    }
+
+    /**
+     * Closes all readers and the cached statements. Cursors that are still open keep their reader
+     * open until they are closed.
+     */
+    @Override
+    public void close() {
+        writerStatements.close();
+        for (SQLiteDatabase reader : readers) {
+            readerStatements.get(reader).close();
+            reader.close();
+        }
+    }
+
+    /**
+     * @return an idle reader, or null if the query should run on the writer because the thread is
+     * inside a transaction, already holds a reader or no reader was handed back in time
+     */
+    private SQLiteDatabase acquireReader() {
+        if (writer.inTransaction()) return null;
+
+        Thread thread = Thread.currentThread();
+        synchronized (readerOwners) {
+            if (readerOwners.containsValue(thread)) return null;
+        }
+
+        SQLiteDatabase reader;
+        try {
+            reader = idleReaders.poll(READER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (reader == null) return null;
+
+        synchronized (readerOwners) {
+            readerOwners.put(reader, thread);
+        }
+        return reader;
+    }
+
+    private void releaseReader(SQLiteDatabase reader) {
+        synchronized (readerOwners) {
+            readerOwners.remove(reader);
+        }
+        idleReaders.offer(reader);
+    }
+
+    private class ReaderCursor extends CursorWrapper {
+        private SQLiteDatabase reader;
+
+        ReaderCursor(Cursor cursor, SQLiteDatabase reader) {
+            super(cursor);
+            this.reader = reader;
+        }
+
+        @Override
+        public void close() {
+            try {
+                super.close();
+            } finally {
+                synchronized (this) {
+                    if (reader != null) {
+                        releaseReader(reader);
+                        reader = null;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -4,12 +4,46 @@ package net.daverix.slingerorm.android;
 import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteTransactionListener;
 
+/**
+ * A {@link Database} that uses one {@link SQLiteDatabase}. Compiled statements are kept in a
+ * {@link StatementCache}, use the same instance for all storages that use the database to share
+ * it.
+ */
 public class SQLiteDatabaseWrapper implements Database {
+    static final int DEFAULT_STATEMENT_CACHE_SIZE = 25;
+    static final SQLiteTransactionListener ROLLBACK_LISTENER = new SQLiteTransactionListener() {
+        @Override
+        public void onBegin() {
+        }
+
+        @Override
+        public void onCommit() {
+        }
+
+        @Override
+        public void onRollback() {
+            ChangeTracker.clearAll();
+        }
+    };
+
     private final SQLiteDatabase db;
+    private final StatementCache statements;
 
     public SQLiteDatabaseWrapper(SQLiteDatabase db) {
+        this(db, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param db the database to use
+     * @param statementCacheSize the number of compiled statements to keep
+     */
+    public SQLiteDatabaseWrapper(SQLiteDatabase db, int statementCacheSize) {
+        if (db == null) throw new IllegalArgumentException("db is null");
+
         this.db = db;
+        this.statements = new StatementCache(db, statementCacheSize);
     }
 
     @Override
@@ -18,21 +52,41 @@ public class SQLiteDatabaseWrapper implements Database {
     }
 
     @Override
-    public int delete(String tableName, String where, String[] whereArgs) {
-        return db.delete(tableName, where, whereArgs);
+    public int delete(String tableName, String where, Object[] whereArgs) {
+        return BindArgs.delete(db, statements, tableName, where, whereArgs);
     }
 
     @Override
     public Cursor query(boolean distinct, String tableName, String[] columns, String where,
-                        String[] whereArgs, String groupBy, String having, String orderBy,
+                        Object[] whereArgs, String groupBy, String having, String orderBy,
                         String limit) {
-        return db.query(distinct, tableName, columns, where, whereArgs, groupBy, having, orderBy,
-                limit);
+        return BindArgs.query(db, distinct, tableName, columns, where, whereArgs, groupBy, having,
+                orderBy, limit);
+    }
+
+    @Override
+    public Cursor rawQuery(String sql, Object[] args) {
+        return BindArgs.rawQuery(db, sql, args);
+    }
+
+    @Override
+    public int update(String tableName, ContentValues contentValues, String where, Object[] whereArgs) {
+        return BindArgs.update(db, statements, tableName, contentValues, where, whereArgs);
+    }
+
+    @Override
+    public long executeInsert(String sql, Object[] bindArgs) {
+        return statements.executeInsert(sql, bindArgs);
+    }
+
+    @Override
+    public int executeUpdateDelete(String sql, Object[] bindArgs) {
+        return statements.executeUpdateDelete(sql, bindArgs);
     }
 
     @Override
-    public int update(String tableName, ContentValues contentValues, String where, String[] whereArgs) {
-        return db.update(tableName, contentValues, where, whereArgs);
+    public long simpleQueryForLong(String sql, Object[] bindArgs) {
+        return statements.simpleQueryForLong(sql, bindArgs);
     }
 
     @Override
@@ -44,4 +98,35 @@ public class SQLiteDatabaseWrapper implements Database {
     public long insert(String tableName, ContentValues contentValues) {
         return db.insertOrThrow(tableName, null, contentValues);
     }
+
+    /**
+     * Begins a transaction that makes every {@link ChangeTracker} forget its values if it's rolled
+     * back
+     */
+    @Override
+    public void beginTransaction() {
+        db.beginTransactionWithListener(ROLLBACK_LISTENER);
+    }
+
+    @Override
+    public void setTransactionSuccessful() {
+        db.setTransactionSuccessful();
+    }
+
+    @Override
+    public void endTransaction() {
+        db.endTransaction();
+    }
+
+    @Override
+    public boolean inTransaction() {
+        return db.inTransaction();
+    }
+
+    /**
+     * @return the cache of compiled statements, to read its counters
+     */
+    public StatementCache getStatementCache() {
+        return statements;
+    }
 }
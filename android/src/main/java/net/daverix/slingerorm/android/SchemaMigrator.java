@@ -0,0 +1,609 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android;
+
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Keeps the tables of mappers at the version of their entity. The version of every table is
+ * stored in the table slinger_schema. {@link #upgrade(Mapper)} is quick and is called when the
+ * table is created: it creates a missing table, and adds new columns to an older table with
+ * ALTER TABLE, which doesn't touch the existing rows. Work that has to go through the rows is
+ * scheduled in the table slinger_migration and done later by {@link #runPendingMigrations()}.
+ * A table that is already at the version of its mapper is only looked up, without a transaction
+ * or any DDL, so creating the tables of a storage stays cheap on every start.</p>
+ *
+ * <p>Two kinds of work are scheduled. A backfill sets a new column of the existing rows from the
+ * backfill expression of its field. A rebuild copies the table into a new table when columns have
+ * been removed or changed or the primary key has changed, which ALTER TABLE can't do. While the
+ * rows are copied, triggers keep the new table in sync with writes to the old one, which stays in
+ * use. The tables are swapped in one short transaction when the copy is done, together with the
+ * indexes and triggers of the old table. Rows of the old table with the same new primary key are
+ * merged into one.</p>
+ *
+ * <p>The old table can only stay in use if the mapper can read and write it. When a primary key
+ * column has been added, which the mapper selects, or a NOT NULL column without a default has been
+ * removed, which the mapper doesn't insert, the table is instead rebuilt right away by
+ * {@link #upgrade(Mapper)}.</p>
+ *
+ * <p>Both run in chunks of rows in transactions of their own and save their position with every
+ * chunk. They can be stopped by interrupting the thread and continue where they stopped on the
+ * next call, also after the app has been restarted.</p>
+ *
+ * <p>The hash of the schema of a whole storage is stored in the table slinger_storage by
+ * {@link #setStorageHash(String, long)}, so a storage can skip creating its tables when
+ * {@link #hasStorageHash(String, long, String...)} says they are up to date.</p>
+ *
+ * <p>Indexes and triggers that {@link BulkLoader} drops during a load are saved in the table
+ * slinger_dropped_schema, so {@link #restoreDroppedSchema()} can create them again even if the
+ * app was killed during the load. Until then the storage hash doesn't match.</p>
+ */
+public class SchemaMigrator {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final String SQL_CREATE_SCHEMA_TABLE = "CREATE TABLE IF NOT EXISTS slinger_schema(table_name TEXT NOT NULL PRIMARY KEY, version INTEGER NOT NULL)";
+    private static final String SQL_CREATE_MIGRATION_TABLE = "CREATE TABLE IF NOT EXISTS slinger_migration(id INTEGER NOT NULL PRIMARY KEY, table_name TEXT NOT NULL, column_name TEXT, columns TEXT, expression TEXT NOT NULL, create_sql TEXT, position INTEGER NOT NULL)";
+    private static final String SQL_SCHEMA_TABLES_EXIST = "SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name IN ('slinger_schema', ?)";
+    private static final String SQL_VERSION = "SELECT ifnull(max(version), 0) FROM slinger_schema WHERE table_name = ?";
+    private static final String SQL_SET_VERSION = "INSERT OR REPLACE INTO slinger_schema(table_name, version) VALUES (?, ?)";
+    private static final String SQL_INSERT_MIGRATION = "INSERT INTO slinger_migration(table_name, column_name, columns, expression, create_sql, position) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SQL_NEXT_MIGRATION = "SELECT id, table_name, column_name, columns, expression, create_sql, position FROM slinger_migration ORDER BY id LIMIT 1";
+    private static final String SQL_PENDING_MIGRATIONS = "SELECT count(*) FROM slinger_migration";
+    private static final String SQL_SET_POSITION = "UPDATE slinger_migration SET position = ? WHERE id = ?";
+    private static final String SQL_DELETE_MIGRATION = "DELETE FROM slinger_migration WHERE id = ?";
+    private static final String SQL_DELETE_MIGRATIONS = "DELETE FROM slinger_migration WHERE table_name = ?";
+    private static final String SQL_DELETE_REBUILD = "DELETE FROM slinger_migration WHERE table_name = ? AND column_name IS NULL";
+    private static final String SQL_CREATE_STORAGE_TABLE = "CREATE TABLE IF NOT EXISTS slinger_storage(storage_name TEXT NOT NULL PRIMARY KEY, schema_hash INTEGER NOT NULL)";
+    private static final String SQL_CREATE_DROPPED_SCHEMA_TABLE = "CREATE TABLE IF NOT EXISTS slinger_dropped_schema(name TEXT NOT NULL PRIMARY KEY, type TEXT NOT NULL, table_name TEXT NOT NULL, sql TEXT NOT NULL)";
+    private static final String SQL_STORAGE_HASH_EXISTS = "SELECT count(*) FROM slinger_storage WHERE storage_name = ? AND schema_hash = ? AND NOT EXISTS (SELECT 1 FROM slinger_dropped_schema) AND (SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name IN (%s)) = ?";
+    private static final String SQL_SET_STORAGE_HASH = "INSERT OR REPLACE INTO slinger_storage(storage_name, schema_hash) VALUES (?, ?)";
+    private static final String SQL_INSERT_DROPPED_SCHEMA = "INSERT OR REPLACE INTO slinger_dropped_schema(name, type, table_name, sql) VALUES (?, ?, ?, ?)";
+    private static final String SQL_DROPPED_SCHEMA = "SELECT name, type, table_name, sql FROM slinger_dropped_schema";
+    private static final String SQL_DELETE_DROPPED_SCHEMA = "DELETE FROM slinger_dropped_schema";
+    private static final String SQL_SCHEMA_EXISTS = "SELECT count(*) FROM sqlite_master WHERE name = ?";
+    private static final String SQL_TABLE_EXISTS = "SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name = ?";
+    private static final String SQL_TABLE_SCHEMA = "SELECT sql FROM sqlite_master WHERE tbl_name = ? AND type IN ('index', 'trigger') AND sql IS NOT NULL";
+    private static final String[] MIRROR_TRIGGERS = {"_ai", "_bu", "_au", "_bd"};
+
+    private final Database db;
+    private final int chunkSize;
+
+    public SchemaMigrator(Database db) {
+        this(db, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param db the database with the tables
+     * @param chunkSize the number of rows to backfill or copy per transaction
+     */
+    public SchemaMigrator(Database db, int chunkSize) {
+        if (db == null) throw new IllegalArgumentException("db is null");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be at least 1");
+
+        this.db = db;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates the table of mapper if it doesn't exist, or brings it to the version of the mapper
+     * by adding columns and scheduling backfills and rebuilds. A rebuild the mapper can't wait for
+     * is done before returning, which copies all rows. Does nothing when the table already has the
+     * version of the mapper and exists. A table that existed before it had a version is compared
+     * column by column, and a table that was dropped is created again.
+     * @param mapper the mapper of the table
+     * @throws IllegalStateException if the database has a later version of the table
+     */
+    public void upgrade(Mapper<?> mapper) {
+        if (mapper == null) throw new IllegalArgumentException("mapper is null");
+
+        TableSchema schema = mapper.getSchema();
+        String tableName = schema.getTableName();
+        if (isUpToDate(tableName, schema.getVersion())) return;
+
+        db.beginTransaction();
+        try {
+            db.execSQL(SQL_CREATE_SCHEMA_TABLE);
+            db.execSQL(SQL_CREATE_MIGRATION_TABLE);
+            long version = db.simpleQueryForLong(SQL_VERSION, new Object[]{tableName});
+            if (version > schema.getVersion())
+                throw new IllegalStateException("the database has version " + version + " of " + tableName + " but the mapper has version " + schema.getVersion());
+
+            if (version < schema.getVersion() || !tableExists(tableName)) {
+                Map<String, ExistingColumn> existingColumns = getColumns(tableName);
+                if (existingColumns.isEmpty()) {
+                    db.executeUpdateDelete(SQL_DELETE_MIGRATIONS, new Object[]{tableName});
+                    db.execSQL(schema.getCreateTableSql());
+                } else {
+                    alterTable(schema, existingColumns);
+                }
+                db.executeInsert(SQL_SET_VERSION, new Object[]{tableName, schema.getVersion()});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @return true if there are backfills or rebuilds that haven't been done
+     */
+    public boolean hasPendingMigrations() {
+        db.execSQL(SQL_CREATE_MIGRATION_TABLE);
+        return db.simpleQueryForLong(SQL_PENDING_MIGRATIONS, null) > 0;
+    }
+
+    /**
+     * Checks if the tables of a storage were created or upgraded with the schema that has the
+     * given hash and still exist, without running any DDL. A table dropped after the hash was set,
+     * like in an onUpgrade that drops all tables, makes the check fail so the tables are created
+     * again.
+     * @param storageName the qualified name of the storage
+     * @param schemaHash the hash of the schema of all tables of the storage
+     * @param tableNames the tables of the storage
+     * @return true if the hash was set with {@link #setStorageHash(String, long)}, all tables
+     * exist and no indexes or triggers wait to be restored by {@link #restoreDroppedSchema()}
+     */
+    public boolean hasStorageHash(String storageName, long schemaHash, String... tableNames) {
+        if (storageName == null) throw new IllegalArgumentException("storageName is null");
+        if (tableNames == null) throw new IllegalArgumentException("tableNames is null");
+        if (!tableExists("slinger_storage")) return false;
+
+        StringBuilder placeholders = new StringBuilder();
+        Object[] args = new Object[tableNames.length + 3];
+        args[0] = storageName;
+        args[1] = schemaHash;
+        for (int i = 0; i < tableNames.length; i++) {
+            placeholders.append(i > 0 ? ", ?" : "?");
+            args[i + 2] = tableNames[i];
+        }
+        args[args.length - 1] = tableNames.length;
+        String sql = String.format(Locale.US, SQL_STORAGE_HASH_EXISTS, placeholders);
+        return db.simpleQueryForLong(sql, args) > 0;
+    }
+
+    /**
+     * Stores the hash of the schema of a storage, call it in the same transaction as the tables
+     * are created or upgraded.
+     * @param storageName the qualified name of the storage
+     * @param schemaHash the hash of the schema of all tables of the storage
+     */
+    public void setStorageHash(String storageName, long schemaHash) {
+        if (storageName == null) throw new IllegalArgumentException("storageName is null");
+
+        db.execSQL(SQL_CREATE_STORAGE_TABLE);
+        db.execSQL(SQL_CREATE_DROPPED_SCHEMA_TABLE);
+        db.executeInsert(SQL_SET_STORAGE_HASH, new Object[]{storageName, schemaHash});
+    }
+
+    /**
+     * Creates the indexes and triggers dropped by {@link BulkLoader} again, also those of a load
+     * that never finished. A dropped object that already exists or whose table is gone is
+     * skipped. The full text index of a table is rebuilt if any of its triggers were restored.
+     */
+    public void restoreDroppedSchema() {
+        if (!tableExists("slinger_dropped_schema")) return;
+
+        db.beginTransaction();
+        try {
+            List<String[]> droppedSchema = new ArrayList<String[]>();
+            Cursor cursor = db.rawQuery(SQL_DROPPED_SCHEMA, null);
+            try {
+                while (cursor.moveToNext()) {
+                    droppedSchema.add(new String[]{cursor.getString(0), cursor.getString(1),
+                            cursor.getString(2), cursor.getString(3)});
+                }
+            } finally {
+                cursor.close();
+            }
+
+            Set<String> fullTextTableNames = new LinkedHashSet<String>();
+            for (String[] dropped : droppedSchema) {
+                String tableName = dropped[2];
+                if (!tableExists(tableName) ||
+                        db.simpleQueryForLong(SQL_SCHEMA_EXISTS, new Object[]{dropped[0]}) > 0) continue;
+
+                db.execSQL(dropped[3]);
+                if ("trigger".equals(dropped[1])) {
+                    fullTextTableNames.add(tableName + "_fts");
+                }
+            }
+            for (String fullTextTableName : fullTextTableNames) {
+                if (tableExists(fullTextTableName)) {
+                    db.execSQL("INSERT INTO " + fullTextTableName + "(" + fullTextTableName + ") VALUES ('rebuild')");
+                }
+            }
+            db.execSQL(SQL_DELETE_DROPPED_SCHEMA);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Drops an index or trigger and saves the statement that creates it, in the same transaction,
+     * for {@link #restoreDroppedSchema()}
+     * @param type index or trigger
+     */
+    void dropSchema(String type, String name, String tableName, String sql) {
+        db.beginTransaction();
+        try {
+            db.execSQL(SQL_CREATE_DROPPED_SCHEMA_TABLE);
+            db.executeInsert(SQL_INSERT_DROPPED_SCHEMA, new Object[]{name, type, tableName, sql});
+            db.execSQL("DROP " + type.toUpperCase(Locale.US) + " " + name);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Runs the backfills and rebuilds scheduled by {@link #upgrade(Mapper)} in the order they
+     * were scheduled. Meant to be called from a background thread, the tables can be used while
+     * it runs.
+     * @return true if everything is done, false if the thread was interrupted
+     * @throws IllegalStateException if called inside a transaction, since the chunks couldn't be
+     * committed
+     */
+    public boolean runPendingMigrations() {
+        if (db.inTransaction())
+            throw new IllegalStateException("migrations can't be run inside a transaction");
+
+        db.execSQL(SQL_CREATE_MIGRATION_TABLE);
+        Migration migration;
+        while ((migration = getNextMigration()) != null) {
+            boolean done = migration.columnName != null ? backfill(migration) : rebuild(migration);
+            if (!done) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the table exists and slinger_schema has the given version of it, checked
+     * without creating slinger_schema
+     */
+    private boolean isUpToDate(String tableName, long version) {
+        if (db.simpleQueryForLong(SQL_SCHEMA_TABLES_EXIST, new Object[]{tableName}) < 2) return false;
+
+        return db.simpleQueryForLong(SQL_VERSION, new Object[]{tableName}) == version;
+    }
+
+    private void alterTable(TableSchema schema, Map<String, ExistingColumn> existingColumns) {
+        String tableName = schema.getTableName();
+        boolean rebuild = false;
+        boolean rebuildNow = false;
+        List<String> columns = new ArrayList<String>();
+        List<String> expressions = new ArrayList<String>();
+        for (TableSchema.Column column : schema.getColumns()) {
+            String name = column.getName();
+            ExistingColumn existing = existingColumns.remove(name.toLowerCase(Locale.US));
+            columns.add(name);
+            if (existing == null && column.isPrimaryKey()) {
+                if (column.getBackfill() == null)
+                    throw new IllegalStateException("primary key column " + name + " can't be added to " + tableName + " without a backfill");
+
+                expressions.add("(" + column.getBackfill() + ") AS " + name);
+                rebuildNow = true;
+                continue;
+            }
+
+            expressions.add(name + " AS " + name);
+            if (existing == null) {
+                db.execSQL("ALTER TABLE " + tableName + " ADD COLUMN " + name + " " + column.getType());
+                if (column.getBackfill() != null) {
+                    db.executeInsert(SQL_INSERT_MIGRATION, new Object[]{tableName, name, null,
+                            column.getBackfill(), null, Long.MIN_VALUE});
+                }
+            } else if (!existing.type.equalsIgnoreCase(column.getType()) ||
+                    existing.primaryKey != column.isPrimaryKey()) {
+                rebuild = true;
+            }
+        }
+
+        for (ExistingColumn removed : existingColumns.values()) {
+            if (removed.required) {
+                rebuildNow = true;
+            }
+        }
+
+        if (rebuildNow) {
+            cancelRebuild(tableName);
+            String newTableName = createNewTable(tableName, schema.getCreateTableSql());
+            db.execSQL(getCopySql(tableName, newTableName, join(columns, ", "), join(expressions, ", ")));
+            swapTables(tableName);
+        } else if (rebuild || !existingColumns.isEmpty()) {
+            cancelRebuild(tableName);
+            db.executeInsert(SQL_INSERT_MIGRATION, new Object[]{tableName, null,
+                    join(columns, ", "), join(expressions, ", "), schema.getCreateTableSql(), Long.MIN_VALUE});
+        }
+    }
+
+    /**
+     * Drops what an earlier rebuild of an older version has created
+     */
+    private void cancelRebuild(String tableName) {
+        String newTableName = getNewTableName(tableName);
+        dropMirrorTriggers(newTableName);
+        db.execSQL("DROP TABLE IF EXISTS " + newTableName);
+        db.executeUpdateDelete(SQL_DELETE_REBUILD, new Object[]{tableName});
+    }
+
+    private boolean backfill(Migration migration) {
+        String sql = "UPDATE " + migration.tableName + " SET " + migration.columnName + " = (" +
+                migration.expression + ") WHERE rowid > ? AND rowid <= ? AND " +
+                migration.columnName + " IS NULL";
+        return runInChunks(migration, sql, null);
+    }
+
+    private boolean rebuild(Migration migration) {
+        String tableName = migration.tableName;
+        String newTableName = getNewTableName(tableName);
+        if (!tableExists(newTableName)) {
+            startRebuild(migration);
+        }
+
+        String sql = getCopySql(tableName, newTableName, migration.columns, migration.expression) +
+                " WHERE rowid > ? AND rowid <= ?";
+        return runInChunks(migration, sql, () -> swapTables(tableName));
+    }
+
+    /**
+     * Creates the new table and the triggers that copy every change of the old table to it
+     */
+    private void startRebuild(Migration migration) {
+        String tableName = migration.tableName;
+        db.beginTransaction();
+        try {
+            String newTableName = createNewTable(tableName, migration.createSql);
+
+            List<String> keyMatches = new ArrayList<String>();
+            for (ExistingColumn column : getColumns(newTableName).values()) {
+                if (column.primaryKey) {
+                    keyMatches.add("m." + column.name + " = o." + column.name);
+                }
+            }
+            String copyRow = getCopySql(tableName, newTableName, migration.columns,
+                    migration.expression) + " WHERE rowid = new.rowid;";
+            String deleteRow = "DELETE FROM " + newTableName + " WHERE rowid IN (SELECT m.rowid FROM " +
+                    newTableName + " AS m, (SELECT " + migration.expression + " FROM " + tableName +
+                    " WHERE rowid = old.rowid) AS o WHERE " + join(keyMatches, " AND ") + ");";
+            createMirrorTrigger(newTableName + "_ai", "AFTER INSERT", tableName, copyRow);
+            createMirrorTrigger(newTableName + "_bu", "BEFORE UPDATE", tableName, deleteRow);
+            createMirrorTrigger(newTableName + "_au", "AFTER UPDATE", tableName, copyRow);
+            createMirrorTrigger(newTableName + "_bd", "BEFORE DELETE", tableName, deleteRow);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @param createSql the statement creating the table in the mapper
+     * @return the name of the created table
+     */
+    private String createNewTable(String tableName, String createSql) {
+        String createPrefix = "CREATE TABLE IF NOT EXISTS " + tableName + "(";
+        if (!createSql.startsWith(createPrefix))
+            throw new IllegalStateException("unexpected create statement for " + tableName + ": " + createSql);
+
+        String newTableName = getNewTableName(tableName);
+        db.execSQL("CREATE TABLE " + newTableName + "(" + createSql.substring(createPrefix.length()));
+        return newTableName;
+    }
+
+    /**
+     * @return a statement copying all rows of the old table to the new one, keeping the rowids
+     * when the new table has no column that is an alias for them
+     */
+    private String getCopySql(String tableName, String newTableName, String columns, String expressions) {
+        boolean copyRowId = getRowIdAlias(newTableName) == null;
+        return "INSERT OR REPLACE INTO " + newTableName + "(" + (copyRowId ? "rowid, " : "") +
+                columns + ") SELECT " + (copyRowId ? "rowid, " : "") + expressions + " FROM " + tableName;
+    }
+
+    private void createMirrorTrigger(String name, String event, String tableName, String body) {
+        db.execSQL("CREATE TRIGGER " + name + " " + event + " ON " + tableName + " BEGIN " + body + " END");
+    }
+
+    private void dropMirrorTriggers(String newTableName) {
+        for (String suffix : MIRROR_TRIGGERS) {
+            db.execSQL("DROP TRIGGER IF EXISTS " + newTableName + suffix);
+        }
+    }
+
+    /**
+     * Replaces the old table with the new one and moves the indexes and triggers of the old table
+     * to it. The full text index reads the text by rowid so it's rebuilt if the rowids changed.
+     */
+    private void swapTables(String tableName) {
+        String newTableName = getNewTableName(tableName);
+        String oldRowIdAlias = getRowIdAlias(tableName);
+        String newRowIdAlias = getRowIdAlias(newTableName);
+        boolean sameRowIds = newRowIdAlias == null || newRowIdAlias.equalsIgnoreCase(oldRowIdAlias);
+
+        dropMirrorTriggers(newTableName);
+        List<String> schemaSql = new ArrayList<String>();
+        Cursor cursor = db.rawQuery(SQL_TABLE_SCHEMA, new Object[]{tableName});
+        try {
+            while (cursor.moveToNext()) {
+                schemaSql.add(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        db.execSQL("DROP TABLE " + tableName);
+        db.execSQL("ALTER TABLE " + newTableName + " RENAME TO " + tableName);
+        for (String sql : schemaSql) {
+            db.execSQL(sql);
+        }
+
+        String fullTextTableName = tableName + "_fts";
+        if (!sameRowIds && tableExists(fullTextTableName)) {
+            db.execSQL("INSERT INTO " + fullTextTableName + "(" + fullTextTableName + ") VALUES ('rebuild')");
+        }
+    }
+
+    /**
+     * Executes sql for the rows of the table of migration in chunks of rowids, starting after the
+     * saved position. sql gets the first rowid of the chunk, exclusive, and the last, inclusive.
+     * @param finish executed in the same transaction as the deletion of the migration, may be null
+     * @return true if done, false if the thread was interrupted
+     */
+    private boolean runInChunks(Migration migration, String sql, Runnable finish) {
+        String chunkSql = "SELECT ifnull(max(rowid), ?) FROM (SELECT rowid FROM " +
+                migration.tableName + " WHERE rowid > ? ORDER BY rowid LIMIT " + chunkSize + ")";
+        long position = migration.position;
+        while (!Thread.currentThread().isInterrupted()) {
+            db.beginTransaction();
+            try {
+                long chunkEnd = db.simpleQueryForLong(chunkSql, new Object[]{position, position});
+                if (chunkEnd == position) {
+                    if (finish != null) {
+                        finish.run();
+                    }
+                    db.executeUpdateDelete(SQL_DELETE_MIGRATION, new Object[]{migration.id});
+                    db.setTransactionSuccessful();
+                    return true;
+                }
+
+                db.executeUpdateDelete(sql, new Object[]{position, chunkEnd});
+                db.executeUpdateDelete(SQL_SET_POSITION, new Object[]{chunkEnd, migration.id});
+                db.setTransactionSuccessful();
+                position = chunkEnd;
+            } finally {
+                db.endTransaction();
+            }
+        }
+        return false;
+    }
+
+    private Migration getNextMigration() {
+        Cursor cursor = db.rawQuery(SQL_NEXT_MIGRATION, null);
+        try {
+            if (!cursor.moveToFirst()) return null;
+
+            return new Migration(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                    cursor.getString(3), cursor.getString(4), cursor.getString(5),
+                    cursor.getLong(6));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * @return the columns of the table by their lower case name, empty if the table doesn't exist
+     */
+    private Map<String, ExistingColumn> getColumns(String tableName) {
+        Map<String, ExistingColumn> columns = new LinkedHashMap<String, ExistingColumn>();
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + tableName + ")", null);
+        try {
+            int nameIndex = cursor.getColumnIndexOrThrow("name");
+            int typeIndex = cursor.getColumnIndexOrThrow("type");
+            int primaryKeyIndex = cursor.getColumnIndexOrThrow("pk");
+            int notNullIndex = cursor.getColumnIndexOrThrow("notnull");
+            int defaultIndex = cursor.getColumnIndexOrThrow("dflt_value");
+            while (cursor.moveToNext()) {
+                String name = cursor.getString(nameIndex);
+                columns.put(name.toLowerCase(Locale.US), new ExistingColumn(name,
+                        cursor.getString(typeIndex), cursor.getInt(primaryKeyIndex) > 0,
+                        cursor.getInt(notNullIndex) > 0 && cursor.isNull(defaultIndex)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return columns;
+    }
+
+    /**
+     * @return the column that is an alias for the rowid, or null if the table has none
+     */
+    private String getRowIdAlias(String tableName) {
+        ExistingColumn key = null;
+        for (ExistingColumn column : getColumns(tableName).values()) {
+            if (!column.primaryKey) continue;
+            if (key != null) return null;
+
+            key = column;
+        }
+        return key != null && "INTEGER".equalsIgnoreCase(key.type) ? key.name : null;
+    }
+
+    private boolean tableExists(String tableName) {
+        return db.simpleQueryForLong(SQL_TABLE_EXISTS, new Object[]{tableName}) > 0;
+    }
+
+    private static String getNewTableName(String tableName) {
+        return tableName + "_migrate";
+    }
+
+    private static String join(List<String> values, String separator) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(values.get(i));
+        }
+        return builder.toString();
+    }
+
+    private static class ExistingColumn {
+        private final String name;
+        private final String type;
+        private final boolean primaryKey;
+        private final boolean required;
+
+        /**
+         * @param required true if the column is NOT NULL without a default, so an insert must set it
+         */
+        ExistingColumn(String name, String type, boolean primaryKey, boolean required) {
+            this.name = name;
+            this.type = type;
+            this.primaryKey = primaryKey;
+            this.required = required;
+        }
+    }
+
+    private static class Migration {
+        private final long id;
+        private final String tableName;
+        private final String columnName;
+        private final String columns;
+        private final String expression;
+        private final String createSql;
+        private final long position;
+
+        Migration(long id, String tableName, String columnName, String columns, String expression,
+                  String createSql, long position) {
+            this.id = id;
+            this.tableName = tableName;
+            this.columnName = columnName;
+            this.columns = columns;
+            this.expression = expression;
+            this.createSql = createSql;
+            this.position = position;
+        }
+    }
+}
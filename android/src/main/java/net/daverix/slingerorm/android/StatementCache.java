@@ -0,0 +1,228 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android;
+
+import android.annotation.TargetApi;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Keeps the most recently used compiled statements of one connection so statements that are
+ * executed again with the same SQL text are only compiled once. When the cache is full the least
+ * recently used statement is closed to make room for the new one.</p>
+ *
+ * <p>A compiled statement can't be used by two threads at once, so a statement is taken out of
+ * the cache while it's executed and a thread that needs the same statement meanwhile compiles
+ * its own. The lock of the cache is never held while a statement is compiled or executed, as
+ * that waits for the connection, which a thread in a transaction holds while it waits for the
+ * lock.</p>
+ */
+public final class StatementCache implements Closeable {
+    private static final String SQL_CHANGES = "SELECT changes()";
+
+    private final SQLiteDatabase db;
+    private final int maxSize;
+    private final Map<String, SQLiteStatement> statements;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private SQLiteStatement evicted;
+
+    /**
+     * @param db the connection the statements are compiled for
+     * @param maxSize the maximum number of statements to keep compiled
+     */
+    public StatementCache(SQLiteDatabase db, int maxSize) {
+        if (db == null) throw new IllegalArgumentException("db is null");
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be at least 1");
+
+        this.db = db;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<String, SQLiteStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SQLiteStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) return false;
+
+                evicted = eldest.getValue();
+                evictionCount++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Executes an INSERT statement
+     * @param sql the statement
+     * @param bindArgs arguments for the question marks in sql, the same types as where arguments
+     * @return the row id of the inserted row, -1 if it wasn't inserted
+     */
+    public long executeInsert(String sql, Object[] bindArgs) {
+        SQLiteStatement statement = acquireStatement(sql, bindArgs);
+        try {
+            return statement.executeInsert();
+        } finally {
+            releaseStatement(sql, statement);
+        }
+    }
+
+    /**
+     * Executes an UPDATE or DELETE statement
+     * @param sql the statement
+     * @param bindArgs arguments for the question marks in sql, the same types as where arguments
+     * @return the number of changed rows
+     */
+    public int executeUpdateDelete(String sql, Object[] bindArgs) {
+        SQLiteStatement statement = acquireStatement(sql, bindArgs);
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB)
+                return executeUpdateDelete(statement);
+
+            // changes() must be read on the connection that executed the statement, which the
+            // transaction makes sure of
+            db.beginTransaction();
+            try {
+                statement.execute();
+                int changes = (int) simpleQueryForLong(SQL_CHANGES, null);
+                db.setTransactionSuccessful();
+                return changes;
+            } finally {
+                db.endTransaction();
+            }
+        } finally {
+            releaseStatement(sql, statement);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static int executeUpdateDelete(SQLiteStatement statement) {
+        return statement.executeUpdateDelete();
+    }
+
+    /**
+     * Executes a statement that returns one row with one integer column, like a count
+     * @param sql the statement
+     * @param bindArgs arguments for the question marks in sql, the same types as where arguments
+     * @return the value of the first column of the first row
+     * @throws android.database.sqlite.SQLiteDoneException if there are no rows
+     */
+    public long simpleQueryForLong(String sql, Object[] bindArgs) {
+        SQLiteStatement statement = acquireStatement(sql, bindArgs);
+        try {
+            return statement.simpleQueryForLong();
+        } finally {
+            releaseStatement(sql, statement);
+        }
+    }
+
+    /**
+     * Takes the statement out of the cache, or compiles it if it isn't there, and binds the
+     * arguments. It must be given back with {@link #releaseStatement(String, SQLiteStatement)}.
+     */
+    private SQLiteStatement acquireStatement(String sql, Object[] bindArgs) {
+        if (sql == null) throw new IllegalArgumentException("sql is null");
+
+        SQLiteStatement statement;
+        synchronized (this) {
+            statement = statements.remove(sql);
+            if (statement != null) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+
+        if (statement != null) {
+            statement.clearBindings();
+        } else {
+            statement = db.compileStatement(sql);
+        }
+
+        if (bindArgs != null) {
+            BindArgs.bind(statement, bindArgs);
+        }
+        return statement;
+    }
+
+    /**
+     * Puts the statement back in the cache, or closes it if another thread already put back a
+     * statement with the same SQL. A statement evicted to make room is closed after the lock is
+     * released.
+     */
+    private void releaseStatement(String sql, SQLiteStatement statement) {
+        SQLiteStatement unused = statement;
+        synchronized (this) {
+            if (!statements.containsKey(sql)) {
+                statements.put(sql, statement);
+                unused = evicted;
+                evicted = null;
+            }
+        }
+
+        if (unused != null) {
+            unused.close();
+        }
+    }
+
+    /**
+     * @return the number of statements that were already compiled
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of statements that had to be compiled
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of statements that were closed to make room for others
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of compiled statements in the cache
+     */
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Closes all compiled statements. The cache can still be used after this, the statements are
+     * then compiled again.
+     */
+    @Override
+    public synchronized void close() {
+        for (SQLiteStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+    }
+}
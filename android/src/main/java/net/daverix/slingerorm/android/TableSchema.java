@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Describes the table of a mapper: its columns, their types and which version of the entity each
+ * column was added in, so the columns of any earlier version are known too. Generated by the
+ * mappers and used by {@link SchemaMigrator} to upgrade the table.
+ */
+public class TableSchema {
+    private final String tableName;
+    private final int version;
+    private final long hash;
+    private final String createTableSql;
+    private final Column[] columns;
+
+    /**
+     * @param tableName the name of the table
+     * @param version the current version of the table
+     * @param hash a hash of the current schema of the table, computed when the mapper was generated
+     * @param createTableSql the statement creating the current version of the table
+     * @param columns the columns of the current version
+     */
+    public TableSchema(String tableName, int version, long hash, String createTableSql,
+                       Column[] columns) {
+        if (tableName == null) throw new IllegalArgumentException("tableName is null");
+        if (version < 1) throw new IllegalArgumentException("version must be at least 1");
+        if (createTableSql == null) throw new IllegalArgumentException("createTableSql is null");
+        if (columns == null) throw new IllegalArgumentException("columns is null");
+
+        this.tableName = tableName;
+        this.version = version;
+        this.hash = hash;
+        this.createTableSql = createTableSql;
+        this.columns = columns;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return a hash that changes whenever the columns, the version or the statement creating the
+     * table changes
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public String getCreateTableSql() {
+        return createTableSql;
+    }
+
+    /**
+     * @return the columns of the current version
+     */
+    public List<Column> getColumns() {
+        return new ArrayList<Column>(Arrays.asList(columns));
+    }
+
+    /**
+     * @param version a version of the table
+     * @return the columns that had been added in version
+     */
+    public List<Column> getColumns(int version) {
+        List<Column> versionColumns = new ArrayList<Column>();
+        for (Column column : columns) {
+            if (column.getSince() <= version) {
+                versionColumns.add(column);
+            }
+        }
+        return versionColumns;
+    }
+
+    public static class Column {
+        private final String name;
+        private final String type;
+        private final boolean primaryKey;
+        private final int since;
+        private final String backfill;
+
+        /**
+         * @param name the name of the column
+         * @param type the declared type of the column, like INTEGER
+         * @param primaryKey true if the column is part of the primary key
+         * @param since the version the column was added in
+         * @param backfill SQL expression giving the value of the column in rows that existed
+         *                 before it was added, or null to leave them NULL
+         */
+        public Column(String name, String type, boolean primaryKey, int since, String backfill) {
+            if (name == null) throw new IllegalArgumentException("name is null");
+            if (type == null) throw new IllegalArgumentException("type is null");
+
+            this.name = name;
+            this.type = type;
+            this.primaryKey = primaryKey;
+            this.since = since;
+            this.backfill = backfill;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public boolean isPrimaryKey() {
+            return primaryKey;
+        }
+
+        public int getSince() {
+            return since;
+        }
+
+        public String getBackfill() {
+            return backfill;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Loads the entities of an Iterator with a BulkLoader.
+ */
+class BulkInsertMethod implements StorageMethod {
+    private final String methodName;
+    private final boolean returnCount;
+    private final String databaseEntityTypeName;
+    private final String databaseEntityTypeQualifiedName;
+    private final int chunkSize;
+    private final boolean sortByPrimaryKey;
+    private final boolean relaxDurability;
+    private final MapperDescription mapperDescription;
+
+    BulkInsertMethod(String methodName,
+                     boolean returnCount,
+                     String databaseEntityTypeName,
+                     String databaseEntityTypeQualifiedName,
+                     int chunkSize,
+                     boolean sortByPrimaryKey,
+                     boolean relaxDurability,
+                     MapperDescription mapperDescription) {
+        this.methodName = methodName;
+        this.returnCount = returnCount;
+        this.databaseEntityTypeName = databaseEntityTypeName;
+        this.databaseEntityTypeQualifiedName = databaseEntityTypeQualifiedName;
+        this.chunkSize = chunkSize;
+        this.sortByPrimaryKey = sortByPrimaryKey;
+        this.relaxDurability = relaxDurability;
+        this.mapperDescription = mapperDescription;
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        writer.write("    @Override\n");
+        writer.write("    public " + (returnCount ? "long" : "void") + " " + methodName + "(Iterator<" + databaseEntityTypeName + "> items) {\n");
+        writer.write("        " + (returnCount ? "return " : "") + "new BulkLoader<" + databaseEntityTypeName + ">(db, " + mapperDescription.getVariableName() + ", " +
+                chunkSize + ", " + sortByPrimaryKey + ", " + relaxDurability + ").load(items);\n");
+        writer.write("    }\n");
+        writer.write("\n");
+    }
+
+    @Override
+    public Collection<String> getImports() {
+        return Arrays.asList(
+                "java.util.Iterator",
+                "net.daverix.slingerorm.android.BulkLoader",
+                databaseEntityTypeQualifiedName
+        );
+    }
+
+    @Override
+    public MapperDescription getMapper() {
+        return mapperDescription;
+    }
+}
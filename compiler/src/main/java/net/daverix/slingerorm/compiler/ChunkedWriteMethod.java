@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Deletes or updates the rows matching a where clause in chunks of rowids. The end of the next
+ * chunk is found with a query, then the rows with rowids up to it are written with a statement of
+ * their own that is committed before the next chunk starts. Both statements are compiled once. A
+ * row is only written once even if it still matches the where clause after the update since
+ * every chunk starts after the previous one.
+ */
+class ChunkedWriteMethod implements StorageMethod {
+    private final String methodName;
+    private final boolean returnCount;
+    private final String parameterText;
+    private final String chunkSqlConstantName;
+    private final String chunkSql;
+    private final String sqlConstantName;
+    private final String sql;
+    private final List<String> setArgs;
+    private final List<String> whereArgs;
+    private final String progressListenerName;
+    private final String databaseEntityTypeName;
+    private final String databaseEntityTypeQualifiedName;
+    private final boolean clearChangeTracker;
+    private final MapperDescription mapperDescription;
+
+    /**
+     * @param chunkSql query for the last rowid of the next chunk, or the first rowid argument if
+     * there are no rows left, bound to the first rowid argument twice and then whereArgs
+     * @param sql statement writing the rows in a chunk, bound to setArgs, the rowid range and then
+     * whereArgs
+     * @param progressListenerName the parameter to report progress to or null
+     * @param clearChangeTracker true if the remembered values of the entity must be forgotten
+     */
+    ChunkedWriteMethod(String methodName,
+                       boolean returnCount,
+                       String parameterText,
+                       String chunkSqlConstantName,
+                       String chunkSql,
+                       String sqlConstantName,
+                       String sql,
+                       List<String> setArgs,
+                       List<String> whereArgs,
+                       String progressListenerName,
+                       String databaseEntityTypeName,
+                       String databaseEntityTypeQualifiedName,
+                       boolean clearChangeTracker,
+                       MapperDescription mapperDescription) {
+        this.methodName = methodName;
+        this.returnCount = returnCount;
+        this.parameterText = parameterText;
+        this.chunkSqlConstantName = chunkSqlConstantName;
+        this.chunkSql = chunkSql;
+        this.sqlConstantName = sqlConstantName;
+        this.sql = sql;
+        this.setArgs = setArgs;
+        this.whereArgs = whereArgs;
+        this.progressListenerName = progressListenerName;
+        this.databaseEntityTypeName = databaseEntityTypeName;
+        this.databaseEntityTypeQualifiedName = databaseEntityTypeQualifiedName;
+        this.clearChangeTracker = clearChangeTracker;
+        this.mapperDescription = mapperDescription;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        writer.write("    private static final String " + chunkSqlConstantName + " = \"" + chunkSql + "\";\n");
+        writer.write("    private static final String " + sqlConstantName + " = \"" + sql + "\";\n");
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        if (writer == null) throw new IllegalArgumentException("writer is null");
+
+        List<String> chunkArgs = new ArrayList<>();
+        chunkArgs.add("chunkStart");
+        chunkArgs.add("chunkStart");
+        chunkArgs.addAll(whereArgs);
+
+        List<String> args = new ArrayList<>(setArgs);
+        args.add("chunkStart");
+        args.add("chunkEnd");
+        args.addAll(whereArgs);
+
+        writer.write("    @Override\n");
+        writer.write("    public " + (returnCount ? "int" : "void") + " " + methodName + "(" + parameterText + ") {\n");
+        writer.write("        int rows = 0;\n");
+        writer.write("        long chunkStart = Long.MIN_VALUE;\n");
+        writer.write("        while (true) {\n");
+        writer.write("            long chunkEnd = db.simpleQueryForLong(" + chunkSqlConstantName + ", new Object[]{" + String.join(", ", chunkArgs) + "});\n");
+        writer.write("            if (chunkEnd == chunkStart) break;\n");
+        writer.write("\n");
+        writer.write("            rows += db.executeUpdateDelete(" + sqlConstantName + ", new Object[]{" + String.join(", ", args) + "});\n");
+        writer.write("            chunkStart = chunkEnd;\n");
+        if (progressListenerName != null) {
+            writer.write("            if (" + progressListenerName + " != null) " + progressListenerName + ".onProgress(rows);\n");
+        }
+        writer.write("        }\n");
+        if (clearChangeTracker) {
+            writer.write("        ChangeTracker<" + databaseEntityTypeName + "> changeTracker = " + mapperDescription.getVariableName() + ".getChangeTracker();\n");
+            writer.write("        if (changeTracker != null && rows > 0) changeTracker.clear();\n");
+        }
+        if (returnCount) {
+            writer.write("        return rows;\n");
+        }
+        writer.write("    }\n");
+        writer.write("\n");
+    }
+
+    @Override
+    public Collection<String> getImports() {
+        if (!clearChangeTracker) return Collections.emptyList();
+
+        List<String> imports = new ArrayList<>();
+        imports.add("net.daverix.slingerorm.android.ChangeTracker");
+        imports.add(databaseEntityTypeQualifiedName);
+        return imports;
+    }
+
+    @Override
+    public MapperDescription getMapper() {
+        return mapperDescription;
+    }
+}
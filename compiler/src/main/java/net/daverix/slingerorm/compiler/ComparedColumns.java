@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds the column each question mark of a statement is compared with or assigned to, like
+ * {@code column = ?}, {@code ? < column}, {@code column BETWEEN ? AND ?} and
+ * {@code column IN (?, ?)}. Question marks in string literals, quoted names and comments are
+ * skipped.
+ */
+final class ComparedColumns {
+    private static final List<String> COMPARISONS = Arrays.asList("=", "==", "!=", "<>", "<", ">",
+            "<=", ">=");
+    private static final List<String> OPERATORS = Arrays.asList("==", "!=", "<>", "<=", ">=", "||",
+            "<<", ">>");
+    private static final List<String> PATTERN_OPERATORS = Arrays.asList("LIKE", "GLOB", "REGEXP",
+            "MATCH", "IS");
+    private static final List<String> KEYWORDS = Arrays.asList("AND", "OR", "NOT", "NULL", "IS",
+            "IN", "LIKE", "GLOB", "REGEXP", "MATCH", "BETWEEN", "ESCAPE", "SELECT", "WHERE", "SET",
+            "VALUES", "CASE", "WHEN", "THEN", "ELSE", "END", "EXISTS", "ON");
+    private static final String PLACEHOLDER = "?";
+    private static final String LITERAL = "'";
+
+    private ComparedColumns() {
+    }
+
+    /**
+     * @return the column of each question mark in order, without quotes, or null for question
+     * marks that aren't compared with or assigned to a column
+     */
+    static List<String> parse(String sql) {
+        if (sql == null) throw new IllegalArgumentException("sql is null");
+
+        List<Token> tokens = tokenize(sql);
+        List<String> columns = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!tokens.get(i).is(PLACEHOLDER)) continue;
+
+            String column = getColumnBefore(tokens, i, columns);
+            columns.add(column != null ? column : getColumnAfter(tokens, i));
+        }
+        return columns;
+    }
+
+    private static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipPast(sql, i + 1, "'");
+                tokens.add(new Token(LITERAL, false));
+            } else if (c == '"' || c == '`') {
+                int end = skipPast(sql, i + 1, String.valueOf(c));
+                tokens.add(new Token(sql.substring(i + 1, Math.max(i + 1, end - 1)), true));
+                i = end;
+            } else if (c == '[') {
+                int end = skipPast(sql, i + 1, "]");
+                tokens.add(new Token(sql.substring(i + 1, Math.max(i + 1, end - 1)), true));
+                i = end;
+            } else if (sql.startsWith("--", i)) {
+                i = skipPast(sql, i + 2, "\n");
+            } else if (sql.startsWith("/*", i)) {
+                i = skipPast(sql, i + 2, "*/");
+            } else if (c == '?') {
+                i++;
+                while (i < sql.length() && Character.isDigit(sql.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(PLACEHOLDER, false));
+            } else if (Character.isDigit(c)) {
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(new Token(LITERAL, false));
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_')) {
+                    i++;
+                }
+                String word = sql.substring(start, i);
+                tokens.add(new Token(word, !KEYWORDS.contains(word.toUpperCase(Locale.ENGLISH))));
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (i + 1 < sql.length() && OPERATORS.contains(sql.substring(i, i + 2))) {
+                tokens.add(new Token(sql.substring(i, i + 2), false));
+                i += 2;
+            } else {
+                tokens.add(new Token(String.valueOf(c), false));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static int skipPast(String sql, int index, String end) {
+        int found = sql.indexOf(end, index);
+        return found == -1 ? sql.length() : found + end.length();
+    }
+
+    /**
+     * @param columns the columns of the question marks before index
+     */
+    private static String getColumnBefore(List<Token> tokens, int index, List<String> columns) {
+        int previous = index - 1;
+        if (previous < 0) return null;
+
+        Token token = tokens.get(previous);
+        if (COMPARISONS.contains(token.text)) return getName(tokens, previous - 1);
+
+        if (token.is("NOT") && previous > 0 && tokens.get(previous - 1).is("IS"))
+            return getName(tokens, previous - 2);
+
+        if (token.isAny(PATTERN_OPERATORS) || token.is("BETWEEN"))
+            return getName(tokens, skipNot(tokens, previous - 1));
+
+        // the second value of column BETWEEN x AND ?
+        if (token.is("AND") && previous >= 2 && tokens.get(previous - 2).is("BETWEEN")) {
+            Token first = tokens.get(previous - 1);
+            if (first.is(PLACEHOLDER)) return columns.get(columns.size() - 1);
+            if (first.is(LITERAL)) return getName(tokens, skipNot(tokens, previous - 3));
+        }
+
+        // a value in column IN (x, ?)
+        if (token.is("(") || token.is(",")) {
+            int start = previous;
+            while (start >= 0 && (tokens.get(start).is(",") || tokens.get(start).is(PLACEHOLDER) ||
+                    tokens.get(start).is(LITERAL))) {
+                start--;
+            }
+            if (start > 0 && tokens.get(start).is("(") && tokens.get(start - 1).is("IN"))
+                return getName(tokens, skipNot(tokens, start - 2));
+        }
+        return null;
+    }
+
+    /**
+     * @return the column of ? compared with a column after it, like ? < column
+     */
+    private static String getColumnAfter(List<Token> tokens, int index) {
+        int operator = index + 1;
+        if (operator >= tokens.size() || !COMPARISONS.contains(tokens.get(operator).text)) return null;
+
+        int name = operator + 1;
+        if (name >= tokens.size() || !tokens.get(name).name) return null;
+
+        // the column of table.column
+        while (name + 2 < tokens.size() && tokens.get(name + 1).is(".") && tokens.get(name + 2).name) {
+            name += 2;
+        }
+
+        // a function like ? < max(a, b)
+        if (name + 1 < tokens.size() && tokens.get(name + 1).is("(")) return null;
+
+        return tokens.get(name).text;
+    }
+
+    private static int skipNot(List<Token> tokens, int index) {
+        return index >= 0 && tokens.get(index).is("NOT") ? index - 1 : index;
+    }
+
+    private static String getName(List<Token> tokens, int index) {
+        if (index < 0 || !tokens.get(index).name) return null;
+
+        return tokens.get(index).text;
+    }
+
+    private static class Token {
+        private final String text;
+        private final boolean name;
+
+        Token(String text, boolean name) {
+            this.text = text;
+            this.name = name;
+        }
+
+        boolean is(String text) {
+            return !name && this.text.equalsIgnoreCase(text);
+        }
+
+        boolean isAny(List<String> texts) {
+            for (String text : texts) {
+                if (is(text)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -18,16 +18,60 @@ package net.daverix.slingerorm.compiler;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 class CreateTableMethod implements StorageMethod {
     private final String methodName;
     private final MapperDescription mapperDescription;
+    private final List<String> tableNames;
+    private final List<String> fullTextSql;
+    private final String fullTextCountSql;
+    private final String fullTextRebuildSql;
+    private final long schemaHash;
 
-    public CreateTableMethod(String methodName, MapperDescription mapperDescription) {
+    /**
+     * @param tableNames the tables the method creates, the table of the entity and its full text
+     * table if it has one
+     * @param fullTextSql statements creating the full text index, executed after the table
+     * @param fullTextCountSql query counting how many of the objects created by fullTextSql that
+     * already exist or null if there is no full text index
+     * @param fullTextRebuildSql statement indexing the rows of the table, executed only when some
+     * of the objects created by fullTextSql were missing
+     * @param tableSchemaHash the hash of the schema of the table
+     */
+    public CreateTableMethod(String methodName, MapperDescription mapperDescription, List<String> tableNames,
+                             List<String> fullTextSql, String fullTextCountSql, String fullTextRebuildSql,
+                             long tableSchemaHash) {
         this.mapperDescription = mapperDescription;
         this.methodName = methodName;
+        this.tableNames = tableNames;
+        this.fullTextSql = fullTextSql;
+        this.fullTextCountSql = fullTextCountSql;
+        this.fullTextRebuildSql = fullTextRebuildSql;
+
+        List<String> parts = new ArrayList<>();
+        parts.add(Long.toHexString(tableSchemaHash));
+        parts.addAll(fullTextSql);
+        if (fullTextRebuildSql != null) parts.add(fullTextRebuildSql);
+        this.schemaHash = SchemaHash.of(parts);
+    }
+
+    String getMethodName() {
+        return methodName;
+    }
+
+    List<String> getTableNames() {
+        return tableNames;
+    }
+
+    /**
+     * @return a hash of everything the method creates, the table and its full text index
+     */
+    long getSchemaHash() {
+        return schemaHash;
     }
 
     @Override
@@ -36,14 +80,24 @@ class CreateTableMethod implements StorageMethod {
 
         writer.write("    @Override\n");
         writer.write("    public void " + methodName + "() {\n");
-        writer.write("        db.execSQL(" + mapperDescription.getVariableName() + ".createTable());\n");
+        writer.write("        new SchemaMigrator(db).upgrade(" + mapperDescription.getVariableName() + ");\n");
+        if (fullTextCountSql != null) {
+            writer.write("        boolean rebuildFullText = db.simpleQueryForLong(\"" + fullTextCountSql + "\", null) < " + fullTextSql.size() + ";\n");
+        }
+        for (String sql : fullTextSql) {
+            writer.write("        db.execSQL(\"" + sql + "\");\n");
+        }
+        if (fullTextRebuildSql != null) {
+            writer.write("        if (rebuildFullText)\n");
+            writer.write("            db.execSQL(\"" + fullTextRebuildSql + "\");\n");
+        }
         writer.write("    }\n");
         writer.write("\n");
     }
 
     @Override
     public Collection<String> getImports() {
-        return Collections.emptyList();
+        return Collections.singletonList("net.daverix.slingerorm.android.SchemaMigrator");
     }
 
     @Override
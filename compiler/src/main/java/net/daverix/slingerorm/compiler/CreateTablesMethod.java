@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+class CreateTablesMethod implements StorageMethod {
+    private final String methodName;
+    private final String storageName;
+    private final List<CreateTableMethod> createTableMethods = new ArrayList<>();
+
+    /**
+     * @param storageName the qualified name of the storage, the key of its schema hash
+     */
+    CreateTablesMethod(String methodName, String storageName) {
+        this.methodName = methodName;
+        this.storageName = storageName;
+    }
+
+    /**
+     * @param createTableMethods the methods to call, in the order they are declared in the storage
+     */
+    void setCreateTableMethods(List<CreateTableMethod> createTableMethods) {
+        this.createTableMethods.clear();
+        this.createTableMethods.addAll(createTableMethods);
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        if(writer == null) throw new IllegalArgumentException("writer is null");
+
+        String hash = SchemaHash.toLiteral(getSchemaHash());
+        StringBuilder tableNames = new StringBuilder();
+        for (CreateTableMethod createTableMethod : createTableMethods) {
+            for (String tableName : createTableMethod.getTableNames()) {
+                tableNames.append(", \"").append(tableName).append("\"");
+            }
+        }
+        writer.write("    @Override\n");
+        writer.write("    public void " + methodName + "() {\n");
+        writer.write("        SchemaMigrator migrator = new SchemaMigrator(db);\n");
+        writer.write("        if (migrator.hasStorageHash(\"" + storageName + "\", " + hash + tableNames + ")) return;\n");
+        writer.write("\n");
+        writer.write("        db.beginTransaction();\n");
+        writer.write("        try {\n");
+        writer.write("            migrator.restoreDroppedSchema();\n");
+        for (CreateTableMethod createTableMethod : createTableMethods) {
+            writer.write("            " + createTableMethod.getMethodName() + "();\n");
+        }
+        writer.write("            migrator.setStorageHash(\"" + storageName + "\", " + hash + ");\n");
+        writer.write("            db.setTransactionSuccessful();\n");
+        writer.write("        } finally {\n");
+        writer.write("            db.endTransaction();\n");
+        writer.write("        }\n");
+        writer.write("    }\n");
+        writer.write("\n");
+    }
+
+    private long getSchemaHash() {
+        List<String> parts = new ArrayList<>();
+        for (CreateTableMethod createTableMethod : createTableMethods) {
+            parts.add(Long.toHexString(createTableMethod.getSchemaHash()));
+        }
+        return SchemaHash.of(parts);
+    }
+
+    @Override
+    public Collection<String> getImports() {
+        return Collections.singletonList("net.daverix.slingerorm.android.SchemaMigrator");
+    }
+
+    @Override
+    public MapperDescription getMapper() {
+        return null;
+    }
+
+    @Override
+    public Collection<MapperDescription> getMappers() {
+        return Collections.emptyList();
+    }
+}
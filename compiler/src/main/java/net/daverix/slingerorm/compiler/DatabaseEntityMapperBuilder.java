@@ -19,9 +19,11 @@ package net.daverix.slingerorm.compiler;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 class DatabaseEntityMapperBuilder {
@@ -34,8 +36,23 @@ class DatabaseEntityMapperBuilder {
     private String[] fieldNames;
     private List<FieldMethod> getters;
     private List<FieldMethod> setters;
+    private List<FieldMethod> positionalSetters;
     private String itemSql;
     private List<String> itemSqlArguments;
+    private List<String> itemBindArguments;
+    private Map<String, String> storedValueConversions = Collections.emptyMap();
+    private boolean trackChanges;
+    private boolean instantConversions;
+    private String autoGeneratedKeyDbName;
+    private String autoGeneratedKeyGetter;
+    private String autoGeneratedKeySetter;
+    private int version = 1;
+    private long schemaHash;
+    private List<String> schemaColumns;
+    private Collection<String> imports = Collections.emptyList();
+    private List<EnumType> enumTypes = Collections.emptyList();
+    private List<EmbeddedType> embeddedTypes = Collections.emptyList();
+    private int maxFieldsPerMethod = Integer.MAX_VALUE;
 
     private DatabaseEntityMapperBuilder(Writer writer) {
         this.writer = writer;
@@ -80,6 +97,11 @@ class DatabaseEntityMapperBuilder {
         return this;
     }
 
+    DatabaseEntityMapperBuilder setPositionalSetters(List<FieldMethod> positionalSetters) {
+        this.positionalSetters = positionalSetters;
+        return this;
+    }
+
     DatabaseEntityMapperBuilder setItemSql(String itemSql) {
         this.itemSql = itemSql;
         return this;
@@ -90,11 +112,96 @@ class DatabaseEntityMapperBuilder {
         return this;
     }
 
+    DatabaseEntityMapperBuilder setItemBindArguments(List<String> itemBindArguments) {
+        this.itemBindArguments = itemBindArguments;
+        return this;
+    }
+
+    /**
+     * @param storedValueConversions expressions converting an Object named value to what is
+     * stored, by column
+     */
+    DatabaseEntityMapperBuilder setStoredValueConversions(Map<String, String> storedValueConversions) {
+        this.storedValueConversions = storedValueConversions;
+        return this;
+    }
+
+    /**
+     * Mappers of entities with Instant fields convert them with their own fromInstant and
+     * toInstant methods so each value is read once.
+     */
+    DatabaseEntityMapperBuilder setInstantConversions(boolean instantConversions) {
+        this.instantConversions = instantConversions;
+        return this;
+    }
+
+    /**
+     * Mappers of entities that track changes remember the values of every item they map, in a
+     * tracker shared by all mappers of the entity so writes through any storage are seen.
+     */
+    DatabaseEntityMapperBuilder setTrackChanges(boolean trackChanges) {
+        this.trackChanges = trackChanges;
+        return this;
+    }
+
+    /**
+     * Mappers of entities with a primary key generated by the database leave the key out of the
+     * values when it's 0 and can set the generated key on an inserted item.
+     * @param dbName the column of the key
+     * @param getter expression that reads the key from item
+     * @param setter statement that sets the key of item to a long named rowId
+     */
+    DatabaseEntityMapperBuilder setAutoGeneratedKey(String dbName, String getter, String setter) {
+        this.autoGeneratedKeyDbName = dbName;
+        this.autoGeneratedKeyGetter = getter;
+        this.autoGeneratedKeySetter = setter;
+        return this;
+    }
+
+    /**
+     * @param version the version of the table
+     * @param schemaHash a hash of the schema of the table
+     * @param schemaColumns expressions creating a TableSchema.Column for every column
+     */
+    DatabaseEntityMapperBuilder setSchema(int version, long schemaHash, List<String> schemaColumns) {
+        this.version = version;
+        this.schemaHash = schemaHash;
+        this.schemaColumns = schemaColumns;
+        return this;
+    }
+
+    DatabaseEntityMapperBuilder setEnumTypes(List<EnumType> enumTypes) {
+        this.enumTypes = enumTypes;
+        return this;
+    }
+
+    DatabaseEntityMapperBuilder setEmbeddedTypes(List<EmbeddedType> embeddedTypes) {
+        this.embeddedTypes = embeddedTypes;
+        return this;
+    }
+
+    DatabaseEntityMapperBuilder setImports(Collection<String> imports) {
+        this.imports = imports;
+        return this;
+    }
+
     DatabaseEntityMapperBuilder setSerializers(List<SerializerType> serializers) {
         this.serializers = serializers;
         return this;
     }
 
+    /**
+     * Entities with more fields than this get their field mapping split into several methods so
+     * each generated method stays small enough to be compiled and inlined by the runtime.
+     */
+    DatabaseEntityMapperBuilder setMaxFieldsPerMethod(int maxFieldsPerMethod) {
+        if (maxFieldsPerMethod < 1)
+            throw new IllegalArgumentException("maxFieldsPerMethod must be at least 1");
+
+        this.maxFieldsPerMethod = maxFieldsPerMethod;
+        return this;
+    }
+
     void build() throws IOException {
         if(databaseEntityClassName == null)
             throw new IllegalStateException("databaseEntityClassName not set");
@@ -117,15 +224,24 @@ class DatabaseEntityMapperBuilder {
         if(setters == null)
             throw new IllegalStateException("setters not set");
 
+        if(positionalSetters == null)
+            throw new IllegalStateException("positionalSetters not set");
+
         if(itemSql == null)
             throw new IllegalStateException("itemSql not set");
 
         if(itemSqlArguments == null)
             throw new IllegalStateException("itemSqlArguments not set");
 
+        if(itemBindArguments == null)
+            throw new IllegalStateException("itemBindArguments not set");
+
         if(serializers == null)
             throw new IllegalStateException("serializers not set");
 
+        if(schemaColumns == null)
+            throw new IllegalStateException("schemaColumns not set");
+
         writePackage();
         writeImports();
         writeClass();
@@ -136,6 +252,12 @@ class DatabaseEntityMapperBuilder {
         for (int i = 0; i < serializers.size(); i++) {
             SerializerType serializer = serializers.get(i);
             writer.write("    private final " + serializer.getType() + " " + serializer.getName() + ";\n");
+            if (serializer.isPrimitive()) {
+                writer.write("    private final " + serializer.getBoxedType() + " " + serializer.getBoxedName() + ";\n");
+            }
+        }
+        if (trackChanges) {
+            writer.write("    private static final ChangeTracker<" + databaseEntityClassName + "> CHANGE_TRACKER = new ChangeTracker<" + databaseEntityClassName + ">();\n");
         }
         writeln();
 
@@ -143,12 +265,33 @@ class DatabaseEntityMapperBuilder {
         for (int i = 0; i < serializers.size(); i++) {
             SerializerType serializer = serializers.get(i);
             writer.write("        this." + serializer.getName() + " = builder." + serializer.getName() + ";\n");
+            if (serializer.isPrimitive()) {
+                writer.write("        this." + serializer.getBoxedName() + " = builder." + serializer.getBoxedName() + ";\n");
+            }
         }
         writer.write("    }\n");
         writeln();
 
         writeMethods();
 
+        for (EmbeddedType embeddedType : embeddedTypes) {
+            writeEmbeddedMapItem(embeddedType);
+        }
+
+        for (EnumType enumType : enumTypes) {
+            writeEnumConversions(enumType);
+        }
+
+        if (instantConversions) {
+            writeInstantConversions();
+        }
+
+        for (SerializerType serializer : serializers) {
+            if (serializer.isPrimitive()) {
+                writePrimitiveSerializerMethods(serializer);
+            }
+        }
+
         writeBuilder();
 
         writer.write("}\n");
@@ -161,6 +304,15 @@ class DatabaseEntityMapperBuilder {
         writer.write("    }\n");
         writeln();
 
+        writer.write("    @Override\n");
+        writer.write("    public TableSchema getSchema() {\n");
+        writer.write("        return new TableSchema(\"" + tableName + "\", " + version + ", " +
+                SchemaHash.toLiteral(schemaHash) + ", createTable(), new TableSchema.Column[]{\n");
+        writeArguments(schemaColumns);
+        writer.write("        });\n");
+        writer.write("    }\n");
+        writeln();
+
         writer.write("    @Override\n");
         writer.write("    public String getTableName() {\n");
         writer.write("        return \"" + tableName + "\";\n");
@@ -178,25 +330,81 @@ class DatabaseEntityMapperBuilder {
         writer.write("        if(item == null) throw new IllegalArgumentException(\"item is null\");\n");
         writeln();
         writer.write("        ContentValues values = new ContentValues();\n");
-        for(FieldMethod getter : getters) {
-            writer.write("        values.put(" + getter.getMethod() + ");\n");
+        if (getters.size() <= maxFieldsPerMethod) {
+            writeMapValues(getters);
+        } else {
+            for (int i = 0; i * maxFieldsPerMethod < getters.size(); i++) {
+                writer.write("        mapValues" + i + "(item, values);\n");
+            }
+        }
+        if (autoGeneratedKeyDbName != null) {
+            writer.write("        if (" + autoGeneratedKeyGetter + " == 0) values.putNull(\"" + autoGeneratedKeyDbName + "\");\n");
         }
         writer.write("        return values;\n");
         writer.write("    }\n");
         writeln();
 
+        if (getters.size() > maxFieldsPerMethod) {
+            for (int i = 0; i * maxFieldsPerMethod < getters.size(); i++) {
+                writer.write("    private void mapValues" + i + "(" + databaseEntityClassName + " item, ContentValues values) {\n");
+                writeMapValues(getChunk(getters, i));
+                writer.write("    }\n");
+                writeln();
+            }
+        }
+
         writer.write("    @Override\n");
         writer.write("    public " + databaseEntityClassName + " mapItem(Cursor cursor) {\n");
         writer.write("        if(cursor == null) throw new IllegalArgumentException(\"cursor is null\");\n");
         writeln();
         writer.write("        " + databaseEntityClassName + " item = new " + databaseEntityClassName + "();\n");
-        for(FieldMethod setter : setters) {
-            writer.write("        item." + setter.getMethod() + ";\n");
+        if (setters.size() <= maxFieldsPerMethod) {
+            writeMapItem(setters);
+        } else {
+            for (int i = 0; i * maxFieldsPerMethod < setters.size(); i++) {
+                writer.write("        mapItem" + i + "(cursor, item);\n");
+            }
         }
+        writeTrackItem();
         writer.write("        return item;\n");
         writer.write("    }\n");
         writeln();
 
+        if (setters.size() > maxFieldsPerMethod) {
+            for (int i = 0; i * maxFieldsPerMethod < setters.size(); i++) {
+                writer.write("    private void mapItem" + i + "(Cursor cursor, " + databaseEntityClassName + " item) {\n");
+                writeMapItem(getChunk(setters, i));
+                writer.write("    }\n");
+                writeln();
+            }
+        }
+
+        writer.write("    @Override\n");
+        writer.write("    public " + databaseEntityClassName + " mapItem(Cursor cursor, int offset) {\n");
+        writer.write("        if(cursor == null) throw new IllegalArgumentException(\"cursor is null\");\n");
+        writeln();
+        writer.write("        " + databaseEntityClassName + " item = new " + databaseEntityClassName + "();\n");
+        if (positionalSetters.size() <= maxFieldsPerMethod) {
+            writeMapItem(positionalSetters);
+        } else {
+            for (int i = 0; i * maxFieldsPerMethod < positionalSetters.size(); i++) {
+                writer.write("        mapItem" + i + "(cursor, offset, item);\n");
+            }
+        }
+        writeTrackItem();
+        writer.write("        return item;\n");
+        writer.write("    }\n");
+        writeln();
+
+        if (positionalSetters.size() > maxFieldsPerMethod) {
+            for (int i = 0; i * maxFieldsPerMethod < positionalSetters.size(); i++) {
+                writer.write("    private void mapItem" + i + "(Cursor cursor, int offset, " + databaseEntityClassName + " item) {\n");
+                writeMapItem(getChunk(positionalSetters, i));
+                writer.write("    }\n");
+                writeln();
+            }
+        }
+
         writer.write("    @Override\n");
         writer.write("    public List<" + databaseEntityClassName + "> mapList(Cursor cursor) {\n");
         writer.write("        if(cursor == null) throw new IllegalArgumentException(\"cursor is null\");\n");
@@ -218,15 +426,78 @@ class DatabaseEntityMapperBuilder {
         writer.write("    @Override\n");
         writer.write("    public String[] getItemQueryArguments(" + databaseEntityClassName + " item) {\n");
         writer.write("        return new String[]{\n");
-        for (int i = 0; i < itemSqlArguments.size(); i++) {
-            if (i == itemSqlArguments.size() - 1)
-                writer.write("                " + itemSqlArguments.get(i) + "\n");
-            else
-                writer.write("                " + itemSqlArguments.get(i) + ",\n");
-        }
+        writeArguments(itemSqlArguments);
+        writer.write("        };\n");
+        writer.write("    }\n");
+        writeln();
+
+        writer.write("    @Override\n");
+        writer.write("    public Object[] getItemQueryBindArgs(" + databaseEntityClassName + " item) {\n");
+        writer.write("        return new Object[]{\n");
+        writeArguments(itemBindArguments);
         writer.write("        };\n");
         writer.write("    }\n");
         writeln();
+
+        writer.write("    @Override\n");
+        writer.write("    public Object getStoredValue(String columnName, Object value) {\n");
+        if (!storedValueConversions.isEmpty()) {
+            writer.write("        switch (columnName) {\n");
+            for (Map.Entry<String, String> conversion : storedValueConversions.entrySet()) {
+                writer.write("            case \"" + conversion.getKey() + "\":\n");
+                writer.write("                return " + conversion.getValue() + ";\n");
+            }
+            writer.write("        }\n");
+        }
+        writer.write("        return value;\n");
+        writer.write("    }\n");
+        writeln();
+
+        writer.write("    @Override\n");
+        writer.write("    public void setRowId(" + databaseEntityClassName + " item, long rowId) {\n");
+        if (autoGeneratedKeySetter != null) {
+            writer.write("        " + autoGeneratedKeySetter + ";\n");
+        }
+        writer.write("    }\n");
+        writeln();
+
+        writer.write("    @Override\n");
+        writer.write("    public ChangeTracker<" + databaseEntityClassName + "> getChangeTracker() {\n");
+        writer.write("        return " + (trackChanges ? "CHANGE_TRACKER" : "null") + ";\n");
+        writer.write("    }\n");
+        writeln();
+    }
+
+    private void writeTrackItem() throws IOException {
+        if (trackChanges) {
+            writer.write("        CHANGE_TRACKER.track(item, mapValues(item));\n");
+        }
+    }
+
+    private void writeArguments(List<String> arguments) throws IOException {
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i == arguments.size() - 1)
+                writer.write("                " + arguments.get(i) + "\n");
+            else
+                writer.write("                " + arguments.get(i) + ",\n");
+        }
+    }
+
+    private void writeMapValues(List<FieldMethod> getters) throws IOException {
+        for(FieldMethod getter : getters) {
+            writer.write("        values.put(" + getter.getMethod() + ");\n");
+        }
+    }
+
+    private void writeMapItem(List<FieldMethod> setters) throws IOException {
+        for(FieldMethod setter : setters) {
+            writer.write("        item." + setter.getMethod() + ";\n");
+        }
+    }
+
+    private List<FieldMethod> getChunk(List<FieldMethod> fieldMethods, int chunk) {
+        int start = chunk * maxFieldsPerMethod;
+        return fieldMethods.subList(start, Math.min(start + maxFieldsPerMethod, fieldMethods.size()));
     }
 
     private void writeBuilder() throws IOException {
@@ -250,6 +521,9 @@ class DatabaseEntityMapperBuilder {
         for (int i = 0; i < serializers.size(); i++) {
             SerializerType serializer = serializers.get(i);
             writer.write("        private " + serializer.getType() + " " + serializer.getName() +";\n");
+            if (serializer.isPrimitive()) {
+                writer.write("        private " + serializer.getBoxedType() + " " + serializer.getBoxedName() +";\n");
+            }
         }
         writeln();
 
@@ -260,16 +534,29 @@ class DatabaseEntityMapperBuilder {
             writer.write("                throw new IllegalArgumentException(\"" + serializer.getName() + " is null\");\n");
             writeln();
             writer.write("            this." + serializer.getName() + " = " + serializer.getName() + ";\n");
+            if (serializer.isPrimitive()) {
+                writer.write("            this." + serializer.getBoxedName() + " = null;\n");
+            }
             writer.write("            return this;\n");
             writer.write("        }\n");
 
             writeln();
         }
 
+        for (int i = 0; i < serializers.size(); i++) {
+            SerializerType serializer = serializers.get(i);
+            if (serializer.isPrimitive()) {
+                writeBoxedSerializerSetter(serializer);
+                writeln();
+            }
+        }
+
         writer.write("        public " + databaseEntityClassName + "Mapper build() {\n");
         for (int i = 0; i < serializers.size(); i++) {
             SerializerType serializer = serializers.get(i);
-            writer.write("            if (" + serializer.getName() + " == null)\n");
+            String notSet = serializer.getName() + " == null" +
+                    (serializer.isPrimitive() ? " && " + serializer.getBoxedName() + " == null" : "");
+            writer.write("            if (" + notSet + ")\n");
             writer.write("                throw new IllegalStateException(\"" + serializer.getName() + " is not set\");\n");
             writeln();
         }
@@ -284,6 +571,160 @@ class DatabaseEntityMapperBuilder {
         writer.write("    }\n");
     }
 
+    private void writeEmbeddedMapItem(EmbeddedType embeddedType) throws IOException {
+        String typeName = embeddedType.getTypeName();
+        String[] columnNames = embeddedType.getColumnNames();
+
+        writer.write("    private " + typeName + " " + embeddedType.getMethodName() + "(Cursor cursor) {\n");
+        for (int i = 0; i < columnNames.length; i++) {
+            String isNull = "cursor.isNull(cursor.getColumnIndex(\"" + columnNames[i] + "\"))";
+            if (i == 0)
+                writer.write("        if (" + isNull);
+            else
+                writer.write("                " + isNull);
+
+            writer.write(i < columnNames.length - 1 ? " &&\n" : ") return null;\n");
+        }
+        writeln();
+        writer.write("        " + typeName + " item = new " + typeName + "();\n");
+        writeMapItem(embeddedType.getSetters());
+        writer.write("        return item;\n");
+        writer.write("    }\n");
+        writeln();
+
+        writer.write("    private " + typeName + " " + embeddedType.getMethodName() + "(Cursor cursor, int offset) {\n");
+        for (int i = 0; i < columnNames.length; i++) {
+            String isNull = "cursor.isNull(" + (i == 0 ? "offset" : "offset + " + i) + ")";
+            if (i == 0)
+                writer.write("        if (" + isNull);
+            else
+                writer.write("                " + isNull);
+
+            writer.write(i < columnNames.length - 1 ? " &&\n" : ") return null;\n");
+        }
+        writeln();
+        writer.write("        " + typeName + " item = new " + typeName + "();\n");
+        writeMapItem(embeddedType.getPositionalSetters());
+        writer.write("        return item;\n");
+        writer.write("    }\n");
+        writeln();
+    }
+
+    private void writeInstantConversions() throws IOException {
+        writer.write("    private static Long fromInstant(Instant value) {\n");
+        writer.write("        return value != null ? value.toEpochMilli() : null;\n");
+        writer.write("    }\n");
+        writeln();
+
+        writer.write("    private static Instant toInstant(Cursor cursor, int columnIndex) {\n");
+        writer.write("        return cursor.isNull(columnIndex) ? null : Instant.ofEpochMilli(cursor.getLong(columnIndex));\n");
+        writer.write("    }\n");
+        writeln();
+    }
+
+    private void writeEnumConversions(EnumType enumType) throws IOException {
+        String name = enumType.getName();
+        List<String> constants = enumType.getConstants();
+
+        if (enumType.hasCodes()) {
+            List<Integer> codes = enumType.getCodes();
+            String codesName = enumType.getArrayName("CODES");
+            List<String> codeValues = new ArrayList<>();
+            for (Integer code : codes) {
+                codeValues.add(String.valueOf(code));
+            }
+            writer.write("    private static final int[] " + codesName + " = {" + String.join(", ", codeValues) + "};\n");
+            writeln();
+
+            writer.write("    private static Integer from" + name + "(" + name + " value) {\n");
+            writer.write("        return value != null ? " + codesName + "[value.ordinal()] : null;\n");
+            writer.write("    }\n");
+            writeln();
+
+            writer.write("    private static " + name + " to" + name + "(Cursor cursor, int columnIndex) {\n");
+            writer.write("        if (cursor.isNull(columnIndex)) return null;\n");
+            writeln();
+            writer.write("        int code = cursor.getInt(columnIndex);\n");
+            writer.write("        switch (code) {\n");
+            for (int i = 0; i < constants.size(); i++) {
+                writer.write("            case " + codes.get(i) + ":\n");
+                writer.write("                return " + name + "." + constants.get(i) + ";\n");
+            }
+            writer.write("            default:\n");
+            writer.write("                throw new IllegalStateException(\"unknown code \" + code + \" for " + name + "\");\n");
+            writer.write("        }\n");
+            writer.write("    }\n");
+        } else {
+            String valuesName = enumType.getArrayName("VALUES");
+            writer.write("    private static final " + name + "[] " + valuesName + " = " + name + ".values();\n");
+            writeln();
+
+            writer.write("    private static Integer from" + name + "(" + name + " value) {\n");
+            writer.write("        return value != null ? value.ordinal() : null;\n");
+            writer.write("    }\n");
+            writeln();
+
+            writer.write("    private static " + name + " to" + name + "(Cursor cursor, int columnIndex) {\n");
+            writer.write("        if (cursor.isNull(columnIndex)) return null;\n");
+            writeln();
+            writer.write("        return " + valuesName + "[cursor.getInt(columnIndex)];\n");
+            writer.write("    }\n");
+        }
+        writeln();
+    }
+
+    /**
+     * Writes a setter for the boxed Serializer of a primitive serializer type, an overload of the
+     * setter for the primitive serializer
+     */
+    private void writeBoxedSerializerSetter(SerializerType serializer) throws IOException {
+        String name = serializer.getName();
+        String boxedName = serializer.getBoxedName();
+
+        writer.write("        public Builder " + name + "(" + serializer.getBoxedType() + " " + name + ") {\n");
+        writer.write("            if (" + name + " == null)\n");
+        writer.write("                throw new IllegalArgumentException(\"" + name + " is null\");\n");
+        writeln();
+        writer.write("            this." + boxedName + " = " + name + ";\n");
+        writer.write("            this." + name + " = null;\n");
+        writer.write("            return this;\n");
+        writer.write("        }\n");
+    }
+
+    /**
+     * Writes the methods the mapper serializes and deserializes with, using the boxed serializer
+     * when that was the one set. A null from the boxed serializer is written as NULL.
+     */
+    private void writePrimitiveSerializerMethods(SerializerType serializer) throws IOException {
+        String name = serializer.getName();
+        String boxedName = serializer.getBoxedName();
+        String primitiveType = serializer.getPrimitiveType();
+        String valueType = serializer.getValueType();
+
+        writer.write("    private " + getBoxedName(primitiveType) + " " + SerializerType.getSerializeMethodName(name) + "(" + valueType + " value) {\n");
+        writer.write("        if (" + boxedName + " != null)\n");
+        writer.write("            return " + boxedName + ".serialize(value);\n");
+        writeln();
+        writer.write("        return " + name + ".serialize(value);\n");
+        writer.write("    }\n");
+        writeln();
+
+        writer.write("    private " + valueType + " " + SerializerType.getDeserializeMethodName(name) + "(" + primitiveType + " value) {\n");
+        writer.write("        if (" + boxedName + " != null)\n");
+        writer.write("            return " + boxedName + ".deserialize(value);\n");
+        writeln();
+        writer.write("        return " + name + ".deserialize(value);\n");
+        writer.write("    }\n");
+        writeln();
+    }
+
+    private static String getBoxedName(String primitiveType) {
+        if ("int".equals(primitiveType))
+            return "Integer";
+
+        return Character.toUpperCase(primitiveType.charAt(0)) + primitiveType.substring(1);
+    }
+
     private String[] getCitedFieldNames() {
         String[] cited = new String[fieldNames.length];
         for(int i=0;i<cited.length;i++) {
@@ -300,6 +741,8 @@ class DatabaseEntityMapperBuilder {
     private void writeImports() throws IOException {
         Set<String> qualifiedNames = new HashSet<>();
         qualifiedNames.add("net.daverix.slingerorm.android.Mapper");
+        qualifiedNames.add("net.daverix.slingerorm.android.ChangeTracker");
+        qualifiedNames.add("net.daverix.slingerorm.android.TableSchema");
         qualifiedNames.add("android.content.ContentValues");
         qualifiedNames.add("android.database.Cursor");
         qualifiedNames.add("java.util.List");
@@ -307,6 +750,7 @@ class DatabaseEntityMapperBuilder {
         for (int i = 0; i < serializers.size(); i++) {
             qualifiedNames.addAll(serializers.get(i).getImports());
         }
+        qualifiedNames.addAll(imports);
 
         List<String> sortedNames = new ArrayList<>(qualifiedNames);
         Collections.sort(sortedNames);
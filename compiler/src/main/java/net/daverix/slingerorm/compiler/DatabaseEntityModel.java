@@ -18,17 +18,28 @@ package net.daverix.slingerorm.compiler;
 
 import net.daverix.slingerorm.serializer.SerializeType;
 import net.daverix.slingerorm.entity.DatabaseEntity;
+import net.daverix.slingerorm.entity.DecimalScale;
+import net.daverix.slingerorm.entity.Embedded;
+import net.daverix.slingerorm.entity.EnumCode;
 import net.daverix.slingerorm.entity.FieldName;
+import net.daverix.slingerorm.entity.FullText;
 import net.daverix.slingerorm.entity.GetField;
 import net.daverix.slingerorm.entity.IgnoreField;
 import net.daverix.slingerorm.entity.PrimaryKey;
+import net.daverix.slingerorm.entity.Relation;
 import net.daverix.slingerorm.entity.SerializeTo;
 import net.daverix.slingerorm.entity.SetField;
+import net.daverix.slingerorm.entity.Since;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -47,21 +58,142 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 import static net.daverix.slingerorm.compiler.ElementUtils.filter;
 import static net.daverix.slingerorm.compiler.ElementUtils.getElementsInTypeElement;
-import static net.daverix.slingerorm.compiler.ElementUtils.getMethodsInTypeElement;
 import static net.daverix.slingerorm.compiler.ElementUtils.getTypeElement;
 import static net.daverix.slingerorm.compiler.ElementUtils.map;
 
+/**
+ * Describes how a type annotated with {@link DatabaseEntity} maps to a table. The elements of the
+ * type are scanned once when the model is created and indexed by name, use
+ * {@link DatabaseEntityModels} to reuse the model within a processor. Fields annotated with
+ * {@link Embedded} get a model of their own that describes their columns in the same table.
+ * Fields annotated with {@link Relation} aren't columns, they are described by
+ * {@link #getRelations(DatabaseEntityModels)}.
+ */
 class DatabaseEntityModel {
+    private static final String TYPE_UUID = "java.util.UUID";
+    private static final String TYPE_DATE = "java.util.Date";
+    private static final String TYPE_INSTANT = "java.time.Instant";
+    private static final String TYPE_BIG_DECIMAL = "java.math.BigDecimal";
+    private static final String CODECS = "net.daverix.slingerorm.android.Codecs";
+    private static final String TYPE_LIST = "java.util.List";
+    private static final Set<ObjectType> RELATION_KEY_TYPES = new HashSet<>(Arrays.asList(
+            ObjectType.SHORT, ObjectType.INT, ObjectType.LONG, ObjectType.STRING, ObjectType.UUID));
+
     private final TypeElement databaseTypeElement;
     private final TypeElementConverter typeElementConverter;
+    private final List<Element> fields = new ArrayList<>();
+    private final List<Element> relationFields = new ArrayList<>();
+    private final Map<String, Element> fieldsByName = new HashMap<>();
+    private final Map<String, ExecutableElement> methodsByName = new HashMap<>();
+    private final Map<String, ExecutableElement> gettersByFieldName = new HashMap<>();
+    private final Map<String, ExecutableElement> settersByFieldName = new HashMap<>();
+    private final Map<String, DatabaseEntityModel> embeddedModels = new LinkedHashMap<>();
+    private final String receiver;
+    private final String nullCheck;
+    private final String columnPrefix;
+    private final String methodPrefix;
+    private List<Element> primaryKeyFields;
+    private List<SerializerType> serializers;
+    private List<EnumType> enumTypes;
+
+    DatabaseEntityModel(TypeElement databaseTypeElement, TypeElementConverter typeElementConverter) throws InvalidElementException {
+        this(databaseTypeElement, typeElementConverter, "item", null, "", "map", new HashSet<>());
+    }
 
-    DatabaseEntityModel(TypeElement databaseTypeElement, TypeElementConverter typeElementConverter) {
+    /**
+     * @param receiver expression for the object the fields are read from in mapValues
+     * @param nullCheck condition that is true when receiver can be read, null if always
+     * @param columnPrefix prefix for all column names
+     * @param methodPrefix prefix for the names of the methods that create embedded objects
+     * @param enclosingTypes types this type is embedded in, used to detect cycles
+     */
+    private DatabaseEntityModel(TypeElement databaseTypeElement, TypeElementConverter typeElementConverter,
+                                String receiver, String nullCheck, String columnPrefix,
+                                String methodPrefix, Set<String> enclosingTypes) throws InvalidElementException {
         this.databaseTypeElement = databaseTypeElement;
         this.typeElementConverter = typeElementConverter;
+        this.receiver = receiver;
+        this.nullCheck = nullCheck;
+        this.columnPrefix = columnPrefix;
+        this.methodPrefix = methodPrefix;
+
+        for (Element element : getElementsInTypeElement(databaseTypeElement)) {
+            if (isRelation(element)) {
+                relationFields.add(element);
+            } else if (isDatabaseField(element)) {
+                fields.add(element);
+                fieldsByName.put(element.getSimpleName().toString(), element);
+            } else if (element.getKind() == ElementKind.METHOD && ElementUtils.isAccessible(element)) {
+                addMethod((ExecutableElement) element);
+            }
+        }
+
+        enclosingTypes.add(databaseTypeElement.getQualifiedName().toString());
+        for (Element field : fields) {
+            if (isEmbedded(field)) {
+                addEmbeddedModel(field, enclosingTypes);
+            }
+        }
+        enclosingTypes.remove(databaseTypeElement.getQualifiedName().toString());
+    }
+
+    private void addEmbeddedModel(Element field, Set<String> enclosingTypes) throws InvalidElementException {
+        if (ElementUtils.getTypeKind(field) != TypeKind.DECLARED)
+            throw new InvalidElementException("@Embedded can only be used on fields with a class type", field);
+
+        if (field.getAnnotation(PrimaryKey.class) != null || field.getAnnotation(SerializeTo.class) != null)
+            throw new InvalidElementException("@Embedded can't be combined with @PrimaryKey or @SerializeTo", field);
+
+        TypeElement embeddedType = getTypeElement(field);
+        if (enclosingTypes.contains(embeddedType.getQualifiedName().toString()))
+            throw new InvalidElementException(embeddedType.getSimpleName() + " can't embed itself", field);
+
+        String fieldName = field.getSimpleName().toString();
+        String embeddedReceiver = findDirectGetter(field).getMethod();
+        String embeddedNullCheck = (nullCheck != null ? nullCheck + " && " : "") + embeddedReceiver + " != null";
+        String prefix = columnPrefix + field.getAnnotation(Embedded.class).prefix();
+        String embeddedMethodPrefix = methodPrefix + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+
+        DatabaseEntityModel model = new DatabaseEntityModel(embeddedType, typeElementConverter,
+                embeddedReceiver, embeddedNullCheck, prefix, embeddedMethodPrefix, enclosingTypes);
+        if (model.getFieldsUsedInDatabase().isEmpty())
+            throw new InvalidElementException("no fields found in " + embeddedType.getSimpleName(), field);
+        if (!model.relationFields.isEmpty())
+            throw new InvalidElementException("@Relation can't be used in " + embeddedType.getSimpleName() + " because it's embedded", field);
+
+        embeddedModels.put(fieldName, model);
+    }
+
+    private boolean isEmbedded(Element field) {
+        return field.getAnnotation(Embedded.class) != null;
+    }
+
+    private DatabaseEntityModel getEmbeddedModel(Element field) {
+        return embeddedModels.get(field.getSimpleName().toString());
+    }
+
+    private void addMethod(ExecutableElement method) throws InvalidElementException {
+        methodsByName.put(method.getSimpleName().toString(), method);
+
+        GetField getField = method.getAnnotation(GetField.class);
+        if (getField != null) {
+            if (getField.value().equals(""))
+                throw new InvalidElementException(method.getSimpleName() + " has a GetField annotation with empty value!", method);
+
+            gettersByFieldName.putIfAbsent(getField.value(), method);
+        }
+
+        SetField setField = method.getAnnotation(SetField.class);
+        if (setField != null) {
+            if (setField.value().equals(""))
+                throw new InvalidElementException(method.getSimpleName() + " has a SetField annotation with empty value!", method);
+
+            settersByFieldName.putIfAbsent(setField.value(), method);
+        }
     }
 
     String getTableName() throws InvalidElementException {
@@ -76,17 +208,28 @@ class DatabaseEntityModel {
         return tableName;
     }
 
+    boolean isTrackingChanges() throws InvalidElementException {
+        DatabaseEntity annotation = databaseTypeElement.getAnnotation(DatabaseEntity.class);
+        if (annotation == null)
+            throw new InvalidElementException("element not annotated with @DatabaseEntity", databaseTypeElement);
+
+        return annotation.trackChanges();
+    }
+
     String[] getFieldNames() throws InvalidElementException {
-        List<Element> elements = getFieldsUsedInDatabase();
-        String[] names = new String[elements.size()];
-        for (int i = 0; i < names.length; i++) {
-            names[i] = getDatabaseFieldName(elements.get(i));
+        List<String> names = new ArrayList<>();
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (isEmbedded(field)) {
+                names.addAll(Arrays.asList(getEmbeddedModel(field).getFieldNames()));
+            } else {
+                names.add(getDatabaseFieldName(field));
+            }
         }
-        return names;
+        return names.toArray(new String[names.size()]);
     }
 
-    private List<Element> getFieldsUsedInDatabase() throws InvalidElementException {
-        return filter(getElementsInTypeElement(databaseTypeElement), this::isDatabaseField);
+    private List<Element> getFieldsUsedInDatabase() {
+        return fields;
     }
 
     private List<String> getDatabaseFieldNames(List<Element> fields) throws InvalidElementException {
@@ -104,13 +247,13 @@ class DatabaseEntityModel {
 
         FieldName fieldNameAnnotation = field.getAnnotation(FieldName.class);
         if (fieldNameAnnotation == null)
-            return field.getSimpleName().toString();
+            return columnPrefix + field.getSimpleName().toString();
 
         String fieldName = fieldNameAnnotation.value();
         if (fieldName.equals(""))
             throw new InvalidElementException("fieldName must not be null or empty!", field);
 
-        return fieldName;
+        return columnPrefix + fieldName;
     }
 
     String createTableSql() throws InvalidElementException {
@@ -124,11 +267,21 @@ class DatabaseEntityModel {
         Map<String, String> fieldTypes = new HashMap<>();
         for (int i = 0; i < fields.size(); i++) {
             Element field = fields.get(i);
+            if (isEmbedded(field))
+                continue;
+
             String simpleName = field.getSimpleName().toString();
             dbFieldNames.put(simpleName, getDatabaseFieldName(field));
             fieldTypes.put(simpleName, getDatabaseType(field));
         }
 
+        String[] columnNames = getFieldNames();
+        Set<String> uniqueColumnNames = new HashSet<>();
+        for (String columnName : columnNames) {
+            if (!uniqueColumnNames.add(columnName.toLowerCase(Locale.ENGLISH)))
+                throw new InvalidElementException("column " + columnName + " is used by more than one field in " + databaseTypeElement.getSimpleName() + ", set a prefix on @Embedded", databaseTypeElement);
+        }
+
         Set<String> primaryKeysCollection = getPrimaryKeyFieldNames();
 
         if (primaryKeysCollection.isEmpty())
@@ -139,6 +292,14 @@ class DatabaseEntityModel {
             final Element field = fields.get(i);
             String fieldName = field.getSimpleName().toString();
 
+            if (isEmbedded(field)) {
+                builder.append(String.join(", ", getEmbeddedModel(field).getColumnDefinitions()));
+                if (i < fields.size() - 1) {
+                    builder.append(", ");
+                }
+                continue;
+            }
+
             builder.append(dbFieldNames.get(fieldName))
                     .append(" ")
                     .append(fieldTypes.get(fieldName));
@@ -171,12 +332,185 @@ class DatabaseEntityModel {
         return builder.toString();
     }
 
+    String getFullTextTableName() throws InvalidElementException {
+        return getTableName() + "_fts";
+    }
+
+    /**
+     * @return the columns of the fields annotated with {@link FullText}, empty if the entity has
+     * no full text index
+     */
+    List<String> getFullTextColumns() throws InvalidElementException {
+        List<String> columns = new ArrayList<>();
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (field.getAnnotation(FullText.class) == null) continue;
+
+            if (isEmbedded(field) || !ElementUtils.isString(field))
+                throw new InvalidElementException("@FullText can only be used on String fields", field);
+
+            columns.add(getDatabaseFieldName(field));
+        }
+        return columns;
+    }
+
+    /**
+     * Creates the FTS4 table that indexes the full text columns of the table and the triggers
+     * that keep it in sync. The index has no copy of the text, it reads it from the table by
+     * rowid, so the old text must be removed from the index before a row is changed. A replace
+     * deletes the conflicting row without firing the delete trigger, which is why the insert
+     * trigger also removes the row with the same primary key.
+     * @return the statements to execute after the table is created, empty if the entity has no
+     * full text index
+     */
+    List<String> createFullTextSql() throws InvalidElementException {
+        List<String> columns = getFullTextColumns();
+        if (columns.isEmpty()) return Collections.emptyList();
+
+        String tableName = getTableName();
+        String ftsTableName = getFullTextTableName();
+        List<String> samePrimaryKey = new ArrayList<>();
+        for (String primaryKey : getPrimaryKeyDbNames()) {
+            samePrimaryKey.add(primaryKey + " = new." + primaryKey);
+        }
+        String deleteOld = "DELETE FROM " + ftsTableName + " WHERE docid = old.rowid;";
+        String insertNew = "INSERT INTO " + ftsTableName + "(docid, " + String.join(", ", columns) +
+                ") VALUES (new.rowid, new." + String.join(", new.", columns) + ");";
+
+        List<String> statements = new ArrayList<>();
+        statements.add("CREATE VIRTUAL TABLE IF NOT EXISTS " + ftsTableName + " USING fts4(content=" +
+                tableName + ", " + String.join(", ", columns) + ")");
+        statements.add(createTriggerSql(ftsTableName + "_bi", "BEFORE INSERT", tableName,
+                "DELETE FROM " + ftsTableName + " WHERE docid IN (SELECT rowid FROM " + tableName +
+                        " WHERE " + String.join(" AND ", samePrimaryKey) + ");"));
+        statements.add(createTriggerSql(ftsTableName + "_bu", "BEFORE UPDATE", tableName, deleteOld));
+        statements.add(createTriggerSql(ftsTableName + "_bd", "BEFORE DELETE", tableName, deleteOld));
+        statements.add(createTriggerSql(ftsTableName + "_au", "AFTER UPDATE", tableName, insertNew));
+        statements.add(createTriggerSql(ftsTableName + "_ai", "AFTER INSERT", tableName, insertNew));
+        return statements;
+    }
+
+    /**
+     * @return a query counting the full text table and triggers from {@link #createFullTextSql()}
+     * that already exist. When any of them is missing the index may not match the table, since
+     * the triggers are dropped together with the table when it's rebuilt.
+     */
+    String getFullTextCountSql() throws InvalidElementException {
+        String ftsTableName = getFullTextTableName();
+        return "SELECT count(*) FROM sqlite_master WHERE name IN ('" + ftsTableName + "', '" +
+                ftsTableName + "_bi', '" + ftsTableName + "_bu', '" + ftsTableName + "_bd', '" +
+                ftsTableName + "_au', '" + ftsTableName + "_ai')";
+    }
+
+    /**
+     * @return a statement indexing every row of the table again
+     */
+    String getFullTextRebuildSql() throws InvalidElementException {
+        String ftsTableName = getFullTextTableName();
+        return "INSERT INTO " + ftsTableName + "(" + ftsTableName + ") VALUES ('rebuild')";
+    }
+
+    private static String createTriggerSql(String name, String event, String tableName, String body) {
+        return "CREATE TRIGGER IF NOT EXISTS " + name + " " + event + " ON " + tableName +
+                " BEGIN " + body + " END";
+    }
+
+    /**
+     * @return name and type of every column, used for embedded types that have no keys
+     */
+    private List<String> getColumnDefinitions() throws InvalidElementException {
+        List<String> definitions = new ArrayList<>();
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (isEmbedded(field)) {
+                definitions.addAll(getEmbeddedModel(field).getColumnDefinitions());
+            } else {
+                definitions.add(getDatabaseFieldName(field) + " " + getDatabaseType(field));
+            }
+        }
+        return definitions;
+    }
+
+    int getVersion() throws InvalidElementException {
+        DatabaseEntity annotation = databaseTypeElement.getAnnotation(DatabaseEntity.class);
+        if (annotation == null)
+            throw new InvalidElementException("element not annotated with @DatabaseEntity", databaseTypeElement);
+
+        if (annotation.version() < 1)
+            throw new InvalidElementException("version must be at least 1", databaseTypeElement);
+
+        return annotation.version();
+    }
+
+    /**
+     * @return an expression creating a TableSchema.Column for every column, in the same order as
+     * {@link #getFieldNames()}
+     */
+    List<String> getSchemaColumns() throws InvalidElementException {
+        Set<String> primaryKeys = getPrimaryKeyFieldNames();
+        List<String> columns = new ArrayList<>();
+        addSchemaColumns(columns, primaryKeys, getVersion(), 1);
+        return columns;
+    }
+
+    /**
+     * @return a hash of the version, the columns and the statement creating the table, changes
+     * whenever the table would be created or upgraded differently
+     */
+    long getSchemaHash() throws InvalidElementException {
+        List<String> parts = new ArrayList<>();
+        parts.add(createTableSql());
+        parts.add(String.valueOf(getVersion()));
+        parts.addAll(getSchemaColumns());
+        return SchemaHash.of(parts);
+    }
+
+    /**
+     * @param since the version the fields were added in if they don't say otherwise, the version
+     *              of the embedded field for embedded types
+     */
+    private void addSchemaColumns(List<String> columns, Set<String> primaryKeys, int version,
+                                  int since) throws InvalidElementException {
+        for (Element field : getFieldsUsedInDatabase()) {
+            Since sinceAnnotation = field.getAnnotation(Since.class);
+            int fieldSince = since;
+            String backfill = null;
+            if (sinceAnnotation != null) {
+                if (sinceAnnotation.value() < 1 || sinceAnnotation.value() > version)
+                    throw new InvalidElementException("@Since must be between 1 and the version of the entity, " + version, field);
+
+                fieldSince = Math.max(since, sinceAnnotation.value());
+                if (!sinceAnnotation.backfill().isEmpty())
+                    backfill = sinceAnnotation.backfill();
+            }
+
+            if (isEmbedded(field)) {
+                if (backfill != null)
+                    throw new InvalidElementException("backfill can't be used on @Embedded fields", field);
+
+                getEmbeddedModel(field).addSchemaColumns(columns, Collections.emptySet(), version, fieldSince);
+                continue;
+            }
+
+            columns.add("new TableSchema.Column(\"" + getDatabaseFieldName(field) + "\", \"" +
+                    getDatabaseType(field) + "\", " +
+                    primaryKeys.contains(field.getSimpleName().toString()) + ", " + fieldSince + ", " +
+                    (backfill != null ? "\"" + escape(backfill) + "\"" : "null") + ")");
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+    }
+
     private Set<String> getPrimaryKeyFieldNames() throws InvalidElementException {
         DatabaseEntity entityAnnotation = databaseTypeElement.getAnnotation(DatabaseEntity.class);
         String[] primaryKeys = entityAnnotation.primaryKeyFields();
         Set<String> annotationKeys = Arrays.stream(primaryKeys)
                 .filter(x -> !x.isEmpty())
-                .collect(toSet());
+                .collect(toCollection(LinkedHashSet::new));
 
         if (annotationKeys.size() > 0) {
             return annotationKeys;
@@ -186,20 +520,96 @@ class DatabaseEntityModel {
                     .map(Element::getSimpleName)
                     .map(Name::toString)
                     .filter(x -> !x.isEmpty())
-                    .collect(toSet());
+                    .collect(toCollection(LinkedHashSet::new));
         }
     }
 
-    private List<String> getPrimaryKeyDbNames() throws InvalidElementException {
+    List<String> getPrimaryKeyDbNames() throws InvalidElementException {
         return getDatabaseFieldNames(getPrimaryKeyFields());
     }
 
+    /**
+     * @return the primary key that the database generates when it's 0, or null if the keys are
+     * always set by the application
+     */
+    private Element getAutoGeneratedKeyField() throws InvalidElementException {
+        List<Element> keyFields = getPrimaryKeyFields();
+        for (Element field : keyFields) {
+            PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
+            if (primaryKey == null || !primaryKey.autoGenerate())
+                continue;
+
+            if (keyFields.size() > 1)
+                throw new InvalidElementException("autoGenerate can only be used when there is one primary key", field);
+
+            TypeKind typeKind = field.asType().getKind();
+            if (typeKind != TypeKind.LONG && typeKind != TypeKind.INT)
+                throw new InvalidElementException("autoGenerate can only be used on a primary key of type long or int", field);
+
+            return field;
+        }
+        return null;
+    }
+
+    boolean hasAutoGeneratedKey() throws InvalidElementException {
+        return getAutoGeneratedKeyField() != null;
+    }
+
+    String getAutoGeneratedKeyDbName() throws InvalidElementException {
+        Element field = getAutoGeneratedKeyField();
+        return field != null ? getDatabaseFieldName(field) : null;
+    }
+
+    String getAutoGeneratedKeyGetter() throws InvalidElementException {
+        Element field = getAutoGeneratedKeyField();
+        return field != null ? findDirectGetter(field).getMethod() : null;
+    }
+
+    /**
+     * @return the key converted from a long named rowId to the type of the field
+     */
+    String getAutoGeneratedKeyValue() throws InvalidElementException {
+        Element field = getAutoGeneratedKeyField();
+        if (field == null) return null;
+
+        return field.asType().getKind() == TypeKind.INT ? "(int) rowId" : "rowId";
+    }
+
+    /**
+     * @return a statement that sets the key of item to a long named rowId
+     */
+    String getAutoGeneratedKeySetter() throws InvalidElementException {
+        Element field = getAutoGeneratedKeyField();
+        if (field == null) return null;
+
+        String fieldName = field.getSimpleName().toString();
+        ExecutableElement method = settersByFieldName.get(fieldName);
+        if (method == null)
+            method = findMethodByFieldNameOnly(fieldName, "set");
+        if (method != null)
+            return receiver + "." + method.getSimpleName() + "(" + getAutoGeneratedKeyValue() + ")";
+
+        if (!ElementUtils.isAccessible(field))
+            throw new InvalidElementException("No set method or a public field for " + fieldName + " in " + databaseTypeElement.getSimpleName(), field);
+
+        return receiver + "." + fieldName + " = " + getAutoGeneratedKeyValue();
+    }
+
     private List<Element> getPrimaryKeyFields() throws InvalidElementException {
+        if (primaryKeyFields == null)
+            primaryKeyFields = findPrimaryKeyFields();
+
+        return primaryKeyFields;
+    }
+
+    private List<Element> findPrimaryKeyFields() throws InvalidElementException {
         List<Element> fields = getFieldsUsedInDatabase();
 
         List<Element> primaryKeysByAnnotation = findElementsByAnnotation(fields, PrimaryKey.class);
         if (primaryKeysByAnnotation.isEmpty())
             fields = getPrimaryKeyFieldsUsingDatabaseEntity(fields);
+        else
+            fields = primaryKeysByAnnotation;
 
         if (fields == null || fields.isEmpty())
             throw new InvalidElementException("There must be a field annotated with PrimaryKey or the keys specified in @DatabaseEntity is empty!", databaseTypeElement);
@@ -217,7 +627,7 @@ class DatabaseEntityModel {
 
         List<Element> elements = new ArrayList<>();
         for (String key : keys) {
-            Element field = getFieldByName(validFields, key);
+            Element field = fieldsByName.get(key);
             if (field == null)
                 throw new InvalidElementException("Field specified in DatabaseEntity annotation doesn't exist in entity class!", databaseTypeElement);
 
@@ -242,6 +652,12 @@ class DatabaseEntityModel {
 
     }
 
+    private boolean isRelation(Element element) {
+        return element.getKind() == ElementKind.FIELD &&
+                !element.getModifiers().contains(Modifier.STATIC) &&
+                element.getAnnotation(Relation.class) != null;
+    }
+
     private String getDatabaseType(Element field) throws InvalidElementException {
         if (field == null) throw new IllegalArgumentException("field is null");
 
@@ -267,14 +683,28 @@ class DatabaseEntityModel {
 
                 if (typeName.equals(ElementUtils.TYPE_STRING)) {
                     return getDatabaseType(SerializeType.STRING);
-                } else {
-                    SerializeTo annotation = field.getAnnotation(SerializeTo.class);
-                    if (annotation == null) {
-                        throw new InvalidElementException(typeName + " is not a type that SlingerORM understands, please add @SerializeTo and tell it what to serialize to.", field);
-                    }
+                }
 
+                SerializeTo annotation = field.getAnnotation(SerializeTo.class);
+                if (annotation != null) {
                     return getDatabaseType(annotation.value());
                 }
+
+                switch (getObjectType(field, field)) {
+                    case UUID:
+                        return getDatabaseType(SerializeType.BYTE_ARRAY);
+                    case DATE:
+                    case INSTANT:
+                        return getDatabaseType(SerializeType.LONG);
+                    case BIG_DECIMAL:
+                        return field.getAnnotation(DecimalScale.class) != null ?
+                                getDatabaseType(SerializeType.LONG) :
+                                getDatabaseType(SerializeType.STRING);
+                    case ENUM:
+                        return getDatabaseType(SerializeType.INT);
+                    default:
+                        throw new InvalidElementException(typeName + " is not a type that SlingerORM understands, please add @SerializeTo and tell it what to serialize to.", field);
+                }
             default:
                 throw new InvalidElementException(field.getSimpleName() + " have a type not known by SlingerORM, solve this by creating a custom serializer", field);
         }
@@ -310,19 +740,18 @@ class DatabaseEntityModel {
                 .collect(toList());
     }
 
-    private Element getFieldByName(List<Element> fields, final String name) throws InvalidElementException {
-        if (fields == null) throw new IllegalArgumentException("fields is null");
-        if (name == null) throw new IllegalArgumentException("name is null");
-
-        return fields.stream()
-                .filter(item -> name.equals(item.getSimpleName().toString()))
-                .findFirst().orElse(null);
-    }
-
     private FieldMethod findGetter(Element field) throws InvalidElementException {
         if (field == null) throw new IllegalArgumentException("field is null");
 
-        final ObjectType objectType = getObjectTypeForElement(field);
+        return findGetter(field, findDirectGetter(field));
+    }
+
+    /**
+     * @param getter expression reading the value of the field
+     * @return the getter wrapped in the conversion of the value to what is stored in the database
+     */
+    private FieldMethod findGetter(Element field, FieldMethod getter) throws InvalidElementException {
+        final ObjectType objectType = getObjectType(field, field);
         switch (objectType) {
             case BOOLEAN:
             case DOUBLE:
@@ -331,20 +760,41 @@ class DatabaseEntityModel {
             case LONG:
             case SHORT:
             case STRING:
-                return findDirectGetter(field);
+                return getter;
+            case UUID:
+                return new WrappedFieldMethod("Codecs.fromUUID(", getter, ")");
+            case DATE:
+                return new WrappedFieldMethod("Codecs.fromDate(", getter, ")");
+            case INSTANT:
+                return new WrappedFieldMethod("fromInstant(", getter, ")");
+            case BIG_DECIMAL:
+                DecimalScale decimalScale = field.getAnnotation(DecimalScale.class);
+                if (decimalScale != null) {
+                    return new WrappedFieldMethod("Codecs.fromBigDecimal(", getter, ", " + decimalScale.value() + ")");
+                }
+                return new WrappedFieldMethod("Codecs.fromBigDecimal(", getter, ")");
+            case ENUM:
+                return new WrappedFieldMethod("from" + getTypeElement(field).getSimpleName() + "(", getter, ")");
             case OTHER:
-                return getSerializerMethod(field);
+                return getSerializerMethod(field, getter);
             default:
                 throw new UnsupportedOperationException("this should not be called!");
         }
     }
 
-    private FieldMethod getSerializerMethod(Element field) throws InvalidElementException {
+    private FieldMethod getSerializerMethod(Element field, FieldMethod getter) throws InvalidElementException {
         String serializerFieldName = getSerializerFieldName(field);
-        FieldMethod getter = findDirectGetter(field);
+        if (isPrimitiveSerializer(field))
+            return new WrappedFieldMethod(SerializerType.getSerializeMethodName(serializerFieldName) + "(", getter, ")");
+
         return new WrappedFieldMethod(serializerFieldName + ".serialize(", getter, ")");
     }
 
+    private boolean isPrimitiveSerializer(Element field) {
+        SerializeTo annotation = field.getAnnotation(SerializeTo.class);
+        return getPrimitiveTypeName(annotation.value()) != null;
+    }
+
     private String getSerializerFieldName(Element field) throws InvalidElementException {
         TypeElement typeElement = getTypeElement(field);
         String fieldTypeName = typeElement.getSimpleName().toString();
@@ -378,59 +828,36 @@ class DatabaseEntityModel {
     private FieldMethod findDirectGetter(Element field) throws InvalidElementException {
         if (field == null) throw new IllegalArgumentException("field is null");
 
-        List<ExecutableElement> methodsInDatabaseEntityElement = getMethodsInTypeElement(databaseTypeElement);
-        ExecutableElement method = findMethodByFieldNameAndGetFieldAnnotation(methodsInDatabaseEntityElement, field.getSimpleName().toString());
+        ExecutableElement method = gettersByFieldName.get(field.getSimpleName().toString());
         if (method != null)
-            return new FieldMethodImpl("item." + method.getSimpleName() + "()");
+            return new FieldMethodImpl(receiver + "." + method.getSimpleName() + "()");
 
         boolean isBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
-        method = findMethodByFieldNameOnly(methodsInDatabaseEntityElement, field.getSimpleName().toString(), isBoolean ? "is" : "get");
+        method = findMethodByFieldNameOnly(field.getSimpleName().toString(), isBoolean ? "is" : "get");
         if (method != null)
-            return new FieldMethodImpl("item." + method.getSimpleName() + "()");
+            return new FieldMethodImpl(receiver + "." + method.getSimpleName() + "()");
 
         if (!ElementUtils.isAccessible(field))
             throw new InvalidElementException("No get method or a public field for " + field.getSimpleName() + " in " + databaseTypeElement.getSimpleName(),
                     databaseTypeElement);
 
-        return new FieldMethodImpl("item." + field.getSimpleName().toString());
+        return new FieldMethodImpl(receiver + "." + field.getSimpleName().toString());
     }
 
-    private ExecutableElement findMethodByFieldNameOnly(List<ExecutableElement> methods, final String fieldName, final String prefix) throws InvalidElementException {
-        if (methods == null) throw new IllegalArgumentException("methods is null");
+    private ExecutableElement findMethodByFieldNameOnly(String fieldName, String prefix) {
         if (fieldName == null) throw new IllegalArgumentException("fieldName is null");
         if (prefix == null) throw new IllegalArgumentException("prefix is null");
 
-        return methods.stream()
-                .filter(item -> {
-                    String firstLetter = fieldName.substring(0, 1).toUpperCase();
-                    String methodName = prefix + firstLetter + fieldName.substring(1);
-
-                    return methodName.equals(item.getSimpleName().toString());
-                })
-                .findFirst().orElse(null);
-    }
-
-    private ExecutableElement findMethodByFieldNameAndGetFieldAnnotation(List<ExecutableElement> elements, String fieldName) throws InvalidElementException {
-        if (elements == null) throw new IllegalArgumentException("elements is null");
-        if (fieldName == null) throw new IllegalArgumentException("fieldName is null");
-
-        for (ExecutableElement element : elements) {
-            GetField annotation = element.getAnnotation(GetField.class);
-            if (annotation == null)
-                continue;
-
-            String fieldReference = annotation.value();
-            if (fieldReference.equals(""))
-                throw new InvalidElementException(element.getSimpleName() + " has a GetField annotation with empty value!", element);
-
-            if (fieldReference.equals(fieldName))
-                return element;
-        }
-
-        return null;
+        String firstLetter = fieldName.substring(0, 1).toUpperCase();
+        return methodsByName.get(prefix + firstLetter + fieldName.substring(1));
     }
 
-    private ObjectType getObjectTypeForElement(Element element) throws InvalidElementException {
+    /**
+     * Gets the type of element, which is either the field or the parameter of its setter. UUID,
+     * Date, Instant and BigDecimal are only handled by SlingerORM when the field doesn't have a
+     * custom serializer.
+     */
+    private ObjectType getObjectType(Element element, Element field) throws InvalidElementException {
         if (element == null) throw new IllegalArgumentException("element is null");
 
         final TypeKind typeKind = ElementUtils.getTypeKind(element);
@@ -453,9 +880,26 @@ class DatabaseEntityModel {
                 final String typeName = typeElement.getQualifiedName().toString();
                 if (typeName.equals(ElementUtils.TYPE_STRING)) {
                     return ObjectType.STRING;
-                } else {
+                } else if (field.getAnnotation(SerializeTo.class) != null) {
                     return ObjectType.OTHER;
                 }
+
+                if (typeElement.getKind() == ElementKind.ENUM) {
+                    return ObjectType.ENUM;
+                }
+
+                switch (typeName) {
+                    case TYPE_UUID:
+                        return ObjectType.UUID;
+                    case TYPE_DATE:
+                        return ObjectType.DATE;
+                    case TYPE_INSTANT:
+                        return ObjectType.INSTANT;
+                    case TYPE_BIG_DECIMAL:
+                        return ObjectType.BIG_DECIMAL;
+                    default:
+                        return ObjectType.OTHER;
+                }
             case ARRAY:
             case BYTE:
             case CHAR:
@@ -465,44 +909,26 @@ class DatabaseEntityModel {
         }
     }
 
-    private ExecutableElement findMethodByFieldNameAndSetFieldAnnotation(List<ExecutableElement> elements, String fieldName) throws InvalidElementException {
-        for (ExecutableElement element : elements) {
-            SetField annotation = element.getAnnotation(SetField.class);
-            if (annotation == null)
-                continue;
-
-            String fieldReference = annotation.value();
-            if (fieldReference.equals(""))
-                throw new InvalidElementException(element.getSimpleName() + " has a SetField annotation with empty value!", element);
-
-            if (fieldReference.equals(fieldName))
-                return element;
-        }
-
-        return null;
-    }
-
-    private FieldMethod findSetter(Element field) throws InvalidElementException {
+    private FieldMethod findSetter(Element field, boolean byPosition) throws InvalidElementException {
         if (field == null) throw new IllegalArgumentException("field is null");
 
-        List<ExecutableElement> methodsInDatabaseEntityElement = getMethodsInTypeElement(databaseTypeElement);
-        ExecutableElement method = findMethodByFieldNameAndSetFieldAnnotation(methodsInDatabaseEntityElement, field.getSimpleName().toString());
+        ExecutableElement method = settersByFieldName.get(field.getSimpleName().toString());
         if (method != null) {
-            return findSetterMethodFromParameter(method, field);
+            return findSetterMethodFromParameter(method, field, byPosition);
         }
 
-        method = findMethodByFieldNameOnly(methodsInDatabaseEntityElement, field.getSimpleName().toString(), "set");
+        method = findMethodByFieldNameOnly(field.getSimpleName().toString(), "set");
         if (method != null) {
-            return findSetterMethodFromParameter(method, field);
+            return findSetterMethodFromParameter(method, field, byPosition);
         }
 
         if (!ElementUtils.isAccessible(field))
             throw new InvalidElementException("No get method or a public field for " + field.getSimpleName() + " in " + databaseTypeElement.getSimpleName(), field);
 
-        return new WrappedFieldMethod(field.getSimpleName().toString() + " = ", findCursorMethod(field, field), "");
+        return new WrappedFieldMethod(field.getSimpleName().toString() + " = ", findCursorMethod(field, field, byPosition), "");
     }
 
-    private FieldMethod findSetterMethodFromParameter(ExecutableElement method, Element field) throws InvalidElementException {
+    private FieldMethod findSetterMethodFromParameter(ExecutableElement method, Element field, boolean byPosition) throws InvalidElementException {
         if (method == null) throw new IllegalArgumentException("method is null");
 
         List<? extends VariableElement> typeParameters = method.getParameters();
@@ -511,46 +937,71 @@ class DatabaseEntityModel {
                     "method has %d parameters, only 1 parameter supported!",
                     typeParameters.size()), method);
 
-        return new WrappedFieldMethod(method.getSimpleName() + "(", findCursorMethod(typeParameters.get(0), field), ")");
+        return new WrappedFieldMethod(method.getSimpleName() + "(", findCursorMethod(typeParameters.get(0), field, byPosition), ")");
     }
 
-    private FieldMethod findCursorMethod(Element element, Element field) throws InvalidElementException {
+    private FieldMethod findCursorMethod(Element element, Element field, boolean byPosition) throws InvalidElementException {
         if (element == null) throw new IllegalArgumentException("element is null");
 
-        final ObjectType objectType = getObjectTypeForElement(element);
+        if (isEmbedded(field)) {
+            String methodName = getEmbeddedModel(field).methodPrefix;
+            if (byPosition)
+                return new FieldMethodImpl(methodName + "(cursor, " + getColumnIndex(field, true) + ")");
+
+            return new FieldMethodImpl(methodName + "(cursor)");
+        }
+
+        final ObjectType objectType = getObjectType(element, field);
         if (objectType == ObjectType.OTHER) {
-            return findDeserializerMethod(element, field);
+            return findDeserializerMethod(field, byPosition);
         } else {
-            return getCursorMethod(field, objectType);
+            return getCursorMethod(field, objectType, byPosition);
         }
     }
 
-    private FieldMethod getCursorMethod(Element field, ObjectType objectType) throws InvalidElementException {
+    private FieldMethod getCursorMethod(Element field, ObjectType objectType, boolean byPosition) throws InvalidElementException {
+        String columnIndex = getColumnIndex(field, byPosition);
         switch (objectType) {
             case BOOLEAN:
-                return new FieldMethodImpl("cursor.getInt(" + getColumnIndex(field) + ") == 1");
+                return new FieldMethodImpl("cursor.getInt(" + columnIndex + ") == 1");
             case DOUBLE:
-                return new FieldMethodImpl("cursor.getDouble(" + getColumnIndex(field) + ")");
+                return new FieldMethodImpl("cursor.getDouble(" + columnIndex + ")");
             case FLOAT:
-                return new FieldMethodImpl("cursor.getFloat(" + getColumnIndex(field) + ")");
+                return new FieldMethodImpl("cursor.getFloat(" + columnIndex + ")");
             case INT:
-                return new FieldMethodImpl("cursor.getInt(" + getColumnIndex(field) + ")");
+                return new FieldMethodImpl("cursor.getInt(" + columnIndex + ")");
             case LONG:
-                return new FieldMethodImpl("cursor.getLong(" + getColumnIndex(field) + ")");
+                return new FieldMethodImpl("cursor.getLong(" + columnIndex + ")");
             case SHORT:
-                return new FieldMethodImpl("cursor.getShort(" + getColumnIndex(field) + ")");
+                return new FieldMethodImpl("cursor.getShort(" + columnIndex + ")");
             case STRING:
-                return new FieldMethodImpl("cursor.getString(" + getColumnIndex(field) + ")");
+                return new FieldMethodImpl("cursor.getString(" + columnIndex + ")");
+            case UUID:
+                return new FieldMethodImpl("Codecs.toUUID(cursor, " + columnIndex + ")");
+            case DATE:
+                return new FieldMethodImpl("Codecs.toDate(cursor, " + columnIndex + ")");
+            case INSTANT:
+                return new FieldMethodImpl("toInstant(cursor, " + columnIndex + ")");
+            case BIG_DECIMAL:
+                DecimalScale decimalScale = field.getAnnotation(DecimalScale.class);
+                if (decimalScale != null) {
+                    return new FieldMethodImpl("Codecs.toBigDecimal(cursor, " + columnIndex + ", " + decimalScale.value() + ")");
+                }
+                return new FieldMethodImpl("Codecs.toBigDecimal(cursor, " + columnIndex + ")");
+            case ENUM:
+                return new FieldMethodImpl("to" + getTypeElement(field).getSimpleName() + "(cursor, " + columnIndex + ")");
             default:
                 throw new UnsupportedOperationException("this should not be called!");
         }
     }
 
-    private FieldMethod findDeserializerMethod(Element element, Element field) throws InvalidElementException {
+    private FieldMethod findDeserializerMethod(Element field, boolean byPosition) throws InvalidElementException {
         String serializerFieldName = getSerializerFieldName(field);
         SerializeTo annotation = field.getAnnotation(SerializeTo.class);
         ObjectType objectType = convertToObjectType(annotation.value());
-        FieldMethod cursorMethod = getCursorMethod(element, objectType);
+        FieldMethod cursorMethod = getCursorMethod(field, objectType, byPosition);
+        if (isPrimitiveSerializer(field))
+            return new WrappedFieldMethod(SerializerType.getDeserializeMethodName(serializerFieldName) + "(", cursorMethod, ")");
 
         return new WrappedFieldMethod(serializerFieldName + ".deserialize(", cursorMethod, ")");
     }
@@ -574,30 +1025,59 @@ class DatabaseEntityModel {
         }
     }
 
-    private String getColumnIndex(Element field) throws InvalidElementException {
-        return "cursor.getColumnIndex(\"" + getDatabaseFieldName(field) + "\")";
+    /**
+     * @param byPosition true to read the column at its position in {@link #getFieldNames()} added
+     *                   to a variable named offset, false to look the column up by name
+     */
+    private String getColumnIndex(Element field, boolean byPosition) throws InvalidElementException {
+        if (!byPosition)
+            return "cursor.getColumnIndex(\"" + getDatabaseFieldName(field) + "\")";
+
+        int position = getColumnPosition(field);
+        return position == 0 ? "offset" : "offset + " + position;
+    }
+
+    private int getColumnPosition(Element field) throws InvalidElementException {
+        int position = 0;
+        for (Element other : getFieldsUsedInDatabase()) {
+            if (other == field)
+                return position;
+
+            position += isEmbedded(other) ? getEmbeddedModel(other).getFieldNames().length : 1;
+        }
+        throw new IllegalArgumentException(field.getSimpleName() + " is not a column");
     }
 
     List<FieldMethod> getSetters() throws InvalidElementException {
+        return createSetters(false);
+    }
+
+    /**
+     * @return setters that read the columns by their position after the offset, for cursors
+     * that have the columns in the order of {@link #getFieldNames()}
+     */
+    List<FieldMethod> getPositionalSetters() throws InvalidElementException {
+        return createSetters(true);
+    }
+
+    private List<FieldMethod> createSetters(boolean byPosition) throws InvalidElementException {
         List<Element> fields = getFieldsUsedInDatabase();
         List<FieldMethod> setters = new ArrayList<>();
         for (Element field : fields) {
-            setters.add(createSetter(field));
+            setters.add(findSetter(field, byPosition));
         }
         return setters;
     }
 
-    private FieldMethod createSetter(Element field) throws InvalidElementException {
-        if (field == null) throw new IllegalArgumentException("field is null");
-
-        return findSetter(field);
-    }
-
     List<FieldMethod> getGetters() throws InvalidElementException {
         List<Element> fields = getFieldsUsedInDatabase();
         List<FieldMethod> setters = new ArrayList<>();
         for (Element field : fields) {
-            setters.add(createGetter(field));
+            if (isEmbedded(field)) {
+                setters.addAll(getEmbeddedModel(field).getGetters());
+            } else {
+                setters.add(createGetter(field));
+            }
         }
         return setters;
     }
@@ -605,9 +1085,122 @@ class DatabaseEntityModel {
     private FieldMethod createGetter(Element field) throws InvalidElementException {
         if (field == null) throw new IllegalArgumentException("field is null");
 
+        if (nullCheck != null) {
+            return new WrappedFieldMethod("\"" + getDatabaseFieldName(field) + "\", " + nullCheck + " ? ", findGetter(field), " : null");
+        }
+
         return new WrappedFieldMethod("\"" + getDatabaseFieldName(field) + "\", ", findGetter(field), "");
     }
 
+    /**
+     * @return the embedded types of this model and the types embedded in those
+     */
+    List<EmbeddedType> getEmbeddedTypes() throws InvalidElementException {
+        List<EmbeddedType> embeddedTypes = new ArrayList<>();
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (!isEmbedded(field))
+                continue;
+
+            DatabaseEntityModel model = getEmbeddedModel(field);
+            embeddedTypes.add(new EmbeddedType(model.methodPrefix,
+                    model.databaseTypeElement.getSimpleName().toString(),
+                    model.getFieldNames(), model.getSetters(), model.getPositionalSetters()));
+            embeddedTypes.addAll(model.getEmbeddedTypes());
+        }
+        return embeddedTypes;
+    }
+
+    /**
+     * @param models used to look up the models of the children
+     * @return the fields annotated with {@link Relation}
+     */
+    List<RelationType> getRelations(DatabaseEntityModels models) throws InvalidElementException {
+        if (models == null) throw new IllegalArgumentException("models is null");
+
+        List<RelationType> relations = new ArrayList<>();
+        for (Element field : relationFields) {
+            relations.add(createRelation(field, models));
+        }
+        return relations;
+    }
+
+    private RelationType createRelation(Element field, DatabaseEntityModels models) throws InvalidElementException {
+        TypeElement childType = getListElementType(field);
+        if (childType == null || childType.getAnnotation(DatabaseEntity.class) == null)
+            throw new InvalidElementException("@Relation can only be used on a List of a type annotated with @DatabaseEntity", field);
+
+        Relation relation = field.getAnnotation(Relation.class);
+        Element parentKey;
+        if (relation.parentColumn().equals("")) {
+            List<Element> primaryKeyFields = getPrimaryKeyFields();
+            if (primaryKeyFields.size() != 1)
+                throw new InvalidElementException("parentColumn must be set when " + databaseTypeElement.getSimpleName() + " has more than one primary key", field);
+
+            parentKey = primaryKeyFields.get(0);
+        } else {
+            parentKey = findFieldByColumnName(relation.parentColumn());
+            if (parentKey == null)
+                throw new InvalidElementException("there is no column named " + relation.parentColumn() + " in " + databaseTypeElement.getSimpleName(), field);
+        }
+
+        DatabaseEntityModel childModel = models.getModel(childType);
+        Element childKey = childModel.findFieldByColumnName(relation.childColumn());
+        if (childKey == null)
+            throw new InvalidElementException("there is no column named " + relation.childColumn() + " in " + childType.getSimpleName(), field);
+
+        ObjectType keyType = getObjectType(parentKey, parentKey);
+        if (!RELATION_KEY_TYPES.contains(keyType))
+            throw new InvalidElementException("only short, int, long, String and UUID columns can be used in a relation", field);
+
+        if (childModel.getObjectType(childKey, childKey) != keyType)
+            throw new InvalidElementException(relation.childColumn() + " in " + childType.getSimpleName() + " must have the same type as " + parentKey.getSimpleName(), field);
+
+        return new RelationType(field.getSimpleName().toString(),
+                childType,
+                childModel.getDatabaseFieldName(childKey),
+                findDirectGetter(parentKey).getMethod(),
+                childModel.findDirectGetter(childKey).getMethod(),
+                findRelationSetter(field));
+    }
+
+    private TypeElement getListElementType(Element field) {
+        if (ElementUtils.getTypeKind(field) != TypeKind.DECLARED)
+            return null;
+
+        DeclaredType declaredType = (DeclaredType) field.asType();
+        TypeElement typeElement = (TypeElement) declaredType.asElement();
+        if (!typeElement.getQualifiedName().contentEquals(TYPE_LIST) || declaredType.getTypeArguments().size() != 1)
+            return null;
+
+        TypeMirror elementType = declaredType.getTypeArguments().get(0);
+        if (elementType.getKind() != TypeKind.DECLARED)
+            return null;
+
+        return (TypeElement) ((DeclaredType) elementType).asElement();
+    }
+
+    private Element findFieldByColumnName(String columnName) throws InvalidElementException {
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (!isEmbedded(field) && getDatabaseFieldName(field).equals(columnName))
+                return field;
+        }
+        return null;
+    }
+
+    private String findRelationSetter(Element field) throws InvalidElementException {
+        String fieldName = field.getSimpleName().toString();
+        ExecutableElement method = settersByFieldName.get(fieldName);
+        if (method == null)
+            method = findMethodByFieldNameOnly(fieldName, "set");
+        if (method != null)
+            return receiver + "." + method.getSimpleName() + "(children)";
+
+        if (!ElementUtils.isAccessible(field))
+            throw new InvalidElementException("No set method or a public field for " + fieldName + " in " + databaseTypeElement.getSimpleName(), field);
+
+        return receiver + "." + fieldName + " = children";
+    }
+
     String getItemSql() throws InvalidElementException {
         return getPrimaryKeyDbNames()
                 .stream()
@@ -619,32 +1212,261 @@ class DatabaseEntityModel {
     List<String> getItemSqlArgs() throws InvalidElementException {
         return map(getPrimaryKeyFields(), primaryKeyField -> {
             FieldMethod directGetter = findDirectGetter(primaryKeyField);
-            if (ElementUtils.isString(primaryKeyField)) {
-                return directGetter.getMethod();
-            } else {
-                return "String.valueOf(" + directGetter.getMethod() + ")";
+            if (getDatabaseType(primaryKeyField).equals("BLOB"))
+                return CODECS + ".toHex(" + findGetter(primaryKeyField).getMethod() + ")";
+
+            switch (getObjectType(primaryKeyField, primaryKeyField)) {
+                case STRING:
+                    return directGetter.getMethod();
+                case DATE:
+                case INSTANT:
+                case BIG_DECIMAL:
+                case ENUM:
+                    return "String.valueOf(" + findGetter(primaryKeyField).getMethod() + ")";
+                default:
+                    return "String.valueOf(" + directGetter.getMethod() + ")";
             }
         });
     }
 
-    public List<SerializerType> getSerializers() throws InvalidElementException {
+    List<String> getItemBindArgs() throws InvalidElementException {
+        return map(getPrimaryKeyFields(), primaryKeyField -> findGetter(primaryKeyField).getMethod());
+    }
+
+    /**
+     * @return the columns of fields that aren't stored as they are, mapped to an expression
+     * converting an Object named value of the type of the field the same way the mapper stores it
+     */
+    Map<String, String> getStoredValueConversions() throws InvalidElementException {
+        Map<String, String> conversions = new LinkedHashMap<>();
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (isEmbedded(field)) {
+                conversions.putAll(getEmbeddedModel(field).getStoredValueConversions());
+            } else if (isConvertedWhenStored(field)) {
+                FieldMethod value = new FieldMethodImpl("((" + field.asType() + ") value)");
+                conversions.put(getDatabaseFieldName(field), findGetter(field, value).getMethod());
+            }
+        }
+        return conversions;
+    }
+
+    /**
+     * @return the types of the fields of the columns in {@link #getStoredValueConversions()}
+     */
+    Map<String, TypeMirror> getConvertedColumnTypes() throws InvalidElementException {
+        Map<String, TypeMirror> types = new LinkedHashMap<>();
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (isEmbedded(field)) {
+                types.putAll(getEmbeddedModel(field).getConvertedColumnTypes());
+            } else if (isConvertedWhenStored(field)) {
+                types.put(getDatabaseFieldName(field), field.asType());
+            }
+        }
+        return types;
+    }
+
+    private boolean isConvertedWhenStored(Element field) throws InvalidElementException {
+        switch (getObjectType(field, field)) {
+            case UUID:
+            case DATE:
+            case INSTANT:
+            case BIG_DECIMAL:
+            case ENUM:
+            case OTHER:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return imports needed by the conversions of fields that are stored without a custom
+     * serializer
+     */
+    Collection<String> getCodecImports() throws InvalidElementException {
+        Set<String> imports = new HashSet<>();
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (isEmbedded(field)) {
+                imports.add(getTypeElement(field).getQualifiedName().toString());
+                imports.addAll(getEmbeddedModel(field).getCodecImports());
+                continue;
+            }
+
+            if (field.getAnnotation(DecimalScale.class) != null &&
+                    getObjectType(field, field) != ObjectType.BIG_DECIMAL) {
+                throw new InvalidElementException("@DecimalScale can only be used on BigDecimal fields without @SerializeTo", field);
+            }
+
+            switch (getObjectType(field, field)) {
+                case UUID:
+                case DATE:
+                case BIG_DECIMAL:
+                    imports.add(CODECS);
+                    break;
+                case INSTANT:
+                    imports.add(TYPE_INSTANT);
+                    break;
+                case ENUM:
+                    imports.add(getTypeElement(field).getQualifiedName().toString());
+                    break;
+            }
+        }
+        return imports;
+    }
+
+    /**
+     * @return true if a field, or a field of an embedded type, is an Instant that the mapper
+     * converts with its fromInstant and toInstant methods
+     */
+    boolean hasInstantFields() throws InvalidElementException {
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (isEmbedded(field)) {
+                if (getEmbeddedModel(field).hasInstantFields())
+                    return true;
+            } else if (getObjectType(field, field) == ObjectType.INSTANT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<EnumType> getEnumTypes() throws InvalidElementException {
+        if (enumTypes == null)
+            enumTypes = findEnumTypes();
+
+        return enumTypes;
+    }
+
+    private List<EnumType> findEnumTypes() throws InvalidElementException {
+        Map<String, EnumType> types = new LinkedHashMap<>();
+        for (Element field : getFieldsUsedInDatabase()) {
+            if (isEmbedded(field)) {
+                for (EnumType enumType : getEmbeddedModel(field).getEnumTypes()) {
+                    types.putIfAbsent(enumType.getQualifiedName(), enumType);
+                }
+                continue;
+            }
+
+            if (getObjectType(field, field) != ObjectType.ENUM)
+                continue;
+
+            TypeElement enumElement = getTypeElement(field);
+            String qualifiedName = enumElement.getQualifiedName().toString();
+            if (!types.containsKey(qualifiedName)) {
+                types.put(qualifiedName, createEnumType(enumElement));
+            }
+        }
+        return new ArrayList<>(types.values());
+    }
+
+    static EnumType createEnumType(TypeElement enumElement) throws InvalidElementException {
+        List<String> constants = new ArrayList<>();
+        List<Integer> codes = new ArrayList<>();
+        Set<Integer> usedCodes = new HashSet<>();
+        for (Element element : enumElement.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.ENUM_CONSTANT)
+                continue;
+
+            constants.add(element.getSimpleName().toString());
+            EnumCode enumCode = element.getAnnotation(EnumCode.class);
+            if (enumCode == null)
+                continue;
+
+            if (!usedCodes.add(enumCode.value()))
+                throw new InvalidElementException("code " + enumCode.value() + " is used by more than one constant in " + enumElement.getSimpleName(), element);
+
+            codes.add(enumCode.value());
+        }
+
+        if (constants.isEmpty())
+            throw new InvalidElementException(enumElement.getSimpleName() + " has no constants", enumElement);
+
+        if (codes.isEmpty())
+            return new EnumType(enumElement.getSimpleName().toString(),
+                    enumElement.getQualifiedName().toString(), constants, null);
+
+        if (codes.size() != constants.size())
+            throw new InvalidElementException("all constants in " + enumElement.getSimpleName() + " must have @EnumCode when one of them has", enumElement);
+
+        return new EnumType(enumElement.getSimpleName().toString(),
+                enumElement.getQualifiedName().toString(), constants, codes);
+    }
+
+    List<SerializerType> getSerializers() throws InvalidElementException {
+        if (serializers == null)
+            serializers = findSerializers();
+
+        return serializers;
+    }
+
+    private List<SerializerType> findSerializers() throws InvalidElementException {
+        Map<String, SerializerType> serializersByName = new LinkedHashMap<>();
+        for (SerializerType serializer : findOwnSerializers()) {
+            serializersByName.putIfAbsent(serializer.getName(), serializer);
+        }
+        for (DatabaseEntityModel embeddedModel : embeddedModels.values()) {
+            for (SerializerType serializer : embeddedModel.getSerializers()) {
+                serializersByName.putIfAbsent(serializer.getName(), serializer);
+            }
+        }
+        return new ArrayList<>(serializersByName.values());
+    }
+
+    private List<SerializerType> findOwnSerializers() throws InvalidElementException {
         return map(filter(getFieldsUsedInDatabase(),
                 field -> field.getAnnotation(SerializeTo.class) != null),
                 field -> {
                     SerializeTo annotation = field.getAnnotation(SerializeTo.class);
-                    String serializedType = getTypeName(annotation.value());
                     String deserializedType = getFieldTypeName(field);
-                    List<String> imports = getImports(field);
+                    String boxedType = "Serializer<" + deserializedType + "," +
+                            getSerializedTypeName(annotation.value()) + ">";
+                    String primitiveType = getPrimitiveTypeName(annotation.value());
+                    List<String> imports = getImports(field, annotation.value());
+
+                    if (primitiveType == null) {
+                        return new SerializerType(getSerializerFieldName(field), boxedType, imports);
+                    }
 
                     return new SerializerType(getSerializerFieldName(field),
-                            "Serializer<" + deserializedType + "," + serializedType + ">",
-                            imports);
+                            getTypeName(annotation.value()) + "Serializer<" + deserializedType + ">",
+                            imports, boxedType, primitiveType, deserializedType);
                 });
     }
 
-    private List<String> getImports(Element field) {
+    private String getSerializedTypeName(SerializeType fieldType) {
+        switch (fieldType) {
+            case INT:
+                return "Integer";
+            case BYTE_ARRAY:
+                return "byte[]";
+            default:
+                return getTypeName(fieldType);
+        }
+    }
+
+    private String getPrimitiveTypeName(SerializeType fieldType) {
+        switch (fieldType) {
+            case SHORT:
+                return "short";
+            case INT:
+                return "int";
+            case LONG:
+                return "long";
+            case FLOAT:
+                return "float";
+            case DOUBLE:
+                return "double";
+            default:
+                return null;
+        }
+    }
+
+    private List<String> getImports(Element field, SerializeType serializeType) {
         List<String> imports = new ArrayList<>();
         imports.add("net.daverix.slingerorm.serializer.Serializer");
+        if (getPrimitiveTypeName(serializeType) != null) {
+            imports.add("net.daverix.slingerorm.serializer." + getTypeName(serializeType) + "Serializer");
+        }
 
         final TypeKind typeKind = ElementUtils.getTypeKind(field);
         if(typeKind == TypeKind.DECLARED) {
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Keeps one {@link DatabaseEntityModel} per entity so a processor scans every entity once, however
+ * many of its storages and relations use it. Each processor has its own instance: with incremental
+ * annotation processing every processor gets a processing environment of its own, so there is
+ * nothing both could share, and the models go away with the processor at the end of the
+ * compilation.
+ */
+final class DatabaseEntityModels {
+    private final Map<TypeElement, DatabaseEntityModel> models = new HashMap<>();
+    private final TypeElementConverter typeElementConverter;
+
+    DatabaseEntityModels(TypeElementConverter typeElementConverter) {
+        if (typeElementConverter == null) throw new IllegalArgumentException("typeElementConverter is null");
+
+        this.typeElementConverter = typeElementConverter;
+    }
+
+    DatabaseEntityModel getModel(TypeElement entity) throws InvalidElementException {
+        if (entity == null) throw new IllegalArgumentException("entity is null");
+
+        DatabaseEntityModel model = models.get(entity);
+        if (model == null) {
+            model = new DatabaseEntityModel(entity, typeElementConverter);
+            models.put(entity, model);
+        }
+        return model;
+    }
+}
@@ -22,6 +22,7 @@ import net.daverix.slingerorm.entity.DatabaseEntity;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -30,6 +31,7 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
@@ -43,17 +45,41 @@ import javax.tools.JavaFileObject;
  */
 @AutoService(Processor.class)
 @SupportedAnnotationTypes("net.daverix.slingerorm.entity.DatabaseEntity")
+@SupportedOptions(DatabaseEntityProcessor.OPTION_MAX_FIELDS_PER_METHOD)
 @SupportedSourceVersion(SourceVersion.RELEASE_6)
 public class DatabaseEntityProcessor extends AbstractProcessor {
+    /**
+     * Processor option for how many fields a generated mapper method may map before the mapping
+     * is split into several methods
+     */
+    static final String OPTION_MAX_FIELDS_PER_METHOD = "slingerorm.maxFieldsPerMethod";
+    private static final int DEFAULT_MAX_FIELDS_PER_METHOD = 64;
+
     private PackageProvider packageProvider;
-    private TypeElementConverter typeElementConverter;
+    private DatabaseEntityModels models;
+    private int maxFieldsPerMethod;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
 
         packageProvider = new PackageProvider();
-        typeElementConverter = new TypeElementConverterImpl(processingEnv);
+        models = new DatabaseEntityModels(new TypeElementConverterImpl(processingEnv));
+        maxFieldsPerMethod = getMaxFieldsPerMethod();
+    }
+
+    private int getMaxFieldsPerMethod() {
+        String value = processingEnv.getOptions().get(OPTION_MAX_FIELDS_PER_METHOD);
+        if (value == null) return DEFAULT_MAX_FIELDS_PER_METHOD;
+
+        try {
+            int maxFields = Integer.parseInt(value);
+            if (maxFields > 0) return maxFields;
+        } catch (NumberFormatException ignored) {
+        }
+
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, OPTION_MAX_FIELDS_PER_METHOD + " must be a positive number but was " + value);
+        return DEFAULT_MAX_FIELDS_PER_METHOD;
     }
 
     @Override
@@ -62,7 +88,7 @@ public class DatabaseEntityProcessor extends AbstractProcessor {
             if(entity.getModifiers().contains(Modifier.ABSTRACT)) continue;
 
             try {
-                createMapper(packageProvider, typeElementConverter, (TypeElement) entity);
+                createMapper(packageProvider, (TypeElement) entity);
             } catch (IOException e) {
                 processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Error creating mapper class: " + e.getLocalizedMessage());
             } catch (InvalidElementException e) {
@@ -74,10 +100,10 @@ public class DatabaseEntityProcessor extends AbstractProcessor {
         return true;
     }
 
-    private void createMapper(PackageProvider packageProvider, TypeElementConverter typeElementConverter, TypeElement entity) throws IOException, InvalidElementException {
+    private void createMapper(PackageProvider packageProvider, TypeElement entity) throws IOException, InvalidElementException {
         if(entity == null) throw new IllegalArgumentException("entity is null");
 
-        DatabaseEntityModel model = new DatabaseEntityModel(entity, typeElementConverter);
+        DatabaseEntityModel model = models.getModel(entity);
 
         String qualifiedName = entity.getQualifiedName().toString();
         String packageName = packageProvider.getPackage(qualifiedName);
@@ -87,9 +113,11 @@ public class DatabaseEntityProcessor extends AbstractProcessor {
         List<FieldMethod> getters = model.getGetters();
         String deleteSql = model.getItemSql();
         List<String> itemSqlArgs = model.getItemSqlArgs();
+        List<String> itemBindArgs = model.getItemBindArgs();
         List<SerializerType> serializers = model.getSerializers();
+        Collection<String> imports = model.getCodecImports();
 
-        JavaFileObject jfo = processingEnv.getFiler().createSourceFile(packageName + "." + mapperName);
+        JavaFileObject jfo = processingEnv.getFiler().createSourceFile(packageName + "." + mapperName, entity);
         try (BufferedWriter bw = new BufferedWriter(jfo.openWriter())) {
             DatabaseEntityMapperBuilder.builder(bw)
                     .setDatabaseEntityClassName(entity.getSimpleName().toString())
@@ -98,10 +126,23 @@ public class DatabaseEntityProcessor extends AbstractProcessor {
                     .setCreateTableSql(createTableSql)
                     .setFieldNames(model.getFieldNames())
                     .setSetters(setters)
+                    .setPositionalSetters(model.getPositionalSetters())
                     .setGetters(getters)
                     .setItemSql(deleteSql)
                     .setItemSqlArguments(itemSqlArgs)
+                    .setItemBindArguments(itemBindArgs)
+                    .setStoredValueConversions(model.getStoredValueConversions())
+                    .setTrackChanges(model.isTrackingChanges())
+                    .setAutoGeneratedKey(model.getAutoGeneratedKeyDbName(),
+                            model.getAutoGeneratedKeyGetter(),
+                            model.getAutoGeneratedKeySetter())
+                    .setImports(imports)
+                    .setEnumTypes(model.getEnumTypes())
+                    .setInstantConversions(model.hasInstantFields())
+                    .setEmbeddedTypes(model.getEmbeddedTypes())
+                    .setSchema(model.getVersion(), model.getSchemaHash(), model.getSchemaColumns())
                     .setSerializers(serializers)
+                    .setMaxFieldsPerMethod(maxFieldsPerMethod)
                     .build();
         }
     }
@@ -16,6 +16,7 @@
 package net.daverix.slingerorm.compiler;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -24,11 +25,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Collectors.toList;
 
 final class DatabaseStorageBuilder {
     private final Writer writer;
-    private final Set<StorageMethod> storageMethods = new HashSet<>();
+    private final List<StorageMethod> storageMethods = new ArrayList<>();
     private String className;
     private String packageName;
     private String storageInterfaceName;
@@ -98,6 +99,7 @@ final class DatabaseStorageBuilder {
 
     private void writeClass(Collection<MapperDescription> mapperDescriptions) throws IOException {
         writer.write("public class " + className + " implements " + storageInterfaceName + " {\n");
+        writeConstants();
         writer.write("    private final Database db;\n");
         for(MapperDescription description : mapperDescriptions) {
             writer.write("    private final Mapper<" + description.getEntityName() + "> " + description.getVariableName() + ";\n");
@@ -126,10 +128,21 @@ final class DatabaseStorageBuilder {
 
     private Collection<MapperDescription> getMapperDescriptions() {
         return storageMethods.stream()
-                .map(StorageMethod::getMapper)
+                .flatMap(method -> method.getMappers().stream())
                 .distinct()
                 .sorted((first, second) -> first.getVariableName().compareTo(second.getVariableName()))
-                .collect(toSet());
+                .collect(toList());
+    }
+
+    private void writeConstants() throws IOException {
+        StringWriter constants = new StringWriter();
+        for(StorageMethod storageMethod : storageMethods) {
+            storageMethod.writeConstants(constants);
+        }
+        if (constants.getBuffer().length() > 0) {
+            writer.write(constants.toString());
+            writeln();
+        }
     }
 
     private void writeMethods() throws IOException {
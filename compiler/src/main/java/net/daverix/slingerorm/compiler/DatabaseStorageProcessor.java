@@ -17,16 +17,26 @@ package net.daverix.slingerorm.compiler;
 
 import com.google.auto.service.AutoService;
 
+import net.daverix.slingerorm.storage.BulkInsert;
 import net.daverix.slingerorm.storage.CreateTable;
+import net.daverix.slingerorm.storage.CreateTables;
 import net.daverix.slingerorm.entity.DatabaseEntity;
+import net.daverix.slingerorm.entity.DecimalScale;
+import net.daverix.slingerorm.entity.FieldName;
 import net.daverix.slingerorm.storage.DatabaseStorage;
 import net.daverix.slingerorm.storage.Delete;
 import net.daverix.slingerorm.storage.Insert;
+import net.daverix.slingerorm.storage.OnConflict;
+import net.daverix.slingerorm.storage.Join;
 import net.daverix.slingerorm.storage.Limit;
+import net.daverix.slingerorm.storage.Match;
 import net.daverix.slingerorm.storage.OrderBy;
+import net.daverix.slingerorm.storage.ProgressListener;
+import net.daverix.slingerorm.storage.Query;
 import net.daverix.slingerorm.storage.Replace;
 import net.daverix.slingerorm.storage.Select;
 import net.daverix.slingerorm.storage.Update;
+import net.daverix.slingerorm.storage.Upsert;
 import net.daverix.slingerorm.storage.Where;
 
 import java.io.BufferedWriter;
@@ -34,8 +44,12 @@ import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.AbstractProcessor;
@@ -49,12 +63,15 @@ import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.MirroredTypeException;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 
@@ -72,8 +89,12 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
             "java.util.Collection",
             "java.lang.Iterable"
     );
+    private static final String CODECS = "net.daverix.slingerorm.android.Codecs";
     private TypeElementConverterImpl typeElementConverter;
     private PackageProvider packageProvider;
+    private DatabaseEntityModels models;
+    private final Map<String, RelationMethod> relationMethods = new LinkedHashMap<>();
+    private final Set<String> sqlConstantNames = new HashSet<>();
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -81,6 +102,7 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
 
         typeElementConverter = new TypeElementConverterImpl(processingEnv);
         packageProvider = new PackageProvider();
+        models = new DatabaseEntityModels(typeElementConverter);
     }
 
     @Override
@@ -108,7 +130,7 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
 
         List<StorageMethod> methods = getStorageMethods(entity);
 
-        JavaFileObject jfo = processingEnv.getFiler().createSourceFile(packageName + "." + storageImplName);
+        JavaFileObject jfo = processingEnv.getFiler().createSourceFile(packageName + "." + storageImplName, entity);
         try (BufferedWriter bw = new BufferedWriter(jfo.openWriter())) {
             DatabaseStorageBuilder.builder(bw)
                     .setPackage(packageName)
@@ -122,12 +144,33 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
     private List<StorageMethod> getStorageMethods(TypeElement element) throws InvalidElementException {
         if(element == null) throw new IllegalArgumentException("element is null");
 
+        relationMethods.clear();
+        sqlConstantNames.clear();
         List<StorageMethod> methods = new ArrayList<>();
         for (Element enclosedElement : element.getEnclosedElements()) {
             if (enclosedElement.getKind() == ElementKind.METHOD) {
-                methods.add(createStorageMethod((ExecutableElement) enclosedElement));
+                ExecutableElement methodElement = (ExecutableElement) enclosedElement;
+                if (isAnnotationPresent(methodElement, CreateTables.class)) {
+                    methods.add(createCreateTablesMethod(element, methodElement));
+                } else {
+                    methods.add(createStorageMethod(methodElement));
+                }
             }
         }
+
+        List<CreateTableMethod> createTableMethods = new ArrayList<>();
+        for (StorageMethod method : methods) {
+            if (method instanceof CreateTableMethod) {
+                createTableMethods.add((CreateTableMethod) method);
+            }
+        }
+        for (StorageMethod method : methods) {
+            if (method instanceof CreateTablesMethod) {
+                ((CreateTablesMethod) method).setCreateTableMethods(createTableMethods);
+            }
+        }
+
+        methods.addAll(relationMethods.values());
         return methods;
     }
 
@@ -136,6 +179,10 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
 
         if (isAnnotationPresent(methodElement, Insert.class)) {
             return createInsertMethod(methodElement);
+        } else if (isAnnotationPresent(methodElement, BulkInsert.class)) {
+            return createBulkInsertMethod(methodElement);
+        } else if (isAnnotationPresent(methodElement, Upsert.class)) {
+            return createUpsertMethod(methodElement);
         } else if (isAnnotationPresent(methodElement, Replace.class)) {
             return createReplaceMethod(methodElement);
         } else if (isAnnotationPresent(methodElement, Update.class)) {
@@ -144,10 +191,12 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
             return createDeleteMethod(methodElement);
         } else if (isAnnotationPresent(methodElement, Select.class)) {
             return createSelectMethod(methodElement);
+        } else if (isAnnotationPresent(methodElement, Query.class)) {
+            return createQueryMethod(methodElement);
         } else if(isAnnotationPresent(methodElement, CreateTable.class)) {
             return createCreateTableMethod(methodElement);
         } else {
-            throw new InvalidElementException("Method " + methodElement.getSimpleName() + " must be annotated with either @CreateTable, @Insert, @Replace, @Update, @Delete or @Select", methodElement);
+            throw new InvalidElementException("Method " + methodElement.getSimpleName() + " must be annotated with either @CreateTable, @CreateTables, @Insert, @BulkInsert, @Upsert, @Replace, @Update, @Delete, @Select or @Query", methodElement);
         }
     }
 
@@ -167,7 +216,29 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
         TypeElement databaseEntity = getCreateTableDatabaseEntity(createTable);
         MapperDescription mapperDescription = getMapperDescription(databaseEntity);
 
-        return new CreateTableMethod(methodElement.getSimpleName().toString(), mapperDescription);
+        DatabaseEntityModel model = models.getModel(databaseEntity);
+        List<String> fullTextSql = model.createFullTextSql();
+        if (fullTextSql.isEmpty()) {
+            return new CreateTableMethod(methodElement.getSimpleName().toString(), mapperDescription,
+                    Collections.singletonList(model.getTableName()), fullTextSql, null, null,
+                    model.getSchemaHash());
+        }
+
+        return new CreateTableMethod(methodElement.getSimpleName().toString(), mapperDescription,
+                Arrays.asList(model.getTableName(), model.getFullTextTableName()), fullTextSql,
+                model.getFullTextCountSql(), model.getFullTextRebuildSql(), model.getSchemaHash());
+    }
+
+    private StorageMethod createCreateTablesMethod(TypeElement storageElement, ExecutableElement methodElement) throws InvalidElementException {
+        if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
+
+        checkUniqueAnnotations(CreateTables.class, methodElement);
+        checkHasVoidReturnType(methodElement);
+        if (!methodElement.getParameters().isEmpty())
+            throw new InvalidElementException("@CreateTables methods can't have parameters", methodElement);
+
+        return new CreateTablesMethod(methodElement.getSimpleName().toString(),
+                storageElement.getQualifiedName().toString());
     }
 
     private StorageMethod createSelectMethod(ExecutableElement methodElement) throws InvalidElementException {
@@ -182,6 +253,14 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
         String orderBy = orderByAnnotation != null ? orderByAnnotation.value() : null;
         String limit = limitAnnotation != null ? limitAnnotation.value() : null;
 
+        Match matchAnnotation = methodElement.getAnnotation(Match.class);
+        if (matchAnnotation != null) {
+            if (isAnnotationPresent(methodElement, Join.class))
+                throw new InvalidElementException("@Match can't be used together with @Join", methodElement);
+
+            where = addMatchCondition(methodElement, matchAnnotation, where);
+        }
+
         int sqlArguments = getSqliteArgumentCount(where);
 
         TypeMirror returnType = methodElement.getReturnType();
@@ -197,19 +276,28 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
                     sqlArguments, methodSqlParams), methodElement);
         }
 
-        List<String> parameterGetters = getWhereArgs(parameters);
         String parameterText = getParameterText(parameters);
 
+        if (isAnnotationPresent(methodElement, Join.class)) {
+            return createJoinSelectMethod(methodElement, (DeclaredType) returnType, parameterText,
+                    where, getWhereArgs(parameters), orderBy, limit);
+        }
+
         TypeElement returnTypeElement = (TypeElement) ((DeclaredType) returnType).asElement();
         if(returnTypeElement.getAnnotation(DatabaseEntity.class) != null) {
             MapperDescription mapperDescription = getMapperDescription(returnTypeElement);
+            DatabaseEntityModel model = models.getModel(returnTypeElement);
+            String sql = createSelectSql(String.join(", ", model.getFieldNames()),
+                    model.getTableName(), where, orderBy, "1");
 
             return new SelectSingleMethod(methodElement.getSimpleName().toString(),
                     returnTypeElement.getSimpleName().toString(),
                     parameterText,
-                    where,
-                    parameterGetters,
-                    mapperDescription);
+                    getSqlConstantName(methodElement),
+                    sql,
+                    getWhereArgs(parameters, where, model, mapperDescription),
+                    mapperDescription,
+                    getRelationMethodNames(returnTypeElement));
         }
         else if(SUPPORTED_RETURN_TYPES_FOR_SELECT.contains(returnTypeElement.getQualifiedName().toString())) {
             TypeMirror typeMirror = ((DeclaredType) returnType).getTypeArguments().get(0);
@@ -217,31 +305,391 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
             String returnTypeName = databaseEntityElement.getSimpleName().toString();
 
             MapperDescription mapperDescription = getMapperDescription(databaseEntityElement);
+            DatabaseEntityModel model = models.getModel(databaseEntityElement);
+            String sql = createSelectSql(String.join(", ", model.getFieldNames()),
+                    model.getTableName(), where, orderBy, limit);
 
             return new SelectMultipleMethod(methodElement.getSimpleName().toString(),
                     returnTypeElement.getSimpleName() + "<" + returnTypeName + ">",
                     parameterText,
-                    where,
-                    parameterGetters,
-                    orderBy,
-                    limit,
-                    mapperDescription);
+                    getSqlConstantName(methodElement),
+                    sql,
+                    getWhereArgs(parameters, where, model, mapperDescription),
+                    mapperDescription,
+                    getRelationMethodNames(databaseEntityElement));
         }
         else {
             throw new InvalidElementException("Method " + methodElement.getSimpleName() + " must return a type annotated with @DatabaseEntity or a list of a type annotated with @DatabaseEntity", methodElement);
         }
     }
 
-    private List<String> getWhereArgs(List<? extends VariableElement> parameters) {
+    /**
+     * Limits where to the rows whose full text index matches, the text to match is bound to the
+     * last question mark.
+     */
+    private String addMatchCondition(ExecutableElement methodElement, Match match, String where) throws InvalidElementException {
+        TypeMirror returnType = methodElement.getReturnType();
+        if (returnType.getKind() == TypeKind.DECLARED &&
+                SUPPORTED_RETURN_TYPES_FOR_SELECT.contains(((TypeElement) ((DeclaredType) returnType).asElement()).getQualifiedName().toString())) {
+            returnType = ((DeclaredType) returnType).getTypeArguments().get(0);
+        }
+        if (returnType.getKind() != TypeKind.DECLARED ||
+                ((DeclaredType) returnType).asElement().getAnnotation(DatabaseEntity.class) == null)
+            throw new InvalidElementException("Method " + methodElement.getSimpleName() + " must return a type annotated with @DatabaseEntity or a list of a type annotated with @DatabaseEntity", methodElement);
+
+        TypeElement entity = (TypeElement) ((DeclaredType) returnType).asElement();
+        DatabaseEntityModel model = models.getModel(entity);
+        List<String> columns = model.getFullTextColumns();
+        if (columns.isEmpty())
+            throw new InvalidElementException("@Match requires a field annotated with @FullText in " + entity.getSimpleName(), methodElement);
+
+        String ftsTableName = model.getFullTextTableName();
+        String column = match.value().isEmpty() ? ftsTableName : match.value();
+        if (!column.equals(ftsTableName) && !columns.contains(column))
+            throw new InvalidElementException(column + " isn't a column annotated with @FullText in " + entity.getSimpleName(), methodElement);
+
+        String condition = "rowid IN (SELECT docid FROM " + ftsTableName + " WHERE " + column + " MATCH ?)";
+        if (where == null || where.isEmpty()) return condition;
+
+        return "(" + where + ") AND " + condition;
+    }
+
+    private StorageMethod createJoinSelectMethod(ExecutableElement methodElement,
+                                                 DeclaredType returnType,
+                                                 String parameterText,
+                                                 String where,
+                                                 List<String> parameterGetters,
+                                                 String orderBy,
+                                                 String limit) throws InvalidElementException {
+        TypeElement returnTypeElement = (TypeElement) returnType.asElement();
+        boolean returnsList = SUPPORTED_RETURN_TYPES_FOR_SELECT.contains(returnTypeElement.getQualifiedName().toString());
+        TypeElement containerElement = returnTypeElement;
+        if (returnsList) {
+            TypeMirror typeArgument = returnType.getTypeArguments().get(0);
+            if (typeArgument.getKind() != TypeKind.DECLARED)
+                throw new InvalidElementException("Method " + methodElement.getSimpleName() + " must return a list of a class with the joined entities", methodElement);
+
+            containerElement = (TypeElement) ((DeclaredType) typeArgument).asElement();
+        }
+        String containerName = containerElement.getSimpleName().toString();
+
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(containerElement.getEnclosedElements())) {
+            if (!field.getModifiers().contains(Modifier.STATIC)) {
+                fields.add(field);
+            }
+        }
+        if (fields.size() < 2)
+            throw new InvalidElementException(containerName + " must have a field for each joined entity", methodElement);
+
+        String[] conditions = methodElement.getAnnotation(Join.class).value();
+        if (conditions.length != fields.size() - 1)
+            throw new InvalidElementException(String.format(Locale.ENGLISH,
+                    "@Join has %d conditions, %s joins %d entities and needs %d",
+                    conditions.length, containerName, fields.size(), fields.size() - 1), methodElement);
+
+        StringBuilder from = new StringBuilder();
+        List<String> columns = new ArrayList<>();
+        List<JoinSelectMethod.JoinedEntity> entities = new ArrayList<>();
+        int offset = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            TypeMirror fieldType = field.asType();
+            if (fieldType.getKind() != TypeKind.DECLARED ||
+                    ((DeclaredType) fieldType).asElement().getAnnotation(DatabaseEntity.class) == null)
+                throw new InvalidElementException(field.getSimpleName() + " in " + containerName + " must be a type annotated with @DatabaseEntity", field);
+
+            TypeElement entity = (TypeElement) ((DeclaredType) fieldType).asElement();
+            DatabaseEntityModel model = models.getModel(entity);
+            String alias = "t" + i;
+            if (i > 0) from.append(" INNER JOIN ");
+            from.append(model.getTableName()).append(" ").append(alias);
+            if (i > 0) from.append(" ON ").append(conditions[i - 1]);
+
+            String[] fieldNames = model.getFieldNames();
+            for (String fieldName : fieldNames) {
+                columns.add(alias + "." + fieldName + " AS " + alias + "_" + fieldName);
+            }
+            entities.add(createJoinedEntity(containerElement, field, getMapperDescription(entity), offset));
+            offset += fieldNames.length;
+        }
+
+        return new JoinSelectMethod(methodElement.getSimpleName().toString(),
+                containerName,
+                containerElement.getQualifiedName().toString(),
+                returnsList,
+                returnsList ? returnTypeElement.getSimpleName() + "<" + containerName + ">" : containerName,
+                parameterText,
+                getSqlConstantName(methodElement),
+                createSelectSql(String.join(", ", columns), from.toString(), where, orderBy,
+                        returnsList ? limit : "1"),
+                parameterGetters,
+                entities);
+    }
+
+    private JoinSelectMethod.JoinedEntity createJoinedEntity(TypeElement containerElement,
+                                                             VariableElement field,
+                                                             MapperDescription mapperDescription,
+                                                             int offset) throws InvalidElementException {
+        String fieldName = field.getSimpleName().toString();
+        String setterName = "set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+        for (ExecutableElement method : ElementFilter.methodsIn(containerElement.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(setterName) && method.getParameters().size() == 1 &&
+                    ElementUtils.isAccessible(method)) {
+                return new JoinSelectMethod.JoinedEntity(mapperDescription, offset, "item." + setterName + "(", ")");
+            }
+        }
+
+        if (!ElementUtils.isAccessible(field))
+            throw new InvalidElementException("No set method or a public field for " + fieldName + " in " + containerElement.getSimpleName(), field);
+
+        return new JoinSelectMethod.JoinedEntity(mapperDescription, offset, "item." + fieldName + " = ", "");
+    }
+
+    private StorageMethod createQueryMethod(ExecutableElement methodElement) throws InvalidElementException {
+        if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
+
+        checkUniqueAnnotations(Query.class, methodElement);
+        for (Class<? extends Annotation> annotationClass : Arrays.asList(Where.class, OrderBy.class, Limit.class, Join.class)) {
+            if (isAnnotationPresent(methodElement, annotationClass))
+                throw new InvalidElementException("@" + annotationClass.getSimpleName() + " can't be used together with @Query, write it in the statement instead", methodElement);
+        }
+
+        String sql = methodElement.getAnnotation(Query.class).value();
+        List<String> columnNames;
+        try {
+            columnNames = ResultColumns.parse(sql);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidElementException(e.getMessage(), methodElement);
+        }
+
+        List<? extends VariableElement> parameters = methodElement.getParameters();
+        int sqlArguments = getSqliteArgumentCount(sql);
+        if(sqlArguments != parameters.size()) {
+            throw new InvalidElementException(String.format(Locale.ENGLISH,
+                    "the query has %d arguments, the method contains %d",
+                    sqlArguments, parameters.size()), methodElement);
+        }
+
+        TypeMirror returnType = methodElement.getReturnType();
+        if(returnType.getKind() != TypeKind.DECLARED)
+            throw new InvalidElementException("Method " + methodElement.getSimpleName() + " must return a class or a list of a class", methodElement);
+
+        TypeElement returnTypeElement = (TypeElement) ((DeclaredType) returnType).asElement();
+        boolean returnsList = SUPPORTED_RETURN_TYPES_FOR_SELECT.contains(returnTypeElement.getQualifiedName().toString());
+        TypeElement itemElement = returnTypeElement;
+        if (returnsList) {
+            TypeMirror typeArgument = ((DeclaredType) returnType).getTypeArguments().get(0);
+            if (typeArgument.getKind() != TypeKind.DECLARED)
+                throw new InvalidElementException("Method " + methodElement.getSimpleName() + " must return a list of a class", methodElement);
+
+            itemElement = (TypeElement) ((DeclaredType) typeArgument).asElement();
+        }
+        String itemName = itemElement.getSimpleName().toString();
+
+        MapperDescription mapperDescription = null;
+        List<String> setters = new ArrayList<>();
+        List<String> relationMethodNames = new ArrayList<>();
+        if (itemElement.getAnnotation(DatabaseEntity.class) != null) {
+            List<String> fieldNames = Arrays.asList(models.getModel(itemElement).getFieldNames());
+            if (!String.join(",", fieldNames).equalsIgnoreCase(String.join(",", columnNames)))
+                throw new InvalidElementException(String.format(Locale.ENGLISH,
+                        "the query selects %s, %s is mapped by position and needs %s",
+                        String.join(", ", columnNames), itemName, String.join(", ", fieldNames)), methodElement);
+
+            mapperDescription = getMapperDescription(itemElement);
+            relationMethodNames = getRelationMethodNames(itemElement);
+        } else {
+            for (int i = 0; i < columnNames.size(); i++) {
+                setters.add(getProjectionSetter(methodElement, itemElement, columnNames.get(i), i));
+            }
+        }
+
+        return new QueryMethod(methodElement.getSimpleName().toString(),
+                itemName,
+                itemElement.getQualifiedName().toString(),
+                returnsList,
+                returnsList ? returnTypeElement.getSimpleName() + "<" + itemName + ">" : itemName,
+                getParameterText(parameters),
+                getSqlConstantName(methodElement),
+                sql,
+                getWhereArgs(parameters),
+                mapperDescription,
+                setters,
+                relationMethodNames);
+    }
+
+    /**
+     * @return a statement setting the column at index on the field of item with the same name
+     */
+    private String getProjectionSetter(ExecutableElement methodElement,
+                                       TypeElement itemElement,
+                                       String columnName,
+                                       int index) throws InvalidElementException {
+        for (VariableElement field : ElementFilter.fieldsIn(itemElement.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) continue;
+
+            FieldName fieldNameAnnotation = field.getAnnotation(FieldName.class);
+            String name = fieldNameAnnotation != null ? fieldNameAnnotation.value() : field.getSimpleName().toString();
+            if (!name.equalsIgnoreCase(columnName)) continue;
+
+            String value = getCursorValue(field, index);
+            String fieldName = field.getSimpleName().toString();
+            String setterName = "set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+            for (ExecutableElement method : ElementFilter.methodsIn(itemElement.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(setterName) && method.getParameters().size() == 1 &&
+                        ElementUtils.isAccessible(method)) {
+                    return "item." + setterName + "(" + value + ")";
+                }
+            }
+
+            if (!ElementUtils.isAccessible(field))
+                throw new InvalidElementException("No set method or a public field for " + fieldName + " in " + itemElement.getSimpleName(), field);
+
+            return "item." + fieldName + " = " + value;
+        }
+
+        throw new InvalidElementException("the query selects " + columnName + " but " + itemElement.getSimpleName() + " has no field for it", methodElement);
+    }
+
+    private String getCursorValue(VariableElement field, int index) throws InvalidElementException {
+        TypeMirror type = field.asType();
+        switch (type.getKind()) {
+            case INT:
+                return "cursor.getInt(" + index + ")";
+            case SHORT:
+                return "cursor.getShort(" + index + ")";
+            case LONG:
+                return "cursor.getLong(" + index + ")";
+            case FLOAT:
+                return "cursor.getFloat(" + index + ")";
+            case DOUBLE:
+                return "cursor.getDouble(" + index + ")";
+            case BOOLEAN:
+                return "cursor.getShort(" + index + ") == 1";
+            case ARRAY:
+                if (((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE)
+                    return "cursor.getBlob(" + index + ")";
+                break;
+            case DECLARED:
+                String typeName = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                String nullCheck = "cursor.isNull(" + index + ") ? null : ";
+                switch (typeName) {
+                    case ElementUtils.TYPE_STRING:
+                        return "cursor.getString(" + index + ")";
+                    case "java.lang.Integer":
+                        return nullCheck + "cursor.getInt(" + index + ")";
+                    case "java.lang.Short":
+                        return nullCheck + "cursor.getShort(" + index + ")";
+                    case "java.lang.Long":
+                        return nullCheck + "cursor.getLong(" + index + ")";
+                    case "java.lang.Float":
+                        return nullCheck + "cursor.getFloat(" + index + ")";
+                    case "java.lang.Double":
+                        return nullCheck + "cursor.getDouble(" + index + ")";
+                    case "java.lang.Boolean":
+                        return nullCheck + "cursor.getShort(" + index + ") == 1";
+                }
+                break;
+        }
+        throw new InvalidElementException("the type of " + field.getSimpleName() + " can't be read from a query, use String, byte[] or a number or boolean type", field);
+    }
+
+    /**
+     * Creates the methods that load the relations of entity unless the storage already has them.
+     * @return the names of the methods
+     */
+    private List<String> getRelationMethodNames(TypeElement entity) throws InvalidElementException {
+        List<String> methodNames = new ArrayList<>();
+        for (RelationType relation : models.getModel(entity).getRelations(models)) {
+            String fieldName = relation.getFieldName();
+            String methodName = "load" + entity.getSimpleName() +
+                    fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+            if (!relationMethods.containsKey(methodName)) {
+                DatabaseEntityModel childModel = models.getModel(relation.getChildType());
+                String sql = "SELECT " + String.join(", ", childModel.getFieldNames()) +
+                        " FROM " + childModel.getTableName() +
+                        " WHERE " + relation.getChildColumn() + " IN (";
+                relationMethods.put(methodName, new RelationMethod(methodName,
+                        getSqlConstantName(methodName),
+                        sql,
+                        entity.getSimpleName().toString(),
+                        entity.getQualifiedName().toString(),
+                        relation,
+                        getMapperDescription(relation.getChildType())));
+            }
+            methodNames.add(methodName);
+        }
+        return methodNames;
+    }
+
+    /**
+     * Builds the same statement as SQLiteQueryBuilder but when the storage is generated instead of
+     * on every call.
+     */
+    private static String createSelectSql(String columns, String from, String where, String orderBy, String limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM ").append(from);
+        if (where != null && !where.isEmpty()) sql.append(" WHERE ").append(where);
+        if (orderBy != null && !orderBy.isEmpty()) sql.append(" ORDER BY ").append(orderBy);
+        if (limit != null && !limit.isEmpty()) sql.append(" LIMIT ").append(limit);
+        return sql.toString();
+    }
+
+    private String getSqlConstantName(ExecutableElement methodElement) {
+        return getSqlConstantName(methodElement.getSimpleName().toString());
+    }
+
+    /**
+     * @return a name like SQL_GET_ALL for getAll, with a number added for overloaded methods
+     */
+    private String getSqlConstantName(String methodName) {
+        String name = "SQL_" + methodName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ENGLISH);
+        String uniqueName = name;
+        for (int i = 2; !sqlConstantNames.add(uniqueName); i++) {
+            uniqueName = name + "_" + i;
+        }
+        return uniqueName;
+    }
+
+    private List<String> getWhereArgs(List<? extends VariableElement> parameters) throws InvalidElementException {
+        return getWhereArgs(parameters, null, null, null);
+    }
+
+    /**
+     * @param sql the statement the arguments are bound to
+     * @param model the entity of the table in sql or null, arguments compared with a column of a
+     * field that the mapper converts are converted by mapperDescription the same way
+     */
+    private List<String> getWhereArgs(List<? extends VariableElement> parameters,
+                                      String sql,
+                                      DatabaseEntityModel model,
+                                      MapperDescription mapperDescription) throws InvalidElementException {
+        List<String> columns = getComparedColumns(sql);
         List<String> whereArgs = new ArrayList<>();
         for(int i=0;i<parameters.size();i++) {
             VariableElement parameter = parameters.get(i);
-            if(ElementUtils.isString(parameter)) {
+            String column = getColumn(parameter, i < columns.size() ? columns.get(i) : null, model);
+            String storedValue = getStoredValue(parameter, column, model, mapperDescription);
+            if(storedValue != null) {
+                whereArgs.add(storedValue);
+            }
+            else if(ElementUtils.isString(parameter)) {
                 whereArgs.add(parameter.getSimpleName().toString());
             }
             else if(ElementUtils.getTypeKind(parameter) == TypeKind.BOOLEAN) {
                 whereArgs.add(parameter.getSimpleName() + " ? \"1\" : \"0\"");
             }
+            else if(isBoundAsStored(parameter)) {
+                whereArgs.add(parameter.getSimpleName().toString());
+            }
+            else if(isEnum(parameter)) {
+                TypeElement enumElement = (TypeElement) ((DeclaredType) parameter.asType()).asElement();
+                EnumType enumType = DatabaseEntityModel.createEnumType(enumElement);
+                whereArgs.add(enumType.getCodeExpression(parameter.getSimpleName().toString()));
+            }
+            else if(isType(parameter, "java.time.Instant") || isType(parameter, "java.math.BigDecimal")) {
+                whereArgs.add(getConvertedArg(parameter));
+            }
             else {
                 whereArgs.add("String.valueOf(" + parameter.getSimpleName() + ")");
             }
@@ -249,6 +697,130 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
         return whereArgs;
     }
 
+    /**
+     * @return the column each question mark in sql is compared with or assigned to, or null for
+     * question marks that don't follow a column and an operator
+     */
+    private List<String> getComparedColumns(String sql) {
+        if(sql == null) return Collections.emptyList();
+
+        return ComparedColumns.parse(sql);
+    }
+
+    /**
+     * @return column, which is null when the column of a question mark couldn't be found
+     * @throws InvalidElementException if parameter would have to be converted like a field of
+     * model but the column it's compared with couldn't be found
+     */
+    private String getColumn(VariableElement parameter,
+                             String column,
+                             DatabaseEntityModel model) throws InvalidElementException {
+        if(column != null || model == null) return column;
+
+        for(TypeMirror columnType : model.getConvertedColumnTypes().values()) {
+            if(processingEnv.getTypeUtils().isSameType(columnType, parameter.asType())) {
+                throw new InvalidElementException("Parameter " + parameter.getSimpleName() +
+                        " must be compared with a column, like column = ?, so it's converted the same way as the field of the column", parameter);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return an expression converting parameter with the mapper if column is stored by the mapper
+     * from a field of the same type, otherwise null
+     */
+    private String getStoredValue(VariableElement parameter,
+                                  String column,
+                                  DatabaseEntityModel model,
+                                  MapperDescription mapperDescription) throws InvalidElementException {
+        if(column == null || model == null) return null;
+
+        for(Map.Entry<String, TypeMirror> columnType : model.getConvertedColumnTypes().entrySet()) {
+            if(columnType.getKey().equalsIgnoreCase(column) &&
+                    processingEnv.getTypeUtils().isSameType(columnType.getValue(), parameter.asType())) {
+                return mapperDescription.getVariableName() + ".getStoredValue(\"" + columnType.getKey() +
+                        "\", " + parameter.getSimpleName() + ")";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Unlike {@link #getWhereArgs(List)} the arguments keep their types so numbers are bound as
+     * numbers, which matters when they are written to a column instead of compared with one.
+     * @param sql the set and where clauses the arguments are bound to
+     * @param model the entity of the table that is written, arguments assigned to or compared
+     * with a column of a field that the mapper converts are converted by mapperDescription the
+     * same way
+     */
+    private List<String> getBindArgs(List<? extends VariableElement> parameters,
+                                     String sql,
+                                     DatabaseEntityModel model,
+                                     MapperDescription mapperDescription) throws InvalidElementException {
+        List<String> columns = getComparedColumns(sql);
+        List<String> bindArgs = new ArrayList<>();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            String column = getColumn(parameter, i < columns.size() ? columns.get(i) : null, model);
+            String storedValue = getStoredValue(parameter, column, model, mapperDescription);
+            TypeKind typeKind = ElementUtils.getTypeKind(parameter);
+            if(storedValue != null) {
+                bindArgs.add(storedValue);
+            }
+            else if(isEnum(parameter)) {
+                TypeElement enumElement = (TypeElement) ((DeclaredType) parameter.asType()).asElement();
+                EnumType enumType = DatabaseEntityModel.createEnumType(enumElement);
+                bindArgs.add(enumType.getCodeExpression(parameter.getSimpleName().toString()));
+            }
+            else if(typeKind == TypeKind.CHAR) {
+                bindArgs.add("String.valueOf(" + parameter.getSimpleName() + ")");
+            }
+            else if(isType(parameter, "java.time.Instant") || isType(parameter, "java.math.BigDecimal")) {
+                bindArgs.add(getConvertedArg(parameter));
+            }
+            else {
+                bindArgs.add(parameter.getSimpleName().toString());
+            }
+        }
+        return bindArgs;
+    }
+
+    /**
+     * @return an expression converting an Instant to milliseconds or a BigDecimal to what is
+     * stored for a field with the same {@link DecimalScale}
+     */
+    private String getConvertedArg(VariableElement parameter) {
+        String name = parameter.getSimpleName().toString();
+        if(isType(parameter, "java.time.Instant"))
+            return name + " != null ? " + name + ".toEpochMilli() : null";
+
+        DecimalScale decimalScale = parameter.getAnnotation(DecimalScale.class);
+        return CODECS + ".fromBigDecimal(" + name + (decimalScale != null ? ", " + decimalScale.value() : "") + ")";
+    }
+
+    /**
+     * UUID and Date arguments are passed as they are so the database binds them the same way the
+     * mappers store them, a UUID as a BLOB and a Date as milliseconds.
+     */
+    private boolean isBoundAsStored(VariableElement parameter) {
+        if(ElementUtils.getTypeKind(parameter) != TypeKind.DECLARED) return false;
+
+        TypeElement typeElement = (TypeElement) ((DeclaredType) parameter.asType()).asElement();
+        String typeName = typeElement.getQualifiedName().toString();
+        return typeName.equals("java.util.UUID") || typeName.equals("java.util.Date");
+    }
+
+    private boolean isType(VariableElement parameter, String qualifiedName) {
+        return ElementUtils.getTypeKind(parameter) == TypeKind.DECLARED &&
+                ((TypeElement) ((DeclaredType) parameter.asType()).asElement()).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private boolean isEnum(VariableElement parameter) {
+        return ElementUtils.getTypeKind(parameter) == TypeKind.DECLARED &&
+                ((DeclaredType) parameter.asType()).asElement().getKind() == ElementKind.ENUM;
+    }
+
     private int getSqliteArgumentCount(String where) {
         if(where == null) return 0;
 
@@ -294,7 +866,12 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
                 return "boolean";
             case DECLARED:
                 TypeElement typeElement = (TypeElement) ((DeclaredType) element.asType()).asElement();
-                return typeElement.getSimpleName().toString();
+                String qualifiedName = typeElement.getQualifiedName().toString();
+                if(qualifiedName.equals("java.lang." + typeElement.getSimpleName()))
+                    return typeElement.getSimpleName().toString();
+
+                // parameter types aren't imported by the storage class
+                return qualifiedName;
             default:
                 throw new InvalidElementException(typeKind + " is not known, bug?", element);
         }
@@ -311,8 +888,15 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
 
         boolean returnDeleted = returnTypeKind == TypeKind.INT;
 
+        Delete delete = methodElement.getAnnotation(Delete.class);
+        if(delete.chunkSize() < 0)
+            throw new InvalidElementException("chunkSize can't be negative", methodElement);
+
         Where whereAnnotation = methodElement.getAnnotation(Where.class);
         if(whereAnnotation == null) {
+            if(delete.chunkSize() > 0)
+                throw new InvalidElementException("chunkSize in Delete requires a Where annotation", methodElement);
+
             checkFirstParameterMustBeDatabaseEntity(methodElement);
 
             TypeElement databaseEntityElement = getDatabaseEntityElementFromFirstParameter(methodElement);
@@ -325,11 +909,15 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
                     mapperDescription);
         }
 
-        Delete delete = methodElement.getAnnotation(Delete.class);
         TypeElement databaseEntityElement = getDatabaseEntityFromDelete(delete);
         if("java.lang.Object".equals(databaseEntityElement.getQualifiedName().toString()))
             throw new InvalidElementException("Where together with Delete requires the type to delete to be set in Delete annotation", methodElement);
 
+        if(delete.chunkSize() > 0) {
+            return createChunkedWriteMethod(methodElement, databaseEntityElement, delete.chunkSize(),
+                    null, whereAnnotation.value(), returnDeleted);
+        }
+
         MapperDescription mapperDescription = new MapperDescription(databaseEntityElement.getQualifiedName().toString(),
                 databaseEntityElement.getSimpleName().toString(),
                 mapperHasDependencies(databaseEntityElement));
@@ -346,7 +934,8 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
                     sqlArguments, methodSqlParams), methodElement);
         }
 
-        List<String> parameterGetters = getWhereArgs(parameters);
+        List<String> parameterGetters = getWhereArgs(parameters, where,
+                models.getModel(databaseEntityElement), mapperDescription);
         String parameterText = getParameterText(parameters);
 
         return new DeleteWhereMethod(methodElement.getSimpleName().toString(),
@@ -358,16 +947,19 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
     }
 
     private boolean mapperHasDependencies(TypeElement databaseEntityElement) throws InvalidElementException {
-        TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(databaseEntityElement.getQualifiedName() + "Mapper.Builder");
-        return typeElement != null && ElementUtils.getMethodsInTypeElement(typeElement)
-                .stream()
-                .anyMatch(method -> "create".equals(method.getSimpleName().toString()));
+        return !models.getModel(databaseEntityElement).getSerializers().isEmpty();
     }
 
     private StorageMethod createUpdateMethod(ExecutableElement methodElement) throws InvalidElementException {
         if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
 
         checkUniqueAnnotations(Update.class, methodElement);
+        if (isAnnotationPresent(methodElement, net.daverix.slingerorm.storage.Set.class))
+            return createUpdateSetMethod(methodElement);
+
+        if (methodElement.getAnnotation(Update.class).chunkSize() != 0)
+            throw new InvalidElementException("chunkSize in Update requires a Set annotation", methodElement);
+
         checkFirstParameterMustBeDatabaseEntity(methodElement);
 
         TypeElement databaseEntityElement = getDatabaseEntityElementFromFirstParameter(methodElement);
@@ -379,6 +971,120 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
                 mapperDescription);
     }
 
+    private StorageMethod createUpdateSetMethod(ExecutableElement methodElement) throws InvalidElementException {
+        TypeKind returnTypeKind = methodElement.getReturnType().getKind();
+        if(returnTypeKind != TypeKind.INT && returnTypeKind != TypeKind.VOID)
+            throw new InvalidElementException("Only int and void are supported as return types for Update annotated methods with Set", methodElement);
+
+        TypeElement databaseEntityElement = getDatabaseEntityFromUpdate(methodElement.getAnnotation(Update.class));
+        if(databaseEntityElement.getAnnotation(DatabaseEntity.class) == null)
+            throw new InvalidElementException("Set together with Update requires the type to update to be set in Update annotation", methodElement);
+
+        String set = methodElement.getAnnotation(net.daverix.slingerorm.storage.Set.class).value();
+        if (set.trim().isEmpty())
+            throw new InvalidElementException("Set must have at least one assignment", methodElement);
+
+        Where whereAnnotation = methodElement.getAnnotation(Where.class);
+        String where = whereAnnotation != null ? whereAnnotation.value() : null;
+
+        int chunkSize = methodElement.getAnnotation(Update.class).chunkSize();
+        if (chunkSize < 0)
+            throw new InvalidElementException("chunkSize can't be negative", methodElement);
+        if (chunkSize > 0) {
+            return createChunkedWriteMethod(methodElement, databaseEntityElement, chunkSize, set,
+                    where, returnTypeKind == TypeKind.INT);
+        }
+
+        List<? extends VariableElement> parameters = methodElement.getParameters();
+        int sqlArguments = getSqliteArgumentCount(set) + getSqliteArgumentCount(where);
+        if(sqlArguments != parameters.size()) {
+            throw new InvalidElementException(String.format(Locale.ENGLISH,
+                    "the sql set and where arguments have %d arguments, the method contains %d",
+                    sqlArguments, parameters.size()), methodElement);
+        }
+
+        DatabaseEntityModel model = models.getModel(databaseEntityElement);
+        MapperDescription mapperDescription = getMapperDescription(databaseEntityElement);
+        StringBuilder sql = new StringBuilder("UPDATE ")
+                .append(model.getTableName())
+                .append(" SET ").append(set);
+        if (where != null && !where.isEmpty()) sql.append(" WHERE ").append(where);
+
+        return new UpdateSetMethod(methodElement.getSimpleName().toString(),
+                returnTypeKind == TypeKind.INT,
+                getParameterText(parameters),
+                getSqlConstantName(methodElement),
+                sql.toString(),
+                getBindArgs(parameters, sql.toString(), model, mapperDescription),
+                databaseEntityElement.getSimpleName().toString(),
+                databaseEntityElement.getQualifiedName().toString(),
+                mapperDescription);
+    }
+
+    /**
+     * Creates a method that deletes the rows matching where, or updates them with set if it isn't
+     * null, chunkSize rows at a time. The last parameter of the method may be a
+     * {@link ProgressListener}.
+     */
+    private StorageMethod createChunkedWriteMethod(ExecutableElement methodElement,
+                                                   TypeElement databaseEntityElement,
+                                                   int chunkSize,
+                                                   String set,
+                                                   String where,
+                                                   boolean returnCount) throws InvalidElementException {
+        List<? extends VariableElement> parameters = methodElement.getParameters();
+        VariableElement progressListener = getProgressListener(parameters);
+        List<? extends VariableElement> sqlParameters = progressListener != null ?
+                parameters.subList(0, parameters.size() - 1) : parameters;
+
+        int setArguments = getSqliteArgumentCount(set);
+        int sqlArguments = setArguments + getSqliteArgumentCount(where);
+        if(sqlArguments != sqlParameters.size()) {
+            throw new InvalidElementException(String.format(Locale.ENGLISH,
+                    "the sql arguments have %d arguments, the method contains %d besides the ProgressListener",
+                    sqlArguments, sqlParameters.size()), methodElement);
+        }
+
+        String tableName = models.getModel(databaseEntityElement).getTableName();
+        String condition = where != null && !where.isEmpty() ? " AND (" + where + ")" : "";
+        String chunkSql = "SELECT ifnull(max(rowid), ?) FROM (SELECT rowid FROM " + tableName +
+                " WHERE rowid > ?" + condition + " ORDER BY rowid LIMIT " + chunkSize + ")";
+        String range = " WHERE rowid > ? AND rowid <= ?" + condition;
+        String sql = set == null ?
+                "DELETE FROM " + tableName + range :
+                "UPDATE " + tableName + " SET " + set + range;
+
+        MapperDescription mapperDescription = getMapperDescription(databaseEntityElement);
+        String clauses = (set != null ? "SET " + set + " " : "") + "WHERE " + (where != null ? where : "");
+        List<String> bindArgs = getBindArgs(sqlParameters, clauses,
+                models.getModel(databaseEntityElement), mapperDescription);
+        String sqlConstantName = getSqlConstantName(methodElement);
+        return new ChunkedWriteMethod(methodElement.getSimpleName().toString(),
+                returnCount,
+                getParameterText(parameters),
+                sqlConstantName + "_CHUNK",
+                chunkSql,
+                sqlConstantName,
+                sql,
+                bindArgs.subList(0, setArguments),
+                bindArgs.subList(setArguments, bindArgs.size()),
+                progressListener != null ? progressListener.getSimpleName().toString() : null,
+                databaseEntityElement.getSimpleName().toString(),
+                databaseEntityElement.getQualifiedName().toString(),
+                set != null,
+                mapperDescription);
+    }
+
+    private VariableElement getProgressListener(List<? extends VariableElement> parameters) {
+        if (parameters.isEmpty()) return null;
+
+        VariableElement last = parameters.get(parameters.size() - 1);
+        if (last.asType().getKind() != TypeKind.DECLARED) return null;
+
+        TypeElement typeElement = (TypeElement) ((DeclaredType) last.asType()).asElement();
+        return typeElement.getQualifiedName().contentEquals(ProgressListener.class.getName()) ? last : null;
+    }
+
     private StorageMethod createReplaceMethod(ExecutableElement methodElement) throws InvalidElementException {
         if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
 
@@ -400,19 +1106,241 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
         if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
 
         checkUniqueAnnotations(Insert.class, methodElement);
-        checkFirstParameterMustBeDatabaseEntity(methodElement);
         checkHasOneParameter(methodElement);
 
-        TypeElement databaseEntityElement = getDatabaseEntityElementFromFirstParameter(methodElement);
+        TypeElement databaseEntityElement = getDatabaseEntityElementFromEntityOrCollectionParameter(methodElement);
+        String collectionTypeQualifiedName = getCollectionTypeQualifiedName(methodElement.getParameters().get(0));
+        boolean returnRowIds = isInsertReturningRowIds(methodElement, collectionTypeQualifiedName);
         MapperDescription mapperDescription = getMapperDescription(databaseEntityElement);
+        DatabaseEntityModel model = models.getModel(databaseEntityElement);
+        OnConflict onConflict = methodElement.getAnnotation(Insert.class).onConflict();
+
+        String sqlConstantName = null;
+        String sql = null;
+        List<String> bindArgs = new ArrayList<>();
+        if (onConflict != OnConflict.ABORT) {
+            List<String> columns = Arrays.asList(model.getFieldNames());
+            sqlConstantName = getSqlConstantName(methodElement);
+            sql = createInsertSql("INSERT OR " + onConflict.name(), model.getTableName(), columns);
+            bindArgs = getContentValuesGetters(columns);
+
+            // the full text index trigger runs before the conflict is resolved, so a row with the
+            // same primary key must be skipped before inserting or its index entry is lost
+            if (!model.getFullTextColumns().isEmpty()) {
+                if (onConflict == OnConflict.FAIL)
+                    throw new InvalidElementException("FAIL can't be used for entities with @FullText fields, use ABORT instead", methodElement);
+
+                if (onConflict == OnConflict.IGNORE) {
+                    List<String> primaryKeys = model.getPrimaryKeyDbNames();
+                    sql = createInsertIfAbsentSql(model.getTableName(), columns, primaryKeys);
+                    bindArgs.addAll(getContentValuesGetters(primaryKeys));
+                }
+            }
+        }
 
         return new InsertMethod(methodElement.getSimpleName().toString(),
+                getParameterTypeName(methodElement.getParameters().get(0)),
+                collectionTypeQualifiedName,
+                returnRowIds,
                 databaseEntityElement.getSimpleName().toString(),
                 databaseEntityElement.getQualifiedName().toString(),
-                mapperDescription
+                mapperDescription,
+                sqlConstantName,
+                sql,
+                bindArgs,
+                model.getAutoGeneratedKeyDbName(),
+                model.getAutoGeneratedKeyValue()
         );
     }
 
+    /**
+     * Inserts may return void, the rowid as a long or the rowids of a List or Collection as a
+     * long[].
+     */
+    private boolean isInsertReturningRowIds(ExecutableElement methodElement, String collectionTypeQualifiedName) throws InvalidElementException {
+        TypeMirror returnType = methodElement.getReturnType();
+        if (returnType.getKind() == TypeKind.VOID)
+            return false;
+
+        if (collectionTypeQualifiedName == null) {
+            if (returnType.getKind() != TypeKind.LONG)
+                throw new InvalidElementException("Only void and long are supported as return types for Insert annotated methods", methodElement);
+            return true;
+        }
+
+        if (returnType.getKind() != TypeKind.ARRAY ||
+                ((ArrayType) returnType).getComponentType().getKind() != TypeKind.LONG)
+            throw new InvalidElementException("Only void and long[] are supported as return types for Insert annotated methods with a collection", methodElement);
+
+        if (collectionTypeQualifiedName.equals("java.lang.Iterable"))
+            throw new InvalidElementException("long[] can only be returned when inserting a List or Collection", methodElement);
+
+        return true;
+    }
+
+    private StorageMethod createBulkInsertMethod(ExecutableElement methodElement) throws InvalidElementException {
+        if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
+
+        checkUniqueAnnotations(BulkInsert.class, methodElement);
+        checkHasOneParameter(methodElement);
+
+        TypeKind returnTypeKind = methodElement.getReturnType().getKind();
+        if(returnTypeKind != TypeKind.LONG && returnTypeKind != TypeKind.VOID)
+            throw new InvalidElementException("Only long and void are supported as return types for BulkInsert annotated methods", methodElement);
+
+        BulkInsert bulkInsert = methodElement.getAnnotation(BulkInsert.class);
+        if(bulkInsert.chunkSize() < 1)
+            throw new InvalidElementException("chunkSize must be at least 1", methodElement);
+
+        VariableElement parameter = methodElement.getParameters().get(0);
+        TypeMirror parameterType = parameter.asType();
+        if(parameterType.getKind() != TypeKind.DECLARED ||
+                !((TypeElement) ((DeclaredType) parameterType).asElement()).getQualifiedName().contentEquals("java.util.Iterator") ||
+                ((DeclaredType) parameterType).getTypeArguments().size() != 1)
+            throw new InvalidElementException("parameter must be an Iterator of a type annotated with @DatabaseEntity", parameter);
+
+        TypeMirror entityType = ((DeclaredType) parameterType).getTypeArguments().get(0);
+        if(entityType.getKind() != TypeKind.DECLARED ||
+                ((DeclaredType) entityType).asElement().getAnnotation(DatabaseEntity.class) == null)
+            throw new InvalidElementException("parameter must be an Iterator of a type annotated with @DatabaseEntity", parameter);
+
+        TypeElement databaseEntityElement = (TypeElement) ((DeclaredType) entityType).asElement();
+        return new BulkInsertMethod(methodElement.getSimpleName().toString(),
+                returnTypeKind == TypeKind.LONG,
+                databaseEntityElement.getSimpleName().toString(),
+                databaseEntityElement.getQualifiedName().toString(),
+                bulkInsert.chunkSize(),
+                bulkInsert.sortByPrimaryKey(),
+                bulkInsert.relaxDurability(),
+                getMapperDescription(databaseEntityElement));
+    }
+
+    private StorageMethod createUpsertMethod(ExecutableElement methodElement) throws InvalidElementException {
+        if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
+
+        checkUniqueAnnotations(Upsert.class, methodElement);
+        checkHasVoidReturnType(methodElement);
+        checkHasOneParameter(methodElement);
+
+        TypeElement databaseEntityElement = getDatabaseEntityElementFromEntityOrCollectionParameter(methodElement);
+        MapperDescription mapperDescription = getMapperDescription(databaseEntityElement);
+        DatabaseEntityModel model = models.getModel(databaseEntityElement);
+
+        List<String> columns = Arrays.asList(model.getFieldNames());
+        List<String> primaryKeys = model.getPrimaryKeyDbNames();
+        List<String> updatedColumns = new ArrayList<>(columns);
+        updatedColumns.removeAll(primaryKeys);
+
+        String sqlConstantName = getSqlConstantName(methodElement);
+        String updateSql = null;
+        List<String> updateBindArgs = new ArrayList<>();
+        String insertAlgorithm = "INSERT OR IGNORE";
+        if (!updatedColumns.isEmpty()) {
+            StringBuilder sql = new StringBuilder("UPDATE ").append(model.getTableName()).append(" SET ");
+            for (int i = 0; i < updatedColumns.size(); i++) {
+                if (i > 0) sql.append(", ");
+                sql.append(updatedColumns.get(i)).append(" = ?");
+            }
+            sql.append(" WHERE ");
+            for (int i = 0; i < primaryKeys.size(); i++) {
+                if (i > 0) sql.append(" AND ");
+                sql.append(primaryKeys.get(i)).append(" = ?");
+            }
+            updateSql = sql.toString();
+            updateBindArgs.addAll(getContentValuesGetters(updatedColumns));
+            updateBindArgs.addAll(getContentValuesGetters(primaryKeys));
+            insertAlgorithm = "INSERT";
+        }
+
+        return new UpsertMethod(methodElement.getSimpleName().toString(),
+                getParameterTypeName(methodElement.getParameters().get(0)),
+                getCollectionTypeQualifiedName(methodElement.getParameters().get(0)),
+                databaseEntityElement.getSimpleName().toString(),
+                databaseEntityElement.getQualifiedName().toString(),
+                mapperDescription,
+                sqlConstantName + "_UPDATE",
+                updateSql,
+                updateBindArgs,
+                sqlConstantName + "_INSERT",
+                createInsertSql(insertAlgorithm, model.getTableName(), columns),
+                getContentValuesGetters(columns),
+                model.getAutoGeneratedKeyDbName(),
+                model.getAutoGeneratedKeyValue());
+    }
+
+    private static String createInsertSql(String insert, String tableName, List<String> columns) {
+        StringBuilder sql = new StringBuilder(insert).append(" INTO ").append(tableName).append("(")
+                .append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("?");
+        }
+        return sql.append(")").toString();
+    }
+
+    private static String createInsertIfAbsentSql(String tableName, List<String> columns, List<String> primaryKeys) {
+        StringBuilder sql = new StringBuilder("INSERT OR IGNORE INTO ").append(tableName).append("(")
+                .append(String.join(", ", columns)).append(") SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("?");
+        }
+        sql.append(" WHERE NOT EXISTS (SELECT 1 FROM ").append(tableName).append(" WHERE ");
+        for (int i = 0; i < primaryKeys.size(); i++) {
+            if (i > 0) sql.append(" AND ");
+            sql.append(primaryKeys.get(i)).append(" = ?");
+        }
+        return sql.append(")").toString();
+    }
+
+    private static List<String> getContentValuesGetters(List<String> columns) {
+        List<String> getters = new ArrayList<>();
+        for (String column : columns) {
+            getters.add("values.get(\"" + column + "\")");
+        }
+        return getters;
+    }
+
+    /**
+     * Finds the entity of a method that takes either an entity or a List, Collection or Iterable of
+     * an entity.
+     */
+    private TypeElement getDatabaseEntityElementFromEntityOrCollectionParameter(ExecutableElement methodElement) throws InvalidElementException {
+        VariableElement parameter = methodElement.getParameters().get(0);
+        TypeMirror type = parameter.asType();
+        if (isCollectionParameter(parameter)) {
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+            if (typeArguments.size() != 1)
+                throw new InvalidElementException("parameter must be a collection of a type annotated with @DatabaseEntity", parameter);
+            type = typeArguments.get(0);
+        }
+
+        if (type.getKind() != TypeKind.DECLARED ||
+                ((DeclaredType) type).asElement().getAnnotation(DatabaseEntity.class) == null)
+            throw new InvalidElementException("parameter must be a type annotated with @DatabaseEntity or a List, Collection or Iterable of it", parameter);
+
+        return (TypeElement) ((DeclaredType) type).asElement();
+    }
+
+    private boolean isCollectionParameter(VariableElement parameter) {
+        return getCollectionTypeQualifiedName(parameter) != null;
+    }
+
+    private String getCollectionTypeQualifiedName(VariableElement parameter) {
+        TypeMirror type = parameter.asType();
+        if (type.getKind() != TypeKind.DECLARED) return null;
+
+        String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        return SUPPORTED_RETURN_TYPES_FOR_SELECT.contains(name) ? name : null;
+    }
+
+    private String getParameterTypeName(VariableElement parameter) {
+        DeclaredType type = (DeclaredType) parameter.asType();
+        String name = type.asElement().getSimpleName().toString();
+        if (!isCollectionParameter(parameter)) return name;
+
+        return name + "<" + ((DeclaredType) type.getTypeArguments().get(0)).asElement().getSimpleName() + ">";
+    }
 
     private TypeElement getDatabaseEntityElementFromFirstParameter(ExecutableElement methodElement) {
         if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
@@ -457,11 +1385,15 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
         if(methodElement == null) throw new IllegalArgumentException("methodElement is null");
 
         checkUniqueAnnotation(annotationClass, Inject.class, methodElement);
+        checkUniqueAnnotation(annotationClass, BulkInsert.class, methodElement);
+        checkUniqueAnnotation(annotationClass, Upsert.class, methodElement);
         checkUniqueAnnotation(annotationClass, Replace.class, methodElement);
         checkUniqueAnnotation(annotationClass, Update.class, methodElement);
         checkUniqueAnnotation(annotationClass, Delete.class, methodElement);
         checkUniqueAnnotation(annotationClass, Select.class, methodElement);
+        checkUniqueAnnotation(annotationClass, Query.class, methodElement);
         checkUniqueAnnotation(annotationClass, CreateTable.class, methodElement);
+        checkUniqueAnnotation(annotationClass, CreateTables.class, methodElement);
     }
 
     private void checkUniqueAnnotation(Class<? extends Annotation> annotationClass,
@@ -495,6 +1427,17 @@ public class DatabaseStorageProcessor extends AbstractProcessor {
         }
     }
 
+    private TypeElement getDatabaseEntityFromUpdate(Update update) {
+        if(update == null) throw new IllegalArgumentException("update is null");
+
+        try {
+            update.value();
+            throw new IllegalStateException("should never reach this line (this is a hack)");
+        } catch (MirroredTypeException mte) {
+            return typeElementConverter.asTypeElement(mte.getTypeMirror());
+        }
+    }
+
     private TypeElement getCreateTableDatabaseEntity(CreateTable createTable) {
         if(createTable == null) throw new IllegalArgumentException("createTable is null");
 
@@ -18,8 +18,8 @@ package net.daverix.slingerorm.compiler;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 
 class DeleteMethod implements StorageMethod {
     private final String methodName;
@@ -51,16 +51,25 @@ class DeleteMethod implements StorageMethod {
         writer.write("        if (item == null) throw new IllegalArgumentException(\"item is null\");\n");
         writer.write("\n");
 
-        writer.write("        " + (returnDeleted ? "return " : "") +  "db.delete(" + mapperDescription.getVariableName() + ".getTableName(),\n");
-        writer.write("                " + mapperDescription.getVariableName() + ".getItemQuery(),\n");
-        writer.write("                " + mapperDescription.getVariableName() + ".getItemQueryArguments(item));\n");
+        String mapper = mapperDescription.getVariableName();
+        writer.write("        int deleted = db.delete(" + mapper + ".getTableName(),\n");
+        writer.write("                " + mapper + ".getItemQuery(),\n");
+        writer.write("                " + mapper + ".getItemQueryBindArgs(item));\n");
+        writer.write("        ChangeTracker<" + databaseEntityTypeName + "> changeTracker = " + mapper + ".getChangeTracker();\n");
+        writer.write("        if (changeTracker != null) changeTracker.forget(item);\n");
+        if (returnDeleted) {
+            writer.write("        return deleted;\n");
+        }
         writer.write("    }\n");
         writer.write("\n");
     }
 
     @Override
     public Collection<String> getImports() {
-        return Collections.singletonList(databaseEntityTypeQualifiedName);
+        return Arrays.asList(
+                "net.daverix.slingerorm.android.ChangeTracker",
+                databaseEntityTypeQualifiedName
+        );
     }
 
     @Override
@@ -71,7 +71,7 @@ class DeleteWhereMethod implements StorageMethod {
     private String createArguments() {
         if(whereArgs == null || whereArgs.isEmpty()) return "null";
 
-        return "new String[]{" + String.join(", ", whereArgs) +  "}";
+        return "new Object[]{" + String.join(", ", whereArgs) +  "}";
     }
 
     @Override
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.util.List;
+
+/**
+ * A field annotated with {@link net.daverix.slingerorm.entity.Embedded}. The mapper gets a method
+ * with the given name that creates the embedded object from the cursor and an overload of it that
+ * reads the columns by position.
+ */
+class EmbeddedType {
+    private final String methodName;
+    private final String typeName;
+    private final String[] columnNames;
+    private final List<FieldMethod> setters;
+    private final List<FieldMethod> positionalSetters;
+
+    EmbeddedType(String methodName, String typeName, String[] columnNames, List<FieldMethod> setters,
+                 List<FieldMethod> positionalSetters) {
+        this.methodName = methodName;
+        this.typeName = typeName;
+        this.columnNames = columnNames;
+        this.setters = setters;
+        this.positionalSetters = positionalSetters;
+    }
+
+    String getMethodName() {
+        return methodName;
+    }
+
+    String getTypeName() {
+        return typeName;
+    }
+
+    String[] getColumnNames() {
+        return columnNames;
+    }
+
+    List<FieldMethod> getSetters() {
+        return setters;
+    }
+
+    List<FieldMethod> getPositionalSetters() {
+        return positionalSetters;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.util.List;
+
+/**
+ * An enum used by a field in a database entity. The constants are in ordinal order, codes is null
+ * when the enum is stored by ordinal.
+ */
+class EnumType {
+    private final String name;
+    private final String qualifiedName;
+    private final List<String> constants;
+    private final List<Integer> codes;
+
+    EnumType(String name, String qualifiedName, List<String> constants, List<Integer> codes) {
+        this.name = name;
+        this.qualifiedName = qualifiedName;
+        this.constants = constants;
+        this.codes = codes;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    List<String> getConstants() {
+        return constants;
+    }
+
+    boolean hasCodes() {
+        return codes != null;
+    }
+
+    List<Integer> getCodes() {
+        return codes;
+    }
+
+    /**
+     * @return an expression that converts the enum value in variable to the stored integer
+     * without using the helpers in the mapper
+     */
+    String getCodeExpression(String variable) {
+        if (codes == null)
+            return "(" + variable + " != null ? " + variable + ".ordinal() : null)";
+
+        StringBuilder builder = new StringBuilder("(").append(variable).append(" == null ? null : ");
+        for (int i = 0; i < constants.size() - 1; i++) {
+            builder.append(variable).append(" == ").append(qualifiedName).append(".")
+                    .append(constants.get(i)).append(" ? ").append(codes.get(i)).append(" : ");
+        }
+        return builder.append(codes.get(constants.size() - 1)).append(")").toString();
+    }
+
+    /**
+     * @return name of the static array in the mapper, i.e COLOR_VALUES for Color
+     */
+    String getArrayName(String suffix) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase() + "_" + suffix;
+    }
+}
@@ -18,40 +18,140 @@ package net.daverix.slingerorm.compiler;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
+/**
+ * Inserts an entity, or every entity of a collection in one transaction. The mapped values are
+ * inserted with {@code Database.insert} unless a conflict algorithm is set, the values are then
+ * bound in column order to an INSERT OR statement that the database keeps compiled. The rowid of
+ * each insert is returned if the method returns long or long[] and set as the primary key of
+ * entities whose key is generated by the database.
+ */
 class InsertMethod implements StorageMethod {
     private final String methodName;
-    private String databaseEntityTypeName;
+    private final String parameterTypeName;
+    private final String collectionTypeQualifiedName;
+    private final boolean returnRowIds;
+    private final String databaseEntityTypeName;
     private final String databaseEntityTypeQualifiedName;
     private final MapperDescription mapperDescription;
+    private final String sqlConstantName;
+    private final String sql;
+    private final List<String> bindArgs;
+    private final String autoGeneratedKeyDbName;
+    private final String autoGeneratedKeyValue;
 
+    /**
+     * @param parameterTypeName the entity or a collection of the entity
+     * @param collectionTypeQualifiedName the collection of the parameter or null for an entity
+     * @param returnRowIds true to return the rowid, or the rowids of a collection as a long[]
+     * @param sqlConstantName the name of the INSERT OR statement or null to use Database.insert
+     * @param bindArgs expressions reading each column from a ContentValues named values
+     * @param autoGeneratedKeyDbName the column of a key generated by the database or null
+     * @param autoGeneratedKeyValue the generated key converted from a long named rowId
+     */
     InsertMethod(String methodName,
+                 String parameterTypeName,
+                 String collectionTypeQualifiedName,
+                 boolean returnRowIds,
                  String databaseEntityTypeName,
                  String databaseEntityTypeQualifiedName,
-                 MapperDescription mapperDescription) {
+                 MapperDescription mapperDescription,
+                 String sqlConstantName,
+                 String sql,
+                 List<String> bindArgs,
+                 String autoGeneratedKeyDbName,
+                 String autoGeneratedKeyValue) {
         this.methodName = methodName;
+        this.parameterTypeName = parameterTypeName;
+        this.collectionTypeQualifiedName = collectionTypeQualifiedName;
+        this.returnRowIds = returnRowIds;
         this.databaseEntityTypeName = databaseEntityTypeName;
         this.databaseEntityTypeQualifiedName = databaseEntityTypeQualifiedName;
         this.mapperDescription = mapperDescription;
+        this.sqlConstantName = sqlConstantName;
+        this.sql = sql;
+        this.bindArgs = bindArgs;
+        this.autoGeneratedKeyDbName = autoGeneratedKeyDbName;
+        this.autoGeneratedKeyValue = autoGeneratedKeyValue;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        if (sqlConstantName != null) {
+            writer.write("    private static final String " + sqlConstantName + " = \"" + sql + "\";\n");
+        }
     }
 
     @Override
     public void write(Writer writer) throws IOException {
+        String mapper = mapperDescription.getVariableName();
+        boolean batch = collectionTypeQualifiedName != null;
+        String parameterName = batch ? "items" : "item";
+        String returnType = !returnRowIds ? "void" : batch ? "long[]" : "long";
+
         writer.write("    @Override\n");
-        writer.write("    public void " + methodName + "(" + databaseEntityTypeName + " item) {\n");
-        writer.write("        if (item == null) throw new IllegalArgumentException(\"item is null\");\n");
+        writer.write("    public " + returnType + " " + methodName + "(" + parameterTypeName + " " + parameterName + ") {\n");
+        writer.write("        if (" + parameterName + " == null) throw new IllegalArgumentException(\"" + parameterName + " is null\");\n");
         writer.write("\n");
-        writer.write("        db.insert(" + mapperDescription.getVariableName() + ".getTableName(),\n");
-        writer.write("                " + mapperDescription.getVariableName() + ".mapValues(item));\n");
+        writer.write("        ChangeTracker<" + databaseEntityTypeName + "> changeTracker = " + mapper + ".getChangeTracker();\n");
+        if (batch) {
+            if (returnRowIds) {
+                writer.write("        long[] rowIds = new long[items.size()];\n");
+                writer.write("        int index = 0;\n");
+            }
+            writer.write("        db.beginTransaction();\n");
+            writer.write("        try {\n");
+            writer.write("            for (" + databaseEntityTypeName + " item : items) {\n");
+            writeInsert(writer, "                ");
+            if (returnRowIds) {
+                writer.write("                rowIds[index++] = rowId;\n");
+            }
+            writer.write("            }\n");
+            writer.write("            db.setTransactionSuccessful();\n");
+            writer.write("        } finally {\n");
+            writer.write("            db.endTransaction();\n");
+            writer.write("        }\n");
+            if (returnRowIds) {
+                writer.write("        return rowIds;\n");
+            }
+        } else {
+            writeInsert(writer, "        ");
+            if (returnRowIds) {
+                writer.write("        return rowId;\n");
+            }
+        }
         writer.write("    }\n");
         writer.write("\n");
     }
 
+    private void writeInsert(Writer writer, String indent) throws IOException {
+        String mapper = mapperDescription.getVariableName();
+        writer.write(indent + "ContentValues values = " + mapper + ".mapValues(item);\n");
+        if (sqlConstantName == null) {
+            writer.write(indent + "long rowId = db.insert(" + mapper + ".getTableName(), values);\n");
+        } else {
+            writer.write(indent + "long rowId = db.executeInsert(" + sqlConstantName + ", new Object[]{" + String.join(", ", bindArgs) + "});\n");
+        }
+        if (autoGeneratedKeyDbName != null) {
+            writer.write(indent + "if (rowId != -1) {\n");
+            writer.write(indent + "    " + mapper + ".setRowId(item, rowId);\n");
+            writer.write(indent + "    values.put(\"" + autoGeneratedKeyDbName + "\", " + autoGeneratedKeyValue + ");\n");
+            writer.write(indent + "}\n");
+        }
+        writer.write(indent + "if (changeTracker != null && rowId != -1) changeTracker.track(item, values);\n");
+    }
+
     @Override
     public Collection<String> getImports() {
-        return Collections.singletonList(databaseEntityTypeQualifiedName);
+        List<String> imports = new ArrayList<>();
+        imports.add("android.content.ContentValues");
+        imports.add("net.daverix.slingerorm.android.ChangeTracker");
+        imports.add(databaseEntityTypeQualifiedName);
+        if (collectionTypeQualifiedName != null) imports.add(collectionTypeQualifiedName);
+        return imports;
     }
 
     @Override
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Selects the rows of a join and maps the entities of each row by position, each entity reads
+ * its columns from the offset where its aliased projection starts.
+ */
+class JoinSelectMethod implements StorageMethod {
+    private final String methodName;
+    private final String containerName;
+    private final String containerQualifiedName;
+    private final boolean returnsList;
+    private final String returnTypeName;
+    private final String parameterText;
+    private final String sqlConstantName;
+    private final String sql;
+    private final Collection<String> whereArgs;
+    private final List<JoinedEntity> entities;
+
+    JoinSelectMethod(String methodName,
+                     String containerName,
+                     String containerQualifiedName,
+                     boolean returnsList,
+                     String returnTypeName,
+                     String parameterText,
+                     String sqlConstantName,
+                     String sql,
+                     Collection<String> whereArgs,
+                     List<JoinedEntity> entities) {
+        this.methodName = methodName;
+        this.containerName = containerName;
+        this.containerQualifiedName = containerQualifiedName;
+        this.returnsList = returnsList;
+        this.returnTypeName = returnTypeName;
+        this.parameterText = parameterText;
+        this.sqlConstantName = sqlConstantName;
+        this.sql = sql;
+        this.whereArgs = whereArgs;
+        this.entities = entities;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        writer.write("    private static final String " + sqlConstantName + " = \"" + sql + "\";\n");
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        writer.write("    @Override\n");
+        writer.write("    public " + returnTypeName + " " + methodName + "(" + parameterText + ") {\n");
+        writer.write("        Cursor cursor = null;\n");
+        writer.write("        try {\n");
+        writer.write("            cursor = db.rawQuery(" + sqlConstantName + ", " + createArguments() + ");\n");
+        if (returnsList) {
+            writer.write("            List<" + containerName + "> items = new ArrayList<" + containerName + ">(cursor.getCount());\n");
+            writer.write("            while (cursor.moveToNext()) {\n");
+            writeMapItem(writer, "                ");
+            writer.write("                items.add(item);\n");
+            writer.write("            }\n");
+            writer.write("            return items;\n");
+        } else {
+            writer.write("            if (!cursor.moveToFirst()) return null;\n");
+            writer.write("            \n");
+            writeMapItem(writer, "            ");
+            writer.write("            return item;\n");
+        }
+        writer.write("        } finally {\n");
+        writer.write("            if (cursor != null) cursor.close();\n");
+        writer.write("        }\n");
+        writer.write("    }\n");
+        writer.write("\n");
+    }
+
+    private void writeMapItem(Writer writer, String indent) throws IOException {
+        writer.write(indent + containerName + " item = new " + containerName + "();\n");
+        for (JoinedEntity entity : entities) {
+            String mapItem = entity.mapperDescription.getVariableName() + ".mapItem(cursor, " + entity.offset + ")";
+            writer.write(indent + entity.setterPrefix + mapItem + entity.setterSuffix + ";\n");
+        }
+    }
+
+    private String createArguments() {
+        if (whereArgs == null || whereArgs.isEmpty()) return "null";
+
+        return "new Object[]{" + String.join(", ", whereArgs) + "}";
+    }
+
+    @Override
+    public Collection<String> getImports() {
+        return Arrays.asList(
+                "android.database.Cursor",
+                "java.util.ArrayList",
+                "java.util.List",
+                containerQualifiedName
+        );
+    }
+
+    @Override
+    public MapperDescription getMapper() {
+        return entities.get(0).mapperDescription;
+    }
+
+    @Override
+    public Collection<MapperDescription> getMappers() {
+        List<MapperDescription> mappers = new ArrayList<>();
+        for (JoinedEntity entity : entities) {
+            mappers.add(entity.mapperDescription);
+        }
+        return mappers;
+    }
+
+    /**
+     * An entity in the row of a join. The setter is written as prefix, the mapped entity and
+     * suffix, on a variable named item.
+     */
+    static class JoinedEntity {
+        private final MapperDescription mapperDescription;
+        private final int offset;
+        private final String setterPrefix;
+        private final String setterSuffix;
+
+        JoinedEntity(MapperDescription mapperDescription, int offset, String setterPrefix, String setterSuffix) {
+            this.mapperDescription = mapperDescription;
+            this.offset = offset;
+            this.setterPrefix = setterPrefix;
+            this.setterSuffix = setterSuffix;
+        }
+    }
+}
@@ -23,5 +23,10 @@ enum ObjectType {
     FLOAT,
     DOUBLE,
     STRING,
+    UUID,
+    DATE,
+    INSTANT,
+    BIG_DECIMAL,
+    ENUM,
     OTHER
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the statement of a {@link net.daverix.slingerorm.storage.Query} and maps the rows by
+ * position. An entity is mapped by its mapper from the first column, any other class is created
+ * and gets one set statement per result column.
+ */
+class QueryMethod implements StorageMethod {
+    private final String methodName;
+    private final String itemName;
+    private final String itemQualifiedName;
+    private final boolean returnsList;
+    private final String returnTypeName;
+    private final String parameterText;
+    private final String sqlConstantName;
+    private final String sql;
+    private final Collection<String> whereArgs;
+    private final MapperDescription mapperDescription;
+    private final List<String> setters;
+    private final List<String> relationMethodNames;
+
+    /**
+     * @param mapperDescription the mapper of an entity or null when setters are used
+     * @param setters statements setting the columns on a variable named item, empty for entities
+     */
+    QueryMethod(String methodName,
+                String itemName,
+                String itemQualifiedName,
+                boolean returnsList,
+                String returnTypeName,
+                String parameterText,
+                String sqlConstantName,
+                String sql,
+                Collection<String> whereArgs,
+                MapperDescription mapperDescription,
+                List<String> setters,
+                List<String> relationMethodNames) {
+        this.methodName = methodName;
+        this.itemName = itemName;
+        this.itemQualifiedName = itemQualifiedName;
+        this.returnsList = returnsList;
+        this.returnTypeName = returnTypeName;
+        this.parameterText = parameterText;
+        this.sqlConstantName = sqlConstantName;
+        this.sql = sql;
+        this.whereArgs = whereArgs;
+        this.mapperDescription = mapperDescription;
+        this.setters = setters;
+        this.relationMethodNames = relationMethodNames;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        writer.write("    private static final String " + sqlConstantName + " = \"" + escape(sql) + "\";\n");
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        writer.write("    @Override\n");
+        writer.write("    public " + returnTypeName + " " + methodName + "(" + parameterText + ") {\n");
+        if (returnsList) {
+            writer.write("        List<" + itemName + "> items;\n");
+        } else {
+            writer.write("        " + itemName + " item;\n");
+        }
+        writer.write("        Cursor cursor = null;\n");
+        writer.write("        try {\n");
+        writer.write("            cursor = db.rawQuery(" + sqlConstantName + ", " + createArguments() + ");\n");
+        if (returnsList) {
+            writer.write("            items = new ArrayList<" + itemName + ">(cursor.getCount());\n");
+            writer.write("            while (cursor.moveToNext()) {\n");
+            writeMapItem(writer, "                ");
+            writer.write("                items.add(item);\n");
+            writer.write("            }\n");
+        } else {
+            writer.write("            if (!cursor.moveToFirst()) return null;\n");
+            writer.write("            \n");
+            writeMapItem(writer, "            ");
+        }
+        writer.write("        } finally {\n");
+        writer.write("            if (cursor != null) cursor.close();\n");
+        writer.write("        }\n");
+        writer.write("\n");
+        for (String relationMethodName : relationMethodNames) {
+            if (returnsList) {
+                writer.write("        " + relationMethodName + "(items);\n");
+            } else {
+                writer.write("        " + relationMethodName + "(Collections.singletonList(item));\n");
+            }
+        }
+        writer.write("        return " + (returnsList ? "items" : "item") + ";\n");
+        writer.write("    }\n");
+        writer.write("\n");
+    }
+
+    private void writeMapItem(Writer writer, String indent) throws IOException {
+        String declaration = returnsList ? itemName + " item" : "item";
+        if (mapperDescription != null) {
+            writer.write(indent + declaration + " = " + mapperDescription.getVariableName() + ".mapItem(cursor, 0);\n");
+            return;
+        }
+
+        writer.write(indent + declaration + " = new " + itemName + "();\n");
+        for (String setter : setters) {
+            writer.write(indent + setter + ";\n");
+        }
+    }
+
+    private String createArguments() {
+        if (whereArgs.isEmpty()) return "null";
+
+        return "new Object[]{" + String.join(", ", whereArgs) + "}";
+    }
+
+    private static String escape(String sql) {
+        return sql.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+    }
+
+    @Override
+    public Collection<String> getImports() {
+        List<String> imports = new ArrayList<>();
+        imports.add("android.database.Cursor");
+        imports.add("java.util.ArrayList");
+        imports.add("java.util.Collections");
+        imports.add("java.util.List");
+        imports.add(itemQualifiedName);
+        return imports;
+    }
+
+    @Override
+    public MapperDescription getMapper() {
+        return mapperDescription;
+    }
+
+    @Override
+    public Collection<MapperDescription> getMappers() {
+        if (mapperDescription == null) return Collections.emptyList();
+
+        return Collections.singletonList(mapperDescription);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Loads the children of a {@link RelationType} for a list of parents. The keys of the parents are
+ * matched with an IN query, split in chunks so each query stays below the number of arguments
+ * SQLite can bind, and the children are grouped by key in a map before they are set.
+ */
+class RelationMethod implements StorageMethod {
+    private static final int MAX_ARGUMENTS = 999;
+
+    private final String methodName;
+    private final String sqlConstantName;
+    private final String sql;
+    private final String parentName;
+    private final String parentQualifiedName;
+    private final RelationType relation;
+    private final MapperDescription mapperDescription;
+
+    RelationMethod(String methodName,
+                   String sqlConstantName,
+                   String sql,
+                   String parentName,
+                   String parentQualifiedName,
+                   RelationType relation,
+                   MapperDescription mapperDescription) {
+        this.methodName = methodName;
+        this.sqlConstantName = sqlConstantName;
+        this.sql = sql;
+        this.parentName = parentName;
+        this.parentQualifiedName = parentQualifiedName;
+        this.relation = relation;
+        this.mapperDescription = mapperDescription;
+    }
+
+    String getMethodName() {
+        return methodName;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        writer.write("    private static final String " + sqlConstantName + " = \"" + sql + "\";\n");
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        String childName = mapperDescription.getEntityName();
+        String mapper = mapperDescription.getVariableName();
+
+        writer.write("    private void " + methodName + "(List<" + parentName + "> parents) {\n");
+        writer.write("        Map<Object, List<" + childName + ">> childrenByKey = new HashMap<Object, List<" + childName + ">>();\n");
+        writer.write("        List<Object> keys = new ArrayList<Object>();\n");
+        writer.write("        for (" + parentName + " item : parents) {\n");
+        writer.write("            Object key = " + relation.getParentKeyGetter() + ";\n");
+        writer.write("            if (key != null && !childrenByKey.containsKey(key)) {\n");
+        writer.write("                childrenByKey.put(key, new ArrayList<" + childName + ">());\n");
+        writer.write("                keys.add(key);\n");
+        writer.write("            }\n");
+        writer.write("        }\n");
+        writer.write("\n");
+        writer.write("        for (int start = 0; start < keys.size(); start += " + MAX_ARGUMENTS + ") {\n");
+        writer.write("            List<Object> chunk = keys.subList(start, Math.min(start + " + MAX_ARGUMENTS + ", keys.size()));\n");
+        writer.write("            StringBuilder sql = new StringBuilder(" + sqlConstantName + ").append(\"?\");\n");
+        writer.write("            for (int i = 1; i < chunk.size(); i++) {\n");
+        writer.write("                sql.append(\",?\");\n");
+        writer.write("            }\n");
+        writer.write("            sql.append(\")\");\n");
+        writer.write("\n");
+        writer.write("            Cursor cursor = null;\n");
+        writer.write("            try {\n");
+        writer.write("                cursor = db.rawQuery(sql.toString(), chunk.toArray());\n");
+        writer.write("                while (cursor.moveToNext()) {\n");
+        writer.write("                    " + childName + " item = " + mapper + ".mapItem(cursor, 0);\n");
+        writer.write("                    childrenByKey.get(" + relation.getChildKeyGetter() + ").add(item);\n");
+        writer.write("                }\n");
+        writer.write("            } finally {\n");
+        writer.write("                if (cursor != null) cursor.close();\n");
+        writer.write("            }\n");
+        writer.write("        }\n");
+        writer.write("\n");
+        writer.write("        for (" + parentName + " item : parents) {\n");
+        writer.write("            List<" + childName + "> children = childrenByKey.get(" + relation.getParentKeyGetter() + ");\n");
+        writer.write("            if (children == null) children = new ArrayList<" + childName + ">();\n");
+        writer.write("            " + relation.getSetter() + ";\n");
+        writer.write("        }\n");
+        writer.write("    }\n");
+        writer.write("\n");
+    }
+
+    @Override
+    public Collection<String> getImports() {
+        return Arrays.asList(
+                "android.database.Cursor",
+                "java.util.ArrayList",
+                "java.util.HashMap",
+                "java.util.List",
+                "java.util.Map",
+                parentQualifiedName,
+                relation.getChildType().getQualifiedName().toString()
+        );
+    }
+
+    @Override
+    public MapperDescription getMapper() {
+        return mapperDescription;
+    }
+}
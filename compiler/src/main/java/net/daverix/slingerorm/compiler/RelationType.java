@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import javax.lang.model.element.TypeElement;
+
+/**
+ * A field annotated with {@link net.daverix.slingerorm.entity.Relation}. The getters and the
+ * setter are expressions on a variable named item, the setter assigns a variable named children.
+ */
+class RelationType {
+    private final String fieldName;
+    private final TypeElement childType;
+    private final String childColumn;
+    private final String parentKeyGetter;
+    private final String childKeyGetter;
+    private final String setter;
+
+    RelationType(String fieldName, TypeElement childType, String childColumn,
+                 String parentKeyGetter, String childKeyGetter, String setter) {
+        this.fieldName = fieldName;
+        this.childType = childType;
+        this.childColumn = childColumn;
+        this.parentKeyGetter = parentKeyGetter;
+        this.childKeyGetter = childKeyGetter;
+        this.setter = setter;
+    }
+
+    String getFieldName() {
+        return fieldName;
+    }
+
+    TypeElement getChildType() {
+        return childType;
+    }
+
+    String getChildColumn() {
+        return childColumn;
+    }
+
+    String getParentKeyGetter() {
+        return parentKeyGetter;
+    }
+
+    String getChildKeyGetter() {
+        return childKeyGetter;
+    }
+
+    String getSetter() {
+        return setter;
+    }
+}
@@ -18,8 +18,8 @@ package net.daverix.slingerorm.compiler;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 
 class ReplaceMethod implements StorageMethod {
     private final String methodName;
@@ -44,16 +44,23 @@ class ReplaceMethod implements StorageMethod {
         writer.write("    public void " + methodName + "(" + databaseEntityTypeName + " item) {\n");
         writer.write("        if (item == null) throw new IllegalArgumentException(\"entity is null\");\n");
         writer.write("\n");
-        writer.write("        \n");
-        writer.write("        db.replace(" + mapperDescription.getVariableName() + ".getTableName(),\n");
-        writer.write("                " + mapperDescription.getVariableName() + ".mapValues(item));\n");
+        String mapper = mapperDescription.getVariableName();
+        writer.write("        ContentValues values = " + mapper + ".mapValues(item);\n");
+        writer.write("        db.replace(" + mapper + ".getTableName(), values);\n");
+        writer.write("\n");
+        writer.write("        ChangeTracker<" + databaseEntityTypeName + "> changeTracker = " + mapper + ".getChangeTracker();\n");
+        writer.write("        if (changeTracker != null) changeTracker.track(item, values);\n");
         writer.write("    }\n");
         writer.write("\n");
     }
 
     @Override
     public Collection<String> getImports() {
-        return Collections.singletonList(databaseEntityTypeQualifiedName);
+        return Arrays.asList(
+                "android.content.ContentValues",
+                "net.daverix.slingerorm.android.ChangeTracker",
+                databaseEntityTypeQualifiedName
+        );
     }
 
     @Override
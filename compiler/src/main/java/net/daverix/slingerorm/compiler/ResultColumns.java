@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the names of the result columns of a SELECT statement. Only the outermost select is read,
+ * the statements inside parentheses, like subqueries and common table expressions, are skipped
+ * together with string literals, quoted names and comments.
+ */
+final class ResultColumns {
+    private static final String NAME = "(\\w+|\"[^\"]+\"|`[^`]+`|\\[[^\\]]+\\])";
+    private static final Pattern ALIAS = Pattern.compile("(?is).*\\sAS\\s+" + NAME);
+    private static final Pattern COLUMN = Pattern.compile("(?s)(?:" + NAME + "\\s*\\.\\s*)*" + NAME);
+    private static final List<String> END_OF_COLUMNS = Arrays.asList("FROM", "WHERE", "GROUP",
+            "HAVING", "WINDOW", "ORDER", "LIMIT", "UNION", "INTERSECT", "EXCEPT");
+
+    private ResultColumns() {
+    }
+
+    /**
+     * @return the names of the result columns in order, without quotes
+     * @throws IllegalArgumentException if the statement isn't a SELECT or a column has no name
+     */
+    static List<String> parse(String sql) {
+        if (sql == null) throw new IllegalArgumentException("sql is null");
+
+        List<String> words = new ArrayList<>();
+        List<Integer> wordStarts = new ArrayList<>();
+        List<Integer> commas = new ArrayList<>();
+        int depth = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipPast(sql, i + 1, String.valueOf(c));
+            } else if (c == '[') {
+                i = skipPast(sql, i + 1, "]");
+            } else if (sql.startsWith("--", i)) {
+                i = skipPast(sql, i + 2, "\n");
+            } else if (sql.startsWith("/*", i)) {
+                i = skipPast(sql, i + 2, "*/");
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                depth--;
+                i++;
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_')) {
+                    i++;
+                }
+                if (depth == 0) {
+                    words.add(sql.substring(start, i).toUpperCase(Locale.ENGLISH));
+                    wordStarts.add(start);
+                }
+            } else {
+                if (c == ',' && depth == 0) commas.add(i);
+                i++;
+            }
+        }
+
+        if (words.isEmpty() || !(words.get(0).equals("SELECT") || words.get(0).equals("WITH")))
+            throw new IllegalArgumentException("the query must be a SELECT statement");
+
+        int selectIndex = words.indexOf("SELECT");
+        if (selectIndex == -1)
+            throw new IllegalArgumentException("the query must be a SELECT statement");
+
+        int wordIndex = selectIndex + 1;
+        int columnsStart = wordStarts.get(selectIndex) + "SELECT".length();
+        if (wordIndex < words.size() && (words.get(wordIndex).equals("DISTINCT") || words.get(wordIndex).equals("ALL"))) {
+            columnsStart = wordStarts.get(wordIndex) + words.get(wordIndex).length();
+            wordIndex++;
+        }
+
+        int columnsEnd = sql.length();
+        for (; wordIndex < words.size(); wordIndex++) {
+            if (END_OF_COLUMNS.contains(words.get(wordIndex))) {
+                columnsEnd = wordStarts.get(wordIndex);
+                break;
+            }
+        }
+
+        List<String> names = new ArrayList<>();
+        int start = columnsStart;
+        for (int comma : commas) {
+            if (comma > columnsStart && comma < columnsEnd) {
+                names.add(getName(sql.substring(start, comma).trim()));
+                start = comma + 1;
+            }
+        }
+        names.add(getName(sql.substring(start, columnsEnd).trim()));
+        return names;
+    }
+
+    private static int skipPast(String sql, int index, String end) {
+        int found = sql.indexOf(end, index);
+        return found == -1 ? sql.length() : found + end.length();
+    }
+
+    private static String getName(String column) {
+        if (column.isEmpty())
+            throw new IllegalArgumentException("the query has an empty result column");
+        if (column.endsWith("*"))
+            throw new IllegalArgumentException("the query must list the result columns instead of " + column);
+
+        Matcher alias = ALIAS.matcher(column);
+        if (alias.matches()) return unquote(alias.group(1));
+
+        Matcher name = COLUMN.matcher(column);
+        if (name.matches()) return unquote(name.group(2));
+
+        throw new IllegalArgumentException("the result column " + column + " needs a name, add AS and a name after it");
+    }
+
+    private static String unquote(String name) {
+        char first = name.charAt(0);
+        if (first == '"' || first == '`' || first == '[')
+            return name.substring(1, name.length() - 1);
+
+        return name;
+    }
+}
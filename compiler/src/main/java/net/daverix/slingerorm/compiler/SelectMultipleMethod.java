@@ -20,84 +20,79 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 class SelectMultipleMethod implements StorageMethod {
     private final String methodName;
     private final String returnTypeName;
     private final String parameterText;
-    private final String where;
+    private final String sqlConstantName;
+    private final String sql;
     private final Collection<String> whereArgs;
-    private final String orderBy;
-    private final String limit;
     private final MapperDescription mapperDescription;
+    private final List<String> relationMethodNames;
 
     SelectMultipleMethod(String methodName,
                          String returnTypeName,
                          String parameterText,
-                         String where,
+                         String sqlConstantName,
+                         String sql,
                          Collection<String> whereArgs,
-                         String orderBy,
-                         String limit,
-                         MapperDescription mapperDescription) {
+                         MapperDescription mapperDescription,
+                         List<String> relationMethodNames) {
         this.methodName = methodName;
         this.returnTypeName = returnTypeName;
         this.parameterText = parameterText;
-        this.where = where;
+        this.sqlConstantName = sqlConstantName;
+        this.sql = sql;
         this.whereArgs = whereArgs;
-        this.orderBy = orderBy;
-        this.limit = limit;
         this.mapperDescription = mapperDescription;
+        this.relationMethodNames = relationMethodNames;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        writer.write("    private static final String " + sqlConstantName + " = \"" + sql + "\";\n");
     }
 
     @Override
     public void write(Writer writer) throws IOException {
-        String where = getWhere();
         String args = createArguments();
-        String orderByText = createOrderBy();
+        String entityName = mapperDescription.getEntityName();
 
         writer.write("    @Override\n");
         writer.write("    public " + returnTypeName + " " + methodName + "(" + parameterText + ") {\n");
+        writer.write("        List<" + entityName + "> items;\n");
         writer.write("        Cursor cursor = null;\n");
         writer.write("        try {\n");
-        writer.write("            cursor = db.query(false,\n");
-        writer.write("                    " + mapperDescription.getVariableName() + ".getTableName(),\n");
-        writer.write("                    " + mapperDescription.getVariableName() + ".getFieldNames(),\n");
-        writer.write("                    " + where + ",\n");
-        writer.write("                    " + args + ",\n");
-        writer.write("                    null,\n");
-        writer.write("                    null,\n");
-        writer.write("                    " + orderByText + ",\n");
-        writer.write("                    " + (limit != null ? "\"" + limit + "\"" : "null") + ");\n\n");
-        writer.write("            return " + mapperDescription.getVariableName() + ".mapList(cursor);\n");
+        writer.write("            cursor = db.rawQuery(" + sqlConstantName + ", " + args + ");\n");
+        writer.write("            items = new ArrayList<" + entityName + ">(cursor.getCount());\n");
+        writer.write("            while (cursor.moveToNext()) {\n");
+        writer.write("                items.add(" + mapperDescription.getVariableName() + ".mapItem(cursor, 0));\n");
+        writer.write("            }\n");
         writer.write("        } finally {\n");
         writer.write("            if (cursor != null) cursor.close();\n");
         writer.write("        }\n");
+        writer.write("\n");
+        for (String relationMethodName : relationMethodNames) {
+            writer.write("        " + relationMethodName + "(items);\n");
+        }
+        writer.write("        return items;\n");
         writer.write("    }\n");
         writer.write("\n");
     }
 
-    private String getWhere() {
-        if(where == null) return "null";
-
-        return "\"" + where + "\"";
-    }
-
-    private String createOrderBy() {
-        if(orderBy == null) return "null";
-
-        return "\"" + orderBy + "\"";
-    }
-
     private String createArguments() {
         if(whereArgs == null || whereArgs.isEmpty()) return "null";
 
-        return "new String[]{" + String.join(", ", whereArgs) +  "}";
+        return "new Object[]{" + String.join(", ", whereArgs) +  "}";
     }
 
     @Override
     public Collection<String> getImports() {
         return Arrays.asList(
                 "android.database.Cursor",
+                "java.util.ArrayList",
                 "java.util.List"
         );
     }
@@ -18,30 +18,41 @@ package net.daverix.slingerorm.compiler;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 class SelectSingleMethod implements StorageMethod {
     private final String methodName;
     private final String returnValue;
     private final String parameters;
-    private final String where;
+    private final String sqlConstantName;
+    private final String sql;
     private final List<String> whereArgs;
     private final MapperDescription mapperDescription;
+    private final List<String> relationMethodNames;
 
     SelectSingleMethod(String methodName,
                        String returnValue,
                        String parameters,
-                       String where,
+                       String sqlConstantName,
+                       String sql,
                        List<String> whereArgs,
-                       MapperDescription mapperDescription) {
+                       MapperDescription mapperDescription,
+                       List<String> relationMethodNames) {
         this.methodName = methodName;
         this.returnValue = returnValue;
         this.parameters = parameters;
-        this.where = where;
+        this.sqlConstantName = sqlConstantName;
+        this.sql = sql;
         this.whereArgs = whereArgs;
         this.mapperDescription = mapperDescription;
+        this.relationMethodNames = relationMethodNames;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        writer.write("    private static final String " + sqlConstantName + " = \"" + sql + "\";\n");
     }
 
     @Override
@@ -50,35 +61,44 @@ class SelectSingleMethod implements StorageMethod {
 
         writer.write("    @Override\n");
         writer.write("    public " + returnValue + " " + methodName + "(" + parameters + ") {\n");
+        if (!relationMethodNames.isEmpty()) {
+            writer.write("        " + returnValue + " item;\n");
+        }
         writer.write("        Cursor cursor = null;\n");
         writer.write("        try {\n");
-        writer.write("            cursor = db.query(false,\n");
-        writer.write("                    " + mapperDescription.getVariableName() + ".getTableName(),\n");
-        writer.write("                    " + mapperDescription.getVariableName() + ".getFieldNames(),\n");
-        writer.write("                    \"" + where + "\",\n");
-        writer.write("                    " + args + ",\n");
-        writer.write("                    null,\n");
-        writer.write("                    null,\n");
-        writer.write("                    null,\n");
-        writer.write("                    \"1\");\n\n");
+        writer.write("            cursor = db.rawQuery(" + sqlConstantName + ", " + args + ");\n");
         writer.write("            if (!cursor.moveToFirst()) return null;\n");
         writer.write("            \n");
-        writer.write("            return " + mapperDescription.getVariableName() + ".mapItem(cursor);\n");
+        if (relationMethodNames.isEmpty()) {
+            writer.write("            return " + mapperDescription.getVariableName() + ".mapItem(cursor, 0);\n");
+        } else {
+            writer.write("            item = " + mapperDescription.getVariableName() + ".mapItem(cursor, 0);\n");
+        }
         writer.write("        } finally {\n");
         writer.write("            if (cursor != null) cursor.close();\n");
         writer.write("        }\n");
+        if (!relationMethodNames.isEmpty()) {
+            writer.write("\n");
+            for (String relationMethodName : relationMethodNames) {
+                writer.write("        " + relationMethodName + "(Collections.singletonList(item));\n");
+            }
+            writer.write("        return item;\n");
+        }
         writer.write("    }\n");
         writer.write("\n");
     }
 
     private String createArguments() {
-        return "new String[]{" + String.join(", ", whereArgs) +  "}";
+        if (whereArgs.isEmpty()) return "null";
+
+        return "new Object[]{" + String.join(", ", whereArgs) +  "}";
     }
 
     @Override
     public Collection<String> getImports() {
-        return Collections.singletonList(
-                "android.database.Cursor"
+        return Arrays.asList(
+                "android.database.Cursor",
+                relationMethodNames.isEmpty() ? "" : "java.util.Collections"
         );
     }
 
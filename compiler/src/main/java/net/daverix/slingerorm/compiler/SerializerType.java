@@ -7,11 +7,26 @@ class SerializerType {
     private final String name;
     private final String type;
     private final List<String> imports;
+    private final String boxedType;
+    private final String primitiveType;
+    private final String valueType;
 
     SerializerType(String name, String type, List<String> imports) {
+        this(name, type, imports, null, null, null);
+    }
+
+    /**
+     * Creates a serializer type for one of the primitive serializer interfaces. The builder also
+     * accepts the boxed Serializer type for these through an overloaded setter.
+     */
+    SerializerType(String name, String type, List<String> imports, String boxedType,
+                   String primitiveType, String valueType) {
         this.name = name;
         this.type = type;
         this.imports = imports;
+        this.boxedType = boxedType;
+        this.primitiveType = primitiveType;
+        this.valueType = valueType;
     }
 
     String getName() {
@@ -25,4 +40,47 @@ class SerializerType {
     public List<String> getImports() {
         return imports;
     }
+
+    boolean isPrimitive() {
+        return primitiveType != null;
+    }
+
+    String getBoxedType() {
+        return boxedType;
+    }
+
+    String getPrimitiveType() {
+        return primitiveType;
+    }
+
+    String getValueType() {
+        return valueType;
+    }
+
+    /**
+     * @return the name of the mapper field for the boxed Serializer of a primitive serializer type
+     */
+    String getBoxedName() {
+        return getBoxedName(name);
+    }
+
+    static String getBoxedName(String name) {
+        return name.substring(0, name.length() - "Serializer".length()) + "BoxedSerializer";
+    }
+
+    /**
+     * @return the name of the mapper method serializing a value with whichever of the primitive
+     * and the boxed serializer was set
+     */
+    static String getSerializeMethodName(String name) {
+        return "serializeWith" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * @return the name of the mapper method deserializing a value with whichever of the primitive
+     * and the boxed serializer was set
+     */
+    static String getDeserializeMethodName(String name) {
+        return "deserializeWith" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
 }
@@ -19,11 +19,25 @@ package net.daverix.slingerorm.compiler;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Collection;
+import java.util.Collections;
 
 interface StorageMethod {
     void write(Writer writer) throws IOException;
 
+    /**
+     * Writes the static fields used by the method, they are placed first in the storage class.
+     */
+    default void writeConstants(Writer writer) throws IOException {
+    }
+
     Collection<String> getImports();
 
     MapperDescription getMapper();
+
+    /**
+     * @return all mappers used by the method, for methods that use more than one
+     */
+    default Collection<MapperDescription> getMappers() {
+        return Collections.singletonList(getMapper());
+    }
 }
@@ -18,8 +18,8 @@ package net.daverix.slingerorm.compiler;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 
 class UpdateMethod implements StorageMethod {
     private final String methodName;
@@ -41,21 +41,33 @@ class UpdateMethod implements StorageMethod {
     public void write(Writer writer) throws IOException {
         if (writer == null) throw new IllegalArgumentException("writer is null");
 
+        String mapper = mapperDescription.getVariableName();
+
         writer.write("    @Override\n");
         writer.write("    public void " + methodName + "(" + databaseEntityTypeName + " item) {\n");
         writer.write("        if (item == null) throw new IllegalArgumentException(\"entity is null\");\n");
         writer.write("\n");
-        writer.write("        db.update(" + mapperDescription.getVariableName() + ".getTableName(),\n");
-        writer.write("                " + mapperDescription.getVariableName() + ".mapValues(item),\n");
-        writer.write("                " + mapperDescription.getVariableName() + ".getItemQuery(),\n");
-        writer.write("                " + mapperDescription.getVariableName() + ".getItemQueryArguments(item));\n");
+        writer.write("        ContentValues values = " + mapper + ".mapValues(item);\n");
+        writer.write("        ChangeTracker<" + databaseEntityTypeName + "> changeTracker = " + mapper + ".getChangeTracker();\n");
+        writer.write("        ContentValues changedValues = changeTracker != null ? changeTracker.getChangedValues(item, values) : values;\n");
+        writer.write("        if (changedValues.size() == 0) return;\n");
+        writer.write("\n");
+        writer.write("        int updated = db.update(" + mapper + ".getTableName(),\n");
+        writer.write("                changedValues,\n");
+        writer.write("                " + mapper + ".getItemQuery(),\n");
+        writer.write("                " + mapper + ".getItemQueryBindArgs(item));\n");
+        writer.write("        if (changeTracker != null && updated > 0) changeTracker.track(item, values);\n");
         writer.write("    }\n");
         writer.write("\n");
     }
 
     @Override
     public Collection<String> getImports() {
-        return Collections.singletonList(databaseEntityTypeQualifiedName);
+        return Arrays.asList(
+                "android.content.ContentValues",
+                "net.daverix.slingerorm.android.ChangeTracker",
+                databaseEntityTypeQualifiedName
+        );
     }
 
     @Override
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Updates columns of the rows matching a where clause with one statement that the database keeps
+ * compiled. The rows aren't loaded so the remembered values of entities that track changes are
+ * forgotten afterwards.
+ */
+class UpdateSetMethod implements StorageMethod {
+    private final String methodName;
+    private final boolean returnUpdated;
+    private final String parameterText;
+    private final String sqlConstantName;
+    private final String sql;
+    private final Collection<String> bindArgs;
+    private final String databaseEntityTypeName;
+    private final String databaseEntityTypeQualifiedName;
+    private final MapperDescription mapperDescription;
+
+    UpdateSetMethod(String methodName,
+                    boolean returnUpdated,
+                    String parameterText,
+                    String sqlConstantName,
+                    String sql,
+                    Collection<String> bindArgs,
+                    String databaseEntityTypeName,
+                    String databaseEntityTypeQualifiedName,
+                    MapperDescription mapperDescription) {
+        this.methodName = methodName;
+        this.returnUpdated = returnUpdated;
+        this.parameterText = parameterText;
+        this.sqlConstantName = sqlConstantName;
+        this.sql = sql;
+        this.bindArgs = bindArgs;
+        this.databaseEntityTypeName = databaseEntityTypeName;
+        this.databaseEntityTypeQualifiedName = databaseEntityTypeQualifiedName;
+        this.mapperDescription = mapperDescription;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        writer.write("    private static final String " + sqlConstantName + " = \"" + sql + "\";\n");
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        if (writer == null) throw new IllegalArgumentException("writer is null");
+
+        writer.write("    @Override\n");
+        writer.write("    public " + (returnUpdated ? "int" : "void") + " " + methodName + "(" + parameterText + ") {\n");
+        writer.write("        int updated = db.executeUpdateDelete(" + sqlConstantName + ", " + createArguments() + ");\n");
+        writer.write("        ChangeTracker<" + databaseEntityTypeName + "> changeTracker = " + mapperDescription.getVariableName() + ".getChangeTracker();\n");
+        writer.write("        if (changeTracker != null && updated > 0) changeTracker.clear();\n");
+        if (returnUpdated) {
+            writer.write("        return updated;\n");
+        }
+        writer.write("    }\n");
+        writer.write("\n");
+    }
+
+    private String createArguments() {
+        if (bindArgs.isEmpty()) return "null";
+
+        return "new Object[]{" + String.join(", ", bindArgs) + "}";
+    }
+
+    @Override
+    public Collection<String> getImports() {
+        return Arrays.asList(
+                "net.daverix.slingerorm.android.ChangeTracker",
+                databaseEntityTypeQualifiedName
+        );
+    }
+
+    @Override
+    public MapperDescription getMapper() {
+        return mapperDescription;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Updates the row with the primary key of an entity and inserts the entity if no row was updated,
+ * in a transaction so no other write can come in between. Both statements are kept compiled by
+ * the database. An entity that only has primary key columns has nothing to update and is inserted
+ * unless it already exists. An inserted entity gets the key generated by the database if its key
+ * is auto generated.
+ */
+class UpsertMethod implements StorageMethod {
+    private final String methodName;
+    private final String parameterTypeName;
+    private final String collectionTypeQualifiedName;
+    private final String databaseEntityTypeName;
+    private final String databaseEntityTypeQualifiedName;
+    private final MapperDescription mapperDescription;
+    private final String updateSqlConstantName;
+    private final String updateSql;
+    private final List<String> updateBindArgs;
+    private final String insertSqlConstantName;
+    private final String insertSql;
+    private final List<String> insertBindArgs;
+    private final String autoGeneratedKeyDbName;
+    private final String autoGeneratedKeyValue;
+
+    /**
+     * @param collectionTypeQualifiedName the collection of the parameter or null for an entity
+     * @param updateSql the UPDATE statement or null if the entity only has primary key columns
+     * @param updateBindArgs expressions reading the updated columns and then the primary key
+     * from a ContentValues named values
+     * @param insertBindArgs expressions reading each column from a ContentValues named values
+     * @param autoGeneratedKeyDbName the column of a key generated by the database or null
+     * @param autoGeneratedKeyValue the generated key converted from a long named rowId
+     */
+    UpsertMethod(String methodName,
+                 String parameterTypeName,
+                 String collectionTypeQualifiedName,
+                 String databaseEntityTypeName,
+                 String databaseEntityTypeQualifiedName,
+                 MapperDescription mapperDescription,
+                 String updateSqlConstantName,
+                 String updateSql,
+                 List<String> updateBindArgs,
+                 String insertSqlConstantName,
+                 String insertSql,
+                 List<String> insertBindArgs,
+                 String autoGeneratedKeyDbName,
+                 String autoGeneratedKeyValue) {
+        this.methodName = methodName;
+        this.parameterTypeName = parameterTypeName;
+        this.collectionTypeQualifiedName = collectionTypeQualifiedName;
+        this.databaseEntityTypeName = databaseEntityTypeName;
+        this.databaseEntityTypeQualifiedName = databaseEntityTypeQualifiedName;
+        this.mapperDescription = mapperDescription;
+        this.updateSqlConstantName = updateSqlConstantName;
+        this.updateSql = updateSql;
+        this.updateBindArgs = updateBindArgs;
+        this.insertSqlConstantName = insertSqlConstantName;
+        this.insertSql = insertSql;
+        this.insertBindArgs = insertBindArgs;
+        this.autoGeneratedKeyDbName = autoGeneratedKeyDbName;
+        this.autoGeneratedKeyValue = autoGeneratedKeyValue;
+    }
+
+    @Override
+    public void writeConstants(Writer writer) throws IOException {
+        if (updateSql != null) {
+            writer.write("    private static final String " + updateSqlConstantName + " = \"" + updateSql + "\";\n");
+        }
+        writer.write("    private static final String " + insertSqlConstantName + " = \"" + insertSql + "\";\n");
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        String mapper = mapperDescription.getVariableName();
+        boolean batch = collectionTypeQualifiedName != null;
+        String parameterName = batch ? "items" : "item";
+
+        writer.write("    @Override\n");
+        writer.write("    public void " + methodName + "(" + parameterTypeName + " " + parameterName + ") {\n");
+        writer.write("        if (" + parameterName + " == null) throw new IllegalArgumentException(\"" + parameterName + " is null\");\n");
+        writer.write("\n");
+        writer.write("        ChangeTracker<" + databaseEntityTypeName + "> changeTracker = " + mapper + ".getChangeTracker();\n");
+        writer.write("        db.beginTransaction();\n");
+        writer.write("        try {\n");
+        if (batch) {
+            writer.write("            for (" + databaseEntityTypeName + " item : items) {\n");
+            writeUpsert(writer, "                ");
+            writer.write("            }\n");
+        } else {
+            writeUpsert(writer, "            ");
+        }
+        writer.write("            db.setTransactionSuccessful();\n");
+        writer.write("        } finally {\n");
+        writer.write("            db.endTransaction();\n");
+        writer.write("        }\n");
+        writer.write("    }\n");
+        writer.write("\n");
+    }
+
+    private void writeUpsert(Writer writer, String indent) throws IOException {
+        writer.write(indent + "ContentValues values = " + mapperDescription.getVariableName() + ".mapValues(item);\n");
+        if (updateSql == null) {
+            writeInsert(writer, indent);
+        } else {
+            writer.write(indent + "if (db.executeUpdateDelete(" + updateSqlConstantName + ", new Object[]{" + String.join(", ", updateBindArgs) + "}) == 0) {\n");
+            writeInsert(writer, indent + "    ");
+            writer.write(indent + "}\n");
+        }
+        writer.write(indent + "if (changeTracker != null) changeTracker.track(item, values);\n");
+    }
+
+    private void writeInsert(Writer writer, String indent) throws IOException {
+        String insert = "db.executeInsert(" + insertSqlConstantName + ", new Object[]{" + String.join(", ", insertBindArgs) + "});\n";
+        if (autoGeneratedKeyDbName == null) {
+            writer.write(indent + insert);
+            return;
+        }
+
+        writer.write(indent + "long rowId = " + insert);
+        writer.write(indent + "if (rowId != -1) {\n");
+        writer.write(indent + "    " + mapperDescription.getVariableName() + ".setRowId(item, rowId);\n");
+        writer.write(indent + "    values.put(\"" + autoGeneratedKeyDbName + "\", " + autoGeneratedKeyValue + ");\n");
+        writer.write(indent + "}\n");
+    }
+
+    @Override
+    public Collection<String> getImports() {
+        return Arrays.asList(
+                "android.content.ContentValues",
+                "net.daverix.slingerorm.android.ChangeTracker",
+                databaseEntityTypeQualifiedName,
+                collectionTypeQualifiedName != null ? collectionTypeQualifiedName : ""
+        );
+    }
+
+    @Override
+    public MapperDescription getMapper() {
+        return mapperDescription;
+    }
+}
@@ -34,4 +34,19 @@ public @interface DatabaseEntity {
      * @return a list of primary keys
      */
     String[] primaryKeyFields() default "";
+
+    /**
+     * Makes the mapper remember the values of the entities it maps so an update only writes the
+     * columns that have changed, and nothing when no column has changed
+     * @return true to track changes
+     */
+    boolean trackChanges() default false;
+
+    /**
+     * The version of the table, increase it when a field is added, removed or changed. The table
+     * is upgraded by {@link net.daverix.slingerorm.storage.CreateTable} when the database has an
+     * older version of it, annotate added fields with {@link Since}.
+     * @return the version of the table, at least 1
+     */
+    int version() default 1;
 }
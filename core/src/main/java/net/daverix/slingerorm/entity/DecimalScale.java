@@ -0,0 +1,21 @@
+package net.daverix.slingerorm.entity;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Stores a BigDecimal field as an INTEGER with the decimal point moved value digits to the right,
+ * so 12.34 with a scale of 2 is stored as 1234. Values with more decimals than the scale can't be
+ * stored. Without this annotation BigDecimal fields are stored as TEXT.
+ *
+ * On a parameter of a storage method the argument is converted the same way, which is only needed
+ * when the argument isn't compared with a column of a field that has the annotation.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+public @interface DecimalScale {
+    int value();
+}
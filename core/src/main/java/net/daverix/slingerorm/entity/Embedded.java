@@ -0,0 +1,19 @@
+package net.daverix.slingerorm.entity;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Stores the fields of the annotated field's type as columns in the table of the entity, named
+ * with prefix followed by the column name in the embedded type. The embedded type needs a public
+ * constructor without parameters. A null value is stored as nulls in all its columns and read
+ * back as null when all its columns are null.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Embedded {
+    String prefix() default "";
+}
@@ -0,0 +1,21 @@
+package net.daverix.slingerorm.entity;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Gives an enum constant the code it's stored as in the database. Enum fields are stored as the
+ * ordinal of the constant unless the constants have codes, which keeps stored values the same
+ * when constants are added or reordered. Either all or none of the constants in an enum must
+ * have a code and codes must be unique.
+ *
+ * The codes are kept in the class files so entities can use enums compiled in another module.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface EnumCode {
+    int value();
+}
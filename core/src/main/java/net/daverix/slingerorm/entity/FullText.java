@@ -0,0 +1,20 @@
+package net.daverix.slingerorm.entity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Adds a String field to the full text index of the entity. The index is an FTS4 table named
+ * after the table with the suffix _fts that reads its text from the table of the entity, triggers
+ * keep it up to date when rows are inserted, updated or deleted. The index and the triggers are
+ * created together with the table by {@link net.daverix.slingerorm.storage.CreateTable}.</p>
+ *
+ * <p>Search the index with {@link net.daverix.slingerorm.storage.Match}. The index uses the
+ * content option of FTS4 which requires Android 4.1 or later.</p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface FullText {
+}
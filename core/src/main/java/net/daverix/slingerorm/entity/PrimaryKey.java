@@ -26,5 +26,12 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.SOURCE)
 @Target({ElementType.FIELD})
 public @interface PrimaryKey {
-
+    /**
+     * Lets the database choose the key of items that are inserted with the key set to 0. The
+     * generated key is set on the item after it has been inserted. Only supported on a single
+     * primary key of type long or int, which becomes an alias for the rowid of the table. Keys of
+     * deleted rows may be reused.
+     * @return true if the key is generated by the database
+     */
+    boolean autoGenerate() default false;
 }
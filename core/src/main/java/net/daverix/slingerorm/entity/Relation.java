@@ -0,0 +1,27 @@
+package net.daverix.slingerorm.entity;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a List field that holds the entities of another table that refer to this entity. The
+ * field isn't stored as a column, it's set by the select methods of a storage that returns the
+ * entity. The children of all entities in a result are loaded with one query per relation that
+ * matches childColumn against the parentColumn values of the result.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Relation {
+    /**
+     * @return the column in the table of the children that holds the value of parentColumn
+     */
+    String childColumn();
+
+    /**
+     * @return the column of this entity the children refer to, defaults to the primary key
+     */
+    String parentColumn() default "";
+}
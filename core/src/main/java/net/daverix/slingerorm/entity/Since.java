@@ -0,0 +1,30 @@
+package net.daverix.slingerorm.entity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Marks a field as added in a later version of the entity than the first, see
+ * {@link DatabaseEntity#version()}. When the table is upgraded the column is added to the
+ * existing table and is NULL in the rows that were already there, unless a backfill is given.</p>
+ *
+ * <p>The backfill is an SQL expression that is evaluated for every existing row, like
+ * <code>lower(name)</code>, and may use the other columns of the row. It's applied in small
+ * chunks in the background after the upgrade, to rows where the column is still NULL.</p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Since {
+    /**
+     * @return the version of the entity the field was added in
+     */
+    int value();
+
+    /**
+     * @return an SQL expression giving the value of the column in existing rows, or empty to
+     * leave them NULL
+     */
+    String backfill() default "";
+}
@@ -0,0 +1,12 @@
+package net.daverix.slingerorm.serializer;
+
+/**
+ * Serializes a type to a primitive double without boxing, use it instead of {@code Serializer<T,Double>} for
+ * fields annotated with {@code @SerializeTo(SerializeType.DOUBLE)}.
+ * @param <T> the type of the field in the database entity
+ */
+public interface DoubleSerializer<T> {
+    double serialize(T value);
+
+    T deserialize(double value);
+}
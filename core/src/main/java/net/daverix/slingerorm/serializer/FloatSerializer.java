@@ -0,0 +1,12 @@
+package net.daverix.slingerorm.serializer;
+
+/**
+ * Serializes a type to a primitive float without boxing, use it instead of {@code Serializer<T,Float>} for
+ * fields annotated with {@code @SerializeTo(SerializeType.FLOAT)}.
+ * @param <T> the type of the field in the database entity
+ */
+public interface FloatSerializer<T> {
+    float serialize(T value);
+
+    T deserialize(float value);
+}
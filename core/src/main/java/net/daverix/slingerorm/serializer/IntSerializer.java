@@ -0,0 +1,12 @@
+package net.daverix.slingerorm.serializer;
+
+/**
+ * Serializes a type to a primitive int without boxing, use it instead of {@code Serializer<T,Integer>} for
+ * fields annotated with {@code @SerializeTo(SerializeType.INT)}.
+ * @param <T> the type of the field in the database entity
+ */
+public interface IntSerializer<T> {
+    int serialize(T value);
+
+    T deserialize(int value);
+}
@@ -0,0 +1,12 @@
+package net.daverix.slingerorm.serializer;
+
+/**
+ * Serializes a type to a primitive long without boxing, use it instead of {@code Serializer<T,Long>} for
+ * fields annotated with {@code @SerializeTo(SerializeType.LONG)}.
+ * @param <T> the type of the field in the database entity
+ */
+public interface LongSerializer<T> {
+    long serialize(T value);
+
+    T deserialize(long value);
+}
@@ -0,0 +1,12 @@
+package net.daverix.slingerorm.serializer;
+
+/**
+ * Serializes a type to a primitive short without boxing, use it instead of {@code Serializer<T,Short>} for
+ * fields annotated with {@code @SerializeTo(SerializeType.SHORT)}.
+ * @param <T> the type of the field in the database entity
+ */
+public interface ShortSerializer<T> {
+    short serialize(T value);
+
+    T deserialize(short value);
+}
@@ -0,0 +1,41 @@
+package net.daverix.slingerorm.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Inserts the entities of the Iterator that is the parameter of the method, meant for loading a
+ * large number of entities like on a first sync. The entities are inserted in transactions of
+ * {@link #chunkSize()} entities. The non-unique indexes of the table and the triggers of its full
+ * text index are dropped during the load, they are created again and the full text index is
+ * rebuilt once afterwards. The method may return the number of inserted entities as a long.</p>
+ *
+ * <p>The load can't run inside a transaction. Changes of the entities aren't tracked and generated
+ * keys aren't set on them.</p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface BulkInsert {
+    /**
+     * @return the number of entities to insert per transaction
+     */
+    int chunkSize() default 10000;
+
+    /**
+     * Set to sort the entities of each chunk by primary key before inserting them, so rows are
+     * added in key order instead of all over the table.
+     *
+     * @return true to sort by primary key
+     */
+    boolean sortByPrimaryKey() default false;
+
+    /**
+     * Set to turn off syncing to disk during the load. A crash may then lose the last committed
+     * chunks, but the database isn't corrupted.
+     *
+     * @return true to turn off synchronous during the load
+     */
+    boolean relaxDurability() default false;
+}
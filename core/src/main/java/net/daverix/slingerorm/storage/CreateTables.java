@@ -0,0 +1,20 @@
+package net.daverix.slingerorm.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Calls every {@link CreateTable} method of the storage in one transaction. A hash of the schema
+ * of all those tables is computed when the storage is generated and stored in the database, so
+ * when the schema hasn't changed since the last call and all the tables still exist the method
+ * only runs two queries and no DDL at all. Meant to be called every time the database is opened,
+ * also after dropping the tables.</p>
+ *
+ * <p>The method must return void and take no parameters.</p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface CreateTables {
+}
@@ -31,4 +31,15 @@ public @interface Delete {
      * @return entity class
      */
     Class<?> value() default Object.class;
+
+    /**
+     * Set to delete the rows matching {@link Where} in chunks of at most this many rows, in rowid
+     * order. Every chunk is committed by itself so the write lock is only held for a short time
+     * and other connections can read and write in between. Add a {@link ProgressListener} as the
+     * last parameter of the method to get the number of deleted rows after each chunk. Chunks
+     * aren't committed separately when the method is called inside a transaction.
+     *
+     * @return the maximum number of rows per chunk or 0 to delete all rows with one statement
+     */
+    int chunkSize() default 0;
 }
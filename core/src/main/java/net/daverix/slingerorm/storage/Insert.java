@@ -21,7 +21,21 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Inserts the entity that is the parameter of the method, or every entity of a collection in one
+ * transaction. The method may return the rowid of the inserted entity as a long, or the rowids of
+ * a List or Collection of entities as a long[] in the same order. An entity that is ignored
+ * because of a conflict gets -1 as its rowid.
+ */
 @Retention(RetentionPolicy.SOURCE)
 @Target({ElementType.METHOD})
 public @interface Insert {
+    /**
+     * Set how a row that breaks a unique constraint is handled. Anything but {@link OnConflict#ABORT}
+     * runs an INSERT OR statement that is compiled once, so a duplicate that is ignored doesn't
+     * cost an exception.
+     *
+     * @return the conflict algorithm
+     */
+    OnConflict onConflict() default OnConflict.ABORT;
 }
@@ -0,0 +1,21 @@
+package net.daverix.slingerorm.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes a {@link Select} method return the rows of a join of several tables. The returned type is
+ * a class with a constructor without parameters and one field for each joined entity. The table
+ * of the first field is aliased t0, the second t1 and so on, use the aliases in the conditions
+ * and in {@link Where} and {@link OrderBy}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Join {
+    /**
+     * @return the condition each table after the first is joined on, in the order of the fields
+     */
+    String[] value();
+}
@@ -0,0 +1,21 @@
+package net.daverix.slingerorm.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes a {@link Select} method return the entities whose full text index matches the last
+ * parameter of the method, using the FTS query syntax like "sqlite*" or "full NEAR text". The
+ * other parameters are bound to {@link Where} as usual. The entity needs at least one field
+ * annotated with {@link net.daverix.slingerorm.entity.FullText}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Match {
+    /**
+     * @return the column to search in, all columns in the index are searched by default
+     */
+    String value() default "";
+}
@@ -0,0 +1,30 @@
+package net.daverix.slingerorm.storage;
+
+/**
+ * The conflict algorithms of SQLite, used by {@link Insert} to handle a row that breaks a unique
+ * constraint.
+ */
+public enum OnConflict {
+    /**
+     * Aborts the statement and throws an exception, the default
+     */
+    ABORT,
+    /**
+     * Aborts the statement and throws an exception but keeps the changes made by the statement,
+     * can't be used for entities with full text fields
+     */
+    FAIL,
+    /**
+     * Skips the row and continues
+     */
+    IGNORE,
+    /**
+     * Deletes the existing row and inserts the new one, which fires delete triggers only if
+     * recursive triggers are enabled
+     */
+    REPLACE,
+    /**
+     * Rolls back the transaction and throws an exception
+     */
+    ROLLBACK
+}
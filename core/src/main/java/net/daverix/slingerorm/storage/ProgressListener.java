@@ -0,0 +1,13 @@
+package net.daverix.slingerorm.storage;
+
+/**
+ * Receives the progress of a {@link Delete} or {@link Update} that runs in chunks. It's called
+ * between the chunks, after one has been committed and before the next one starts, so it may
+ * pause to let other work through.
+ */
+public interface ProgressListener {
+    /**
+     * @param rows the number of rows that have been deleted or updated so far
+     */
+    void onProgress(int rows);
+}
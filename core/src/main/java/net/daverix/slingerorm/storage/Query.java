@@ -0,0 +1,27 @@
+package net.daverix.slingerorm.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Runs a hand-written SELECT statement, for queries that {@link Where}, {@link OrderBy} and
+ * {@link Limit} can't express like subqueries, window functions or common table expressions. The
+ * parameters of the method are bound to the question marks in the statement in order.</p>
+ *
+ * <p>The method returns a type annotated with
+ * {@link net.daverix.slingerorm.entity.DatabaseEntity}, any other class with a constructor without
+ * parameters, or a List of one of them. The result columns are resolved when the storage is
+ * generated and every column must have a name, use AS for expressions. An entity needs all of its
+ * columns in the order of its fields. A class that isn't an entity gets each column set on the
+ * field with the same name.</p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Query {
+    /**
+     * @return the SELECT statement
+     */
+    String value();
+}
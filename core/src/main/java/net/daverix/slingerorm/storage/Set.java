@@ -0,0 +1,22 @@
+package net.daverix.slingerorm.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes an {@link Update} method update columns of the rows matching {@link Where} without
+ * loading them, the method runs one UPDATE statement that is compiled once. The parameters of
+ * the method are bound to the question marks in the assignments first and in {@link Where} after
+ * that, a method returning int returns the number of updated rows. The type of the rows is set
+ * in {@link Update}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Set {
+    /**
+     * @return the assignments of the SET clause, like "value = ?" or "count = count + 1"
+     */
+    String value();
+}
@@ -24,5 +24,23 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.SOURCE)
 @Target({ElementType.METHOD})
 public @interface Update {
+    /**
+     * Set the type if you want to update columns with {@link Set} and {@link Where} instead of
+     * writing an entity.
+     *
+     * @return entity class
+     */
+    Class<?> value() default Object.class;
 
+    /**
+     * Set together with {@link Set} to update the rows matching {@link Where} in chunks of at
+     * most this many rows, in rowid order. Every chunk is committed by itself so the write lock is
+     * only held for a short time and other connections can read and write in between. Add a
+     * {@link ProgressListener} as the last parameter of the method to get the number of updated
+     * rows after each chunk. Chunks aren't committed separately when the method is called inside
+     * a transaction.
+     *
+     * @return the maximum number of rows per chunk or 0 to update all rows with one statement
+     */
+    int chunkSize() default 0;
 }
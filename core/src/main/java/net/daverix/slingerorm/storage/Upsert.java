@@ -0,0 +1,20 @@
+package net.daverix.slingerorm.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Updates the row with the primary key of the entity that is the parameter of the method, or
+ * inserts it when there is no such row. Unlike {@link Replace} the existing row is updated in
+ * place, so it isn't deleted and its delete triggers don't run. A collection of entities is
+ * upserted in one transaction.</p>
+ *
+ * <p>The update and the insert are compiled once and run in a transaction. INSERT ... ON CONFLICT
+ * DO UPDATE isn't used since it needs SQLite 3.24, which Android only ships from version 11.</p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Upsert {
+}
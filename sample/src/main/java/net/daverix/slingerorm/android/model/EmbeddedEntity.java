@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android.model;
+
+import net.daverix.slingerorm.entity.DatabaseEntity;
+import net.daverix.slingerorm.entity.Embedded;
+import net.daverix.slingerorm.entity.PrimaryKey;
+
+@DatabaseEntity
+public class EmbeddedEntity {
+    @PrimaryKey
+    private long id;
+    private String name;
+    @Embedded(prefix = "home_")
+    private Address home;
+    @Embedded(prefix = "work_")
+    private Address work;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Address getHome() {
+        return home;
+    }
+
+    public void setHome(Address home) {
+        this.home = home;
+    }
+
+    public Address getWork() {
+        return work;
+    }
+
+    public void setWork(Address work) {
+        this.work = work;
+    }
+}
@@ -1,18 +1,18 @@
 package net.daverix.slingerorm.android.serialization;
 
 
-import net.daverix.slingerorm.serializer.Serializer;
+import net.daverix.slingerorm.serializer.DoubleSerializer;
 
 import java.math.BigDecimal;
 
-public class BigDecimalSerializer implements Serializer<BigDecimal,Double> {
+public class BigDecimalSerializer implements DoubleSerializer<BigDecimal> {
     @Override
-    public Double serialize(BigDecimal value) {
+    public double serialize(BigDecimal value) {
         return value == null ? 0 : value.doubleValue();
     }
 
     @Override
-    public BigDecimal deserialize(Double value) {
+    public BigDecimal deserialize(double value) {
         return new BigDecimal(value);
     }
 }
@@ -1,18 +1,18 @@
 package net.daverix.slingerorm.android.serialization;
 
 
-import net.daverix.slingerorm.serializer.Serializer;
+import net.daverix.slingerorm.serializer.LongSerializer;
 
 import java.util.Date;
 
-public class DateSerializer implements Serializer<Date,Long> {
+public class DateSerializer implements LongSerializer<Date> {
     @Override
-    public Long serialize(Date value) {
+    public long serialize(Date value) {
         return value == null ? 0 : value.getTime();
     }
 
     @Override
-    public Date deserialize(Long value) {
+    public Date deserialize(long value) {
         return new Date(value);
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android.storage;
+
+import net.daverix.slingerorm.android.model.BuiltInTypesEntity;
+import net.daverix.slingerorm.android.model.EnumEntity;
+import net.daverix.slingerorm.android.model.InstantEntity;
+import net.daverix.slingerorm.android.model.Priority;
+import net.daverix.slingerorm.storage.CreateTable;
+import net.daverix.slingerorm.storage.DatabaseStorage;
+import net.daverix.slingerorm.storage.Delete;
+import net.daverix.slingerorm.storage.Insert;
+import net.daverix.slingerorm.storage.Select;
+import net.daverix.slingerorm.storage.Set;
+import net.daverix.slingerorm.storage.Update;
+import net.daverix.slingerorm.storage.Where;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+@DatabaseStorage
+public interface BuiltInTypesStorage {
+    @CreateTable(BuiltInTypesEntity.class)
+    void createTable();
+
+    @Insert
+    void insert(BuiltInTypesEntity entity);
+
+    @Update
+    void update(BuiltInTypesEntity entity);
+
+    @Delete
+    void delete(BuiltInTypesEntity entity);
+
+    @Select @Where("id = ?")
+    BuiltInTypesEntity getEntity(UUID id);
+
+    @Select @Where("created > ?")
+    List<BuiltInTypesEntity> getCreatedAfter(Date date);
+
+    @Select @Where("price > ?")
+    List<BuiltInTypesEntity> getPricedAbove(BigDecimal price);
+
+    @Select @Where("amount = ?")
+    List<BuiltInTypesEntity> getWithAmount(BigDecimal amount);
+
+    @Update(BuiltInTypesEntity.class) @Set("created = ?, amount = ?, price = ?") @Where("id = ?")
+    void setValues(Date created, BigDecimal amount, BigDecimal price, UUID id);
+
+    @Update(value = BuiltInTypesEntity.class, chunkSize = 2) @Set("price = ?") @Where("price > ?")
+    int setPriceOfPricedAbove(BigDecimal price, BigDecimal limit);
+
+    @CreateTable(InstantEntity.class)
+    void createInstantTable();
+
+    @Insert
+    void insert(InstantEntity entity);
+
+    @Update(InstantEntity.class) @Set("created = ?") @Where("id = ?")
+    void setCreated(Instant created, long id);
+
+    @Select @Where("created > ?")
+    List<InstantEntity> getInstantEntitiesCreatedAfter(Instant created);
+
+    @CreateTable(EnumEntity.class)
+    void createEnumTable();
+
+    @Insert
+    void insert(EnumEntity entity);
+
+    @Select @Where("priority = ?")
+    List<EnumEntity> getEnumEntities(Priority priority);
+}
@@ -22,8 +22,10 @@ import net.daverix.slingerorm.storage.Delete;
 import net.daverix.slingerorm.storage.Insert;
 import net.daverix.slingerorm.storage.Limit;
 import net.daverix.slingerorm.storage.OrderBy;
+import net.daverix.slingerorm.storage.ProgressListener;
 import net.daverix.slingerorm.storage.Replace;
 import net.daverix.slingerorm.storage.Select;
+import net.daverix.slingerorm.storage.Set;
 import net.daverix.slingerorm.storage.DatabaseStorage;
 import net.daverix.slingerorm.storage.Update;
 import net.daverix.slingerorm.storage.Where;
@@ -41,6 +43,15 @@ public interface ComplexEntityStorage {
     @Update
     void update(ComplexEntity complexEntity);
 
+    @Update(ComplexEntity.class) @Set("value = ?") @Where("_id = ?")
+    int setValue(double value, long id);
+
+    @Update(ComplexEntity.class) @Set("value = value + ?") @Where("isComplex = ?")
+    void addToValues(double amount, boolean complex);
+
+    @Update(value = ComplexEntity.class, chunkSize = 2) @Set("value = value + ?") @Where("value > ?")
+    int addToValuesAbove(double amount, double minimum, ProgressListener progress);
+
     @Replace
     void replace(ComplexEntity complexEntity);
 
@@ -50,6 +61,9 @@ public interface ComplexEntityStorage {
     @Delete(ComplexEntity.class) @Where("_id = ?")
     int delete(long id);
 
+    @Delete(value = ComplexEntity.class, chunkSize = 2) @Where("isComplex = ?")
+    int deleteComplex(boolean complex, ProgressListener progress);
+
     @Select @Where("_id = ?")
     ComplexEntity getEntity(long id);
 
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android.storage;
+
+import net.daverix.slingerorm.android.model.Author;
+import net.daverix.slingerorm.android.model.AuthorBookCount;
+import net.daverix.slingerorm.android.model.Book;
+import net.daverix.slingerorm.android.model.BookWithAuthor;
+import net.daverix.slingerorm.storage.BulkInsert;
+import net.daverix.slingerorm.storage.CreateTable;
+import net.daverix.slingerorm.storage.CreateTables;
+import net.daverix.slingerorm.storage.DatabaseStorage;
+import net.daverix.slingerorm.storage.Delete;
+import net.daverix.slingerorm.storage.Insert;
+import net.daverix.slingerorm.storage.Join;
+import net.daverix.slingerorm.storage.Match;
+import net.daverix.slingerorm.storage.OnConflict;
+import net.daverix.slingerorm.storage.OrderBy;
+import net.daverix.slingerorm.storage.Query;
+import net.daverix.slingerorm.storage.Replace;
+import net.daverix.slingerorm.storage.Select;
+import net.daverix.slingerorm.storage.Update;
+import net.daverix.slingerorm.storage.Upsert;
+import net.daverix.slingerorm.storage.Where;
+
+import java.util.Iterator;
+import java.util.List;
+
+@DatabaseStorage
+public interface LibraryStorage {
+    @CreateTable(Author.class)
+    void createAuthorTable();
+
+    @CreateTable(Book.class)
+    void createBookTable();
+
+    @CreateTables
+    void createTables();
+
+    @Insert
+    long insert(Author author);
+
+    @Insert
+    long[] insertAuthors(List<Author> authors);
+
+    @Insert
+    void insert(Book book);
+
+    @Insert(onConflict = OnConflict.IGNORE)
+    void insertIfAbsent(Book book);
+
+    @BulkInsert(chunkSize = 2, sortByPrimaryKey = true, relaxDurability = true)
+    long loadBooks(Iterator<Book> books);
+
+    @Replace
+    void replace(Book book);
+
+    @Upsert
+    void upsert(Book book);
+
+    @Upsert
+    void upsert(List<Book> books);
+
+    @Update
+    void update(Book book);
+
+    @Delete
+    void delete(Book book);
+
+    @Select @Where("id = ?")
+    Author getAuthor(long id);
+
+    @Select @OrderBy("id")
+    List<Author> getAuthors();
+
+    @Select @Match @OrderBy("id")
+    List<Book> searchBooks(String query);
+
+    @Select @Where("authorId = ?") @Match("title")
+    Book searchBookOfAuthor(long authorId, String query);
+
+    @Select @Join("t1.id = t0.authorId") @Where("t1.name = ?") @OrderBy("t0.id")
+    List<BookWithAuthor> getBooksWithAuthor(String authorName);
+
+    @Select @Join("t1.id = t0.authorId") @Where("t0.id = ?")
+    BookWithAuthor getBookWithAuthor(long bookId);
+
+    @Query("SELECT id, name FROM Author WHERE id IN (SELECT authorId FROM Book WHERE title LIKE ?) ORDER BY id")
+    List<Author> getAuthorsWithTitleLike(String title);
+
+    @Query("WITH counts AS (SELECT authorId, count(*) AS total FROM Book GROUP BY authorId) " +
+            "SELECT a.name, coalesce(c.total, 0) AS bookCount, " +
+            "(SELECT count(*) FROM counts WHERE total > coalesce(c.total, 0)) + 1 AS rank " +
+            "FROM Author a LEFT JOIN counts c ON c.authorId = a.id ORDER BY rank, a.name")
+    List<AuthorBookCount> getAuthorBookCounts();
+
+    @Query("SELECT name, (SELECT count(*) FROM Book WHERE authorId = Author.id) AS bookCount " +
+            "FROM Author WHERE id = ?")
+    AuthorBookCount getAuthorBookCount(long authorId);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android.storage;
+
+import net.daverix.slingerorm.android.model.SerializerEntity;
+import net.daverix.slingerorm.storage.CreateTable;
+import net.daverix.slingerorm.storage.DatabaseStorage;
+import net.daverix.slingerorm.storage.Insert;
+import net.daverix.slingerorm.storage.Select;
+import net.daverix.slingerorm.storage.Set;
+import net.daverix.slingerorm.storage.Update;
+import net.daverix.slingerorm.storage.Where;
+
+import java.util.Date;
+import java.util.List;
+
+@DatabaseStorage
+public interface SerializerEntityStorage {
+    @CreateTable(SerializerEntity.class)
+    void createTable();
+
+    @Insert
+    void insert(SerializerEntity entity);
+
+    @Select @Where("id = ?")
+    SerializerEntity getEntity(long id);
+
+    @Select @Where("created > ?")
+    List<SerializerEntity> getCreatedAfter(Date created);
+
+    @Update(SerializerEntity.class) @Set("created = ?") @Where("id = ?")
+    void setCreated(Date created, long id);
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteFullException;
+
+import net.daverix.slingerorm.android.model.BuiltInTypesEntity;
+import net.daverix.slingerorm.android.model.BuiltInTypesEntityMapper;
+import net.daverix.slingerorm.android.model.NativeFieldsEntityMapper;
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class CsvImporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SQLiteDatabase db;
+    private SQLiteDatabaseWrapper database;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        database = new SQLiteDatabaseWrapper(db);
+    }
+
+    @After
+    public void tearDown() {
+        database.getStatementCache().close();
+        db.close();
+    }
+
+    @Test
+    public void shouldImportColumnsInHeaderOrder() throws IOException {
+        NativeFieldsEntityMapper mapper = NativeFieldsEntityMapper.create();
+        db.execSQL(mapper.createTable());
+        File file = writeFile("typeString,typeLong,typeDouble\r\n" +
+                "\"Hello, \"\"world\"\"\",1,1.5\r\n" +
+                "\"two\nlines\",2,\r\n" +
+                "\"\",3,-2\n" +
+                ",4,0");
+
+        CsvImporter.Result result = new CsvImporter(database, mapper, CsvImporter.COMMA, 3)
+                .importFile(file, null);
+
+        assertThat(result.getImportedRecords()).isEqualTo(4);
+        assertThat(result.getRejectedRecords()).isEqualTo(0);
+        Cursor cursor = db.rawQuery("SELECT typeString, typeDouble FROM NativeFieldsEntity ORDER BY typeLong", null);
+        try {
+            assertThat(cursor.moveToNext()).isTrue();
+            assertThat(cursor.getString(0)).isEqualTo("Hello, \"world\"");
+            assertThat(cursor.getDouble(1)).isEqualTo(1.5);
+            assertThat(cursor.moveToNext()).isTrue();
+            assertThat(cursor.getString(0)).isEqualTo("two\nlines");
+            assertThat(cursor.isNull(1)).isTrue();
+            assertThat(cursor.moveToNext()).isTrue();
+            assertThat(cursor.getString(0)).isEmpty();
+            assertThat(cursor.moveToNext()).isTrue();
+            assertThat(cursor.isNull(0)).isTrue();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void shouldWriteRejectedRecordsToRejectFile() throws IOException {
+        NativeFieldsEntityMapper mapper = NativeFieldsEntityMapper.create();
+        db.execSQL(mapper.createTable());
+        File file = writeFile("typeLong,typeString\n" +
+                "1,first\n" +
+                "one,second\n" +
+                "2\n" +
+                "1,\"duplicate, key\"\n" +
+                "3,third\n");
+        File rejectFile = new File(folder.getRoot(), "rejected.csv");
+
+        CsvImporter.Result result = new CsvImporter(database, mapper).importFile(file, rejectFile);
+
+        assertThat(result.getImportedRecords()).isEqualTo(2);
+        assertThat(result.getRejectedRecords()).isEqualTo(3);
+        assertThat(database.simpleQueryForLong("SELECT count(*) FROM NativeFieldsEntity", null)).isEqualTo(2);
+        List<String> rejected = Files.readAllLines(rejectFile.toPath(), Charset.forName("UTF-8"));
+        assertThat(rejected).containsExactly("typeLong,typeString", "one,second", "2",
+                "1,\"duplicate, key\"").inOrder();
+    }
+
+    @Test
+    public void shouldNotCreateRejectFileWhenNothingIsRejected() throws IOException {
+        NativeFieldsEntityMapper mapper = NativeFieldsEntityMapper.create();
+        db.execSQL(mapper.createTable());
+        File file = writeFile("typeLong\n1\n");
+        File rejectFile = new File(folder.getRoot(), "rejected.csv");
+
+        new CsvImporter(database, mapper).importFile(file, rejectFile);
+
+        assertThat(rejectFile.exists()).isFalse();
+    }
+
+    @Test
+    public void shouldImportTabSeparatedStoredValues() throws IOException {
+        BuiltInTypesEntityMapper mapper = BuiltInTypesEntityMapper.create();
+        db.execSQL(mapper.createTable());
+        UUID id = UUID.fromString("00112233-4455-6677-8899-aabbccddeeff");
+        File file = writeFile("id\tcreated\tamount\tprice\n" +
+                "00112233445566778899AABBCCDDEEFF\t1500000000000\t1234.5678\t1999\n");
+
+        new CsvImporter(database, mapper, CsvImporter.TAB, CsvImporter.DEFAULT_CHUNK_SIZE)
+                .importFile(file, null);
+
+        Cursor cursor = db.rawQuery("SELECT * FROM BuiltInTypesEntity", null);
+        try {
+            assertThat(cursor.moveToFirst()).isTrue();
+            BuiltInTypesEntity actual = mapper.mapItem(cursor);
+            assertThat(actual.getId()).isEqualTo(id);
+            assertThat(actual.getCreated().getTime()).isEqualTo(1500000000000L);
+            assertThat(actual.getAmount()).isEqualTo(new BigDecimal("1234.5678"));
+            assertThat(actual.getPrice()).isEqualTo(new BigDecimal("19.99"));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenHeaderHasUnknownColumn() throws IOException {
+        NativeFieldsEntityMapper mapper = NativeFieldsEntityMapper.create();
+        db.execSQL(mapper.createTable());
+        File file = writeFile("typeLong,unknown\n1,2\n");
+
+        new CsvImporter(database, mapper).importFile(file, null);
+    }
+
+    @Test(expected = SQLiteFullException.class)
+    public void shouldStopImportWhenDatabaseIsFull() throws IOException {
+        NativeFieldsEntityMapper mapper = NativeFieldsEntityMapper.create();
+        db.execSQL(mapper.createTable());
+        File file = writeFile("typeLong\n1\n2\n");
+        Database fullDatabase = new SQLiteDatabaseWrapper(db) {
+            @Override
+            public long executeInsert(String sql, Object[] bindArgs) {
+                throw new SQLiteFullException("database or disk is full");
+            }
+        };
+
+        new CsvImporter(fullDatabase, mapper).importFile(file, folder.newFile());
+    }
+
+    private File writeFile(String content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes("UTF-8"));
+        return file;
+    }
+}
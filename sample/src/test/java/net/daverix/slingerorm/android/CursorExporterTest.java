@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android;
+
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import net.daverix.slingerorm.android.model.NativeFieldsEntity;
+import net.daverix.slingerorm.android.model.NativeFieldsEntityMapper;
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class CursorExporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteCsvWithHeaderAndStoredValues() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = new CursorExporter(CursorExporter.Format.CSV)
+                .export(createCursor(), Channels.newChannel(output));
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(output.toString("UTF-8")).isEqualTo("id,name,data,value\r\n" +
+                "1,\"Hello, \"\"world\"\"\",01AB,1.5\r\n" +
+                "2,\"\",,\r\n");
+    }
+
+    @Test
+    public void shouldWriteJsonLines() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new CursorExporter(CursorExporter.Format.JSON_LINES)
+                .export(createCursor(), Channels.newChannel(output));
+
+        assertThat(output.toString("UTF-8")).isEqualTo(
+                "{\"id\":1,\"name\":\"Hello, \\\"world\\\"\",\"data\":\"01AB\",\"value\":1.5}\n" +
+                "{\"id\":2,\"name\":\"\",\"data\":null,\"value\":null}\n");
+    }
+
+    @Test
+    public void shouldCompressWithGzip() throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CursorExporter(CursorExporter.Format.TSV)
+                .export(createCursor(), Channels.newChannel(expected));
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        new CursorExporter(CursorExporter.Format.TSV, true)
+                .export(createCursor(), Channels.newChannel(compressed));
+
+        InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()));
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            actual.write(buffer, 0, read);
+        }
+        assertThat(actual.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+
+    @Test
+    public void shouldExportTableThatCanBeImportedAgain() throws IOException {
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        SQLiteDatabaseWrapper database = new SQLiteDatabaseWrapper(db);
+        NativeFieldsEntityMapper mapper = NativeFieldsEntityMapper.create();
+        db.execSQL(mapper.createTable());
+        for (int i = 0; i < 100; i++) {
+            database.insert("NativeFieldsEntity", mapper.mapValues(createEntity(i)));
+        }
+        File file = folder.newFile();
+        FileChannel channel = new FileOutputStream(file).getChannel();
+        try {
+            long rows = new CursorExporter(CursorExporter.Format.CSV).export(database, mapper, channel);
+            assertThat(rows).isEqualTo(100);
+        } finally {
+            channel.close();
+        }
+        db.execSQL("DELETE FROM NativeFieldsEntity");
+
+        CsvImporter.Result result = new CsvImporter(database, mapper).importFile(file, null);
+
+        assertThat(result.getImportedRecords()).isEqualTo(100);
+        assertThat(result.getRejectedRecords()).isEqualTo(0);
+        assertThat(database.simpleQueryForLong("SELECT count(*) FROM NativeFieldsEntity WHERE typeString LIKE 'line%'", null))
+                .isEqualTo(100);
+        db.close();
+    }
+
+    private static MatrixCursor createCursor() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{"id", "name", "data", "value"});
+        cursor.addRow(new Object[]{1L, "Hello, \"world\"", new byte[]{1, (byte) 0xab}, 1.5});
+        cursor.addRow(new Object[]{2L, "", null, null});
+        return cursor;
+    }
+
+    private static NativeFieldsEntity createEntity(int index) {
+        NativeFieldsEntity entity = new NativeFieldsEntity();
+        entity.setTypeLong(index);
+        entity.setTypeInt(index * 2);
+        entity.setTypeString("line " + index + "\nwith \"quotes\", commas\tand tabs");
+        entity.setTypeBoolean(index % 2 == 0);
+        entity.setTypeDouble(index / 3.0);
+        return entity;
+    }
+}
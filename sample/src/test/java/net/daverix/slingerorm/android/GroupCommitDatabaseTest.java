@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android;
+
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class GroupCommitDatabaseTest {
+    private static final String SQL_INSERT = "INSERT INTO item (id, name) VALUES (?, ?)";
+
+    private SQLiteDatabase db;
+    private GroupCommitDatabase sut;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        db.execSQL("CREATE TABLE item (id INTEGER PRIMARY KEY, name TEXT)");
+        sut = new GroupCommitDatabase(new SQLiteDatabaseWrapper(db), 3, 10000);
+    }
+
+    @After
+    public void tearDown() {
+        sut.close();
+        db.close();
+    }
+
+    @Test
+    public void shouldCommitWritesTogetherWhenGroupIsFull() throws Exception {
+        Future<Long> first = sut.executeInsertAsync(SQL_INSERT, new Object[]{1, "first"});
+        Future<Long> second = sut.executeInsertAsync(SQL_INSERT, new Object[]{2, "second"});
+
+        assertThat(first.isDone()).isFalse();
+        assertThat(second.isDone()).isFalse();
+
+        sut.executeInsert(SQL_INSERT, new Object[]{3, "third"});
+
+        assertThat(first.get()).isEqualTo(1L);
+        assertThat(second.get()).isEqualTo(2L);
+        assertThat(sut.simpleQueryForLong("SELECT count(*) FROM item", null)).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldNotFailOtherWritesInGroupWhenOneFails() throws Exception {
+        Future<Long> first = sut.executeInsertAsync(SQL_INSERT, new Object[]{1, "first"});
+        Future<Long> duplicate = sut.executeInsertAsync(SQL_INSERT, new Object[]{1, "duplicate"});
+        Future<Long> third = sut.executeInsertAsync(SQL_INSERT, new Object[]{3, "third"});
+
+        try {
+            duplicate.get();
+            fail("duplicate was inserted");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(SQLiteConstraintException.class);
+        }
+        assertThat(first.get()).isEqualTo(1L);
+        assertThat(third.get()).isEqualTo(3L);
+        assertThat(sut.simpleQueryForLong("SELECT count(*) FROM item", null)).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldFailAllWritesInGroupWhenItIsRolledBack() throws Exception {
+        GroupCommitDatabase failing = new GroupCommitDatabase(new SQLiteDatabaseWrapper(db) {
+            @Override
+            public void setTransactionSuccessful() {
+                throw new Error("could not mark transaction as successful");
+            }
+        }, 2, 10000);
+        Future<Long> first = failing.executeInsertAsync(SQL_INSERT, new Object[]{1, "first"});
+        Future<Long> second = failing.executeInsertAsync(SQL_INSERT, new Object[]{2, "second"});
+
+        try {
+            assertFailed(first);
+            assertFailed(second);
+            assertThat(sut.simpleQueryForLong("SELECT count(*) FROM item", null)).isEqualTo(0);
+        } finally {
+            failing.close();
+        }
+    }
+
+    @Test
+    public void shouldCommitQueuedWritesWhenClosed() throws Exception {
+        Future<Long> queued = sut.executeInsertAsync(SQL_INSERT, new Object[]{1, "queued"});
+
+        sut.close();
+
+        assertThat(queued.get()).isEqualTo(1L);
+        assertThat(sut.simpleQueryForLong("SELECT count(*) FROM item", null)).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowWhenWritingAfterClose() {
+        sut.close();
+
+        sut.executeInsert(SQL_INSERT, new Object[]{1, "late"});
+    }
+
+    private static void assertFailed(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("expected the write to fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
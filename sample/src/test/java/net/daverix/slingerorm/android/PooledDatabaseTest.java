@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.daverix.slingerorm.android;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.sqlite.SQLiteDatabase;
+
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class PooledDatabaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SQLiteDatabase writer;
+    private PooledDatabase sut;
+
+    @Before
+    public void setUp() throws IOException {
+        writer = SQLiteDatabase.openOrCreateDatabase(folder.newFile("pooled.db"), null);
+        writer.execSQL("CREATE TABLE item (id INTEGER PRIMARY KEY, name TEXT)");
+        sut = new PooledDatabase(writer, 1);
+    }
+
+    @After
+    public void tearDown() {
+        sut.close();
+        writer.close();
+    }
+
+    @Test
+    public void shouldQueryOnReaderOutsideTransaction() {
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"first"});
+
+        Cursor cursor = sut.rawQuery("SELECT name FROM item", null);
+        try {
+            assertThat(cursor).isInstanceOf(CursorWrapper.class);
+            assertThat(cursor.moveToFirst()).isTrue();
+            assertThat(cursor.getString(0)).isEqualTo("first");
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void shouldQueryOnWriterInsideTransaction() {
+        sut.beginTransaction();
+        try {
+            sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"uncommitted"});
+
+            Cursor cursor = sut.rawQuery("SELECT name FROM item", null);
+            try {
+                assertThat(cursor).isNotInstanceOf(CursorWrapper.class);
+                assertThat(cursor.getCount()).isEqualTo(1);
+            } finally {
+                cursor.close();
+            }
+            assertThat(sut.simpleQueryForLong("SELECT count(*) FROM item", null)).isEqualTo(1);
+        } finally {
+            sut.endTransaction();
+        }
+    }
+
+    @Test
+    public void shouldQueryOnWriterWhenAllReadersAreInUse() {
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"first"});
+
+        Cursor first = sut.rawQuery("SELECT name FROM item", null);
+        try {
+            Cursor second = sut.rawQuery("SELECT name FROM item", null);
+            try {
+                assertThat(second).isNotInstanceOf(CursorWrapper.class);
+                assertThat(second.getCount()).isEqualTo(1);
+            } finally {
+                second.close();
+            }
+            assertThat(sut.simpleQueryForLong("SELECT count(*) FROM item", null)).isEqualTo(1);
+        } finally {
+            first.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldWaitForReaderWhenAnotherThreadUsesAllReaders() throws InterruptedException {
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"first"});
+        final Cursor[] waited = new Cursor[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                waited[0] = sut.rawQuery("SELECT name FROM item", null);
+            }
+        });
+
+        Cursor first = sut.rawQuery("SELECT name FROM item", null);
+        try {
+            thread.start();
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(10);
+            }
+        } finally {
+            first.close();
+        }
+        thread.join();
+
+        try {
+            assertThat(waited[0]).isInstanceOf(CursorWrapper.class);
+            assertThat(waited[0].getCount()).isEqualTo(1);
+        } finally {
+            waited[0].close();
+        }
+    }
+
+    @Test
+    public void shouldClearChangeTrackersWhenTransactionIsRolledBack() {
+        ChangeTracker<Object> tracker = new ChangeTracker<Object>();
+        Object item = new Object();
+        ContentValues values = new ContentValues();
+        values.put("name", "uncommitted");
+
+        sut.beginTransaction();
+        try {
+            sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"uncommitted"});
+            tracker.track(item, values);
+        } finally {
+            sut.endTransaction();
+        }
+
+        assertThat(tracker.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReleaseReaderWhenCursorIsClosed() {
+        sut.rawQuery("SELECT name FROM item", null).close();
+
+        Cursor cursor = sut.rawQuery("SELECT name FROM item", null);
+        try {
+            assertThat(cursor).isInstanceOf(CursorWrapper.class);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class StatementCacheTest {
+    private SQLiteDatabase db;
+    private SQLiteDatabaseWrapper sut;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        db.execSQL("CREATE TABLE item (id INTEGER PRIMARY KEY, name TEXT)");
+        sut = new SQLiteDatabaseWrapper(db, 2);
+    }
+
+    @After
+    public void tearDown() {
+        sut.getStatementCache().close();
+        db.close();
+    }
+
+    @Test
+    public void shouldCompileStatementOnceWhenExecutedAgain() {
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"first"});
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"second"});
+
+        StatementCache cache = sut.getStatementCache();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(sut.simpleQueryForLong("SELECT count(*) FROM item", null)).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedStatement() {
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"first"});
+        sut.simpleQueryForLong("SELECT count(*) FROM item", null);
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"second"});
+        sut.executeUpdateDelete("DELETE FROM item WHERE name = ?", new Object[]{"first"});
+
+        StatementCache cache = sut.getStatementCache();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+
+        sut.simpleQueryForLong("SELECT count(*) FROM item", null);
+        assertThat(cache.getMissCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldReturnNumberOfChangedRows() {
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"a"});
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"a"});
+        sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"b"});
+
+        int changes = sut.executeUpdateDelete("UPDATE item SET name = ? WHERE name = ?",
+                new Object[]{"c", "a"});
+
+        assertThat(changes).isEqualTo(2);
+    }
+
+    @Test(timeout = 10000)
+    public void shouldExecuteInTransactionWhileAnotherThreadWaitsForTheConnection() throws InterruptedException {
+        Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"other"});
+            }
+        });
+
+        db.beginTransaction();
+        try {
+            other.start();
+            while (other.getState() == Thread.State.NEW || other.getState() == Thread.State.RUNNABLE) {
+                Thread.sleep(10);
+            }
+
+            sut.executeInsert("INSERT INTO item (name) VALUES (?)", new Object[]{"transaction"});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        other.join();
+
+        assertThat(sut.simpleQueryForLong("SELECT count(*) FROM item", null)).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldShareStatementsBetweenDeletesWithBlobArguments() {
+        sut.delete("item", "name = ?", new Object[]{new byte[]{1}});
+        sut.delete("item", "name = ?", new Object[]{new byte[]{2}});
+
+        assertThat(sut.getStatementCache().getHitCount()).isAtLeast(1L);
+    }
+}
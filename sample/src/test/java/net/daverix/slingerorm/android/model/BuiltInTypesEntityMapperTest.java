@@ -0,0 +1,137 @@
+package net.daverix.slingerorm.android.model;
+
+import android.content.ContentValues;
+import android.database.MatrixCursor;
+
+import net.daverix.slingerorm.android.Mapper;
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class BuiltInTypesEntityMapperTest {
+    private Mapper<BuiltInTypesEntity> sut;
+
+    @Before
+    public void before() {
+        sut = BuiltInTypesEntityMapper.create();
+    }
+
+    @Test
+    public void shouldUseCompactColumnTypes() {
+        String actual = sut.createTable();
+
+        assertThat(actual).contains("id BLOB");
+        assertThat(actual).contains("created INTEGER");
+        assertThat(actual).contains("amount TEXT");
+        assertThat(actual).contains("price INTEGER");
+    }
+
+    @Test
+    public void shouldSetCorrectContentValues() {
+        BuiltInTypesEntity entity = createEntity();
+
+        ContentValues actual = sut.mapValues(entity);
+
+        assertThat(actual.getAsByteArray("id")).hasLength(16);
+        assertThat(actual.getAsLong("created")).isEqualTo(entity.getCreated().getTime());
+        assertThat(actual.getAsString("amount")).isEqualTo("1234.5678");
+        assertThat(actual.getAsLong("price")).isEqualTo(1999L);
+    }
+
+    @Test
+    public void shouldKeepNullValues() {
+        BuiltInTypesEntity entity = new BuiltInTypesEntity();
+        entity.setId(UUID.randomUUID());
+
+        ContentValues values = sut.mapValues(entity);
+        MatrixCursor cursor = new MatrixCursor(sut.getFieldNames());
+        cursor.addRow(new Object[]{values.getAsByteArray("id"), null, null, null});
+        cursor.moveToFirst();
+        BuiltInTypesEntity actual = sut.mapItem(cursor);
+
+        assertThat(values.get("created")).isNull();
+        assertThat(actual.getCreated()).isNull();
+        assertThat(actual.getAmount()).isNull();
+        assertThat(actual.getPrice()).isNull();
+    }
+
+    @Test
+    public void shouldGetDataFromCursor() {
+        BuiltInTypesEntity entity = createEntity();
+        ContentValues values = sut.mapValues(entity);
+
+        MatrixCursor cursor = new MatrixCursor(sut.getFieldNames());
+        cursor.addRow(new Object[]{
+                values.getAsByteArray("id"),
+                values.getAsLong("created"),
+                values.getAsString("amount"),
+                values.getAsLong("price")
+        });
+        cursor.moveToFirst();
+        BuiltInTypesEntity actual = sut.mapItem(cursor);
+
+        assertThat(actual.getId()).isEqualTo(entity.getId());
+        assertThat(actual.getCreated()).isEqualTo(entity.getCreated());
+        assertThat(actual.getAmount()).isEqualTo(entity.getAmount());
+        assertThat(actual.getPrice()).isEqualTo(entity.getPrice());
+    }
+
+    @Test
+    public void itemBindArgsContainKeyAsBytes() {
+        BuiltInTypesEntity entity = createEntity();
+
+        Object[] actual = sut.getItemQueryBindArgs(entity);
+
+        assertThat(actual).hasLength(1);
+        assertThat((byte[]) actual[0]).isEqualTo(sut.mapValues(entity).getAsByteArray("id"));
+    }
+
+    @Test
+    public void itemArgumentsContainKeyAsHex() {
+        BuiltInTypesEntity entity = createEntity();
+        entity.setId(UUID.fromString("00112233-4455-6677-8899-aabbccddeeff"));
+
+        String[] actual = sut.getItemQueryArguments(entity);
+
+        assertThat(actual).asList().containsExactly("00112233445566778899AABBCCDDEEFF");
+    }
+
+    @Test
+    public void shouldIgnoreRowIdWhenKeyIsNotGenerated() {
+        BuiltInTypesEntity entity = createEntity();
+        UUID id = entity.getId();
+
+        sut.setRowId(entity, 42);
+
+        assertThat(entity.getId()).isEqualTo(id);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void shouldNotRoundScaledDecimals() {
+        BuiltInTypesEntity entity = createEntity();
+        entity.setPrice(new BigDecimal("19.991"));
+
+        sut.mapValues(entity);
+    }
+
+    private BuiltInTypesEntity createEntity() {
+        BuiltInTypesEntity entity = new BuiltInTypesEntity();
+        entity.setId(UUID.randomUUID());
+        entity.setCreated(new Date());
+        entity.setAmount(new BigDecimal("1234.5678"));
+        entity.setPrice(new BigDecimal("19.99"));
+        return entity;
+    }
+}
@@ -0,0 +1,112 @@
+package net.daverix.slingerorm.android.model;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import net.daverix.slingerorm.android.Mapper;
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class EmbeddedEntityMapperTest {
+    private Mapper<EmbeddedEntity> sut;
+
+    @Before
+    public void before() {
+        sut = EmbeddedEntityMapper.create();
+    }
+
+    @Test
+    public void shouldFlattenEmbeddedFieldsWithPrefix() {
+        assertThat(Arrays.asList(sut.getFieldNames())).containsExactly("id", "name",
+                "home_street", "home_city", "home_zipCode", "home_movedIn",
+                "work_street", "work_city", "work_zipCode", "work_movedIn").inOrder();
+    }
+
+    @Test
+    public void shouldSetCorrectContentValues() {
+        EmbeddedEntity entity = createEntity();
+
+        ContentValues actual = sut.mapValues(entity);
+
+        assertThat(actual.getAsString("home_street")).isEqualTo("Storgatan 1");
+        assertThat(actual.getAsInteger("home_zipCode")).isEqualTo(12345);
+        assertThat(actual.getAsLong("home_movedIn")).isEqualTo(1000L);
+        assertThat(actual.containsKey("work_street")).isTrue();
+        assertThat(actual.get("work_street")).isNull();
+        assertThat(actual.get("work_zipCode")).isNull();
+    }
+
+    @Test
+    public void shouldRoundtripThroughTable() {
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        db.execSQL(sut.createTable());
+        db.insertOrThrow(sut.getTableName(), null, sut.mapValues(createEntity()));
+
+        Cursor cursor = db.query(sut.getTableName(), sut.getFieldNames(), "home_city = ?",
+                new String[]{"Stockholm"}, null, null, null);
+        try {
+            assertThat(cursor.moveToFirst()).isTrue();
+            EmbeddedEntity actual = sut.mapItem(cursor);
+
+            assertThat(actual.getHome()).isNotNull();
+            assertThat(actual.getHome().getStreet()).isEqualTo("Storgatan 1");
+            assertThat(actual.getHome().getCity()).isEqualTo("Stockholm");
+            assertThat(actual.getHome().getZipCode()).isEqualTo(12345);
+            assertThat(actual.getHome().getMovedIn()).isEqualTo(new Date(1000));
+            assertThat(actual.getWork()).isNull();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void shouldMapItemByPositionAfterOffset() {
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        db.execSQL(sut.createTable());
+        db.insertOrThrow(sut.getTableName(), null, sut.mapValues(createEntity()));
+
+        String[] columns = new String[sut.getFieldNames().length + 1];
+        columns[0] = "42 AS other";
+        System.arraycopy(sut.getFieldNames(), 0, columns, 1, sut.getFieldNames().length);
+        Cursor cursor = db.query(sut.getTableName(), columns, null, null, null, null, null);
+        try {
+            assertThat(cursor.moveToFirst()).isTrue();
+            EmbeddedEntity actual = sut.mapItem(cursor, 1);
+
+            assertThat(actual.getId()).isEqualTo(42);
+            assertThat(actual.getName()).isEqualTo("David");
+            assertThat(actual.getHome().getCity()).isEqualTo("Stockholm");
+            assertThat(actual.getHome().getMovedIn()).isEqualTo(new Date(1000));
+            assertThat(actual.getWork()).isNull();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private EmbeddedEntity createEntity() {
+        Address home = new Address();
+        home.setStreet("Storgatan 1");
+        home.setCity("Stockholm");
+        home.setZipCode(12345);
+        home.setMovedIn(new Date(1000));
+
+        EmbeddedEntity entity = new EmbeddedEntity();
+        entity.setId(42);
+        entity.setName("David");
+        entity.setHome(home);
+        return entity;
+    }
+}
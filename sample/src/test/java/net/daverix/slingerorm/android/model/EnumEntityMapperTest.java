@@ -0,0 +1,79 @@
+package net.daverix.slingerorm.android.model;
+
+import android.content.ContentValues;
+import android.database.MatrixCursor;
+
+import net.daverix.slingerorm.android.Mapper;
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class EnumEntityMapperTest {
+    private Mapper<EnumEntity> sut;
+
+    @Before
+    public void before() {
+        sut = EnumEntityMapper.create();
+    }
+
+    @Test
+    public void shouldStoreEnumsAsIntegers() {
+        assertThat(sut.createTable()).contains("status INTEGER");
+        assertThat(sut.createTable()).contains("priority INTEGER");
+    }
+
+    @Test
+    public void shouldStoreOrdinalAndCode() {
+        EnumEntity entity = new EnumEntity();
+        entity.setId(42);
+        entity.setStatus(EnumEntity.Status.DONE);
+        entity.setPriority(Priority.NORMAL);
+
+        ContentValues actual = sut.mapValues(entity);
+
+        assertThat(actual.getAsInteger("status")).isEqualTo(2);
+        assertThat(actual.getAsInteger("priority")).isEqualTo(20);
+    }
+
+    @Test
+    public void shouldGetEnumsFromCursor() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{"id", "status", "priority"});
+        cursor.addRow(new Object[]{42, 1, 30});
+        cursor.moveToFirst();
+
+        EnumEntity actual = sut.mapItem(cursor);
+
+        assertThat(actual.getStatus()).isEqualTo(EnumEntity.Status.PAUSED);
+        assertThat(actual.getPriority()).isEqualTo(Priority.HIGH);
+    }
+
+    @Test
+    public void shouldKeepNullEnums() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{"id", "status", "priority"});
+        cursor.addRow(new Object[]{42, null, null});
+        cursor.moveToFirst();
+
+        EnumEntity actual = sut.mapItem(cursor);
+
+        assertThat(sut.mapValues(new EnumEntity()).get("status")).isNull();
+        assertThat(actual.getStatus()).isNull();
+        assertThat(actual.getPriority()).isNull();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowOnUnknownCode() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{"id", "status", "priority"});
+        cursor.addRow(new Object[]{42, 0, 15});
+        cursor.moveToFirst();
+
+        sut.mapItem(cursor);
+    }
+}
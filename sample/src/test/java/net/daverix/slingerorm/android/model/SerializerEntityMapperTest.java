@@ -6,6 +6,7 @@ import android.database.MatrixCursor;
 import net.daverix.slingerorm.android.Mapper;
 import net.daverix.slingerorm.android.serialization.DateSerializer;
 import net.daverix.slingerorm.core.android.BuildConfig;
+import net.daverix.slingerorm.serializer.Serializer;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -57,4 +58,58 @@ public class SerializerEntityMapperTest {
         assertThat(item.getId()).isEqualTo(id);
         assertThat(item.getCreated()).isEqualTo(created);
     }
+
+    @Test
+    public void shouldAcceptBoxedSerializer() {
+        Mapper<SerializerEntity> mapper = SerializerEntityMapper.builder()
+                .dateToLongSerializer(new Serializer<Date, Long>() {
+                    @Override
+                    public Long serialize(Date value) {
+                        return value.getTime();
+                    }
+
+                    @Override
+                    public Date deserialize(Long value) {
+                        return new Date(value);
+                    }
+                })
+                .build();
+        Date created = new Date();
+        SerializerEntity entity = new SerializerEntity();
+        entity.setId(42);
+        entity.setCreated(created);
+
+        ContentValues values = mapper.mapValues(entity);
+        MatrixCursor cursor = new MatrixCursor(new String[] {"id", "created"});
+        cursor.addRow(new Object[]{values.getAsLong("id"), values.getAsLong("created")});
+        cursor.moveToFirst();
+        SerializerEntity item = mapper.mapItem(cursor);
+
+        assertThat(values.getAsLong("created")).isEqualTo(created.getTime());
+        assertThat(item.getCreated()).isEqualTo(created);
+    }
+
+    @Test
+    public void shouldWriteNullFromBoxedSerializerAsNull() {
+        Mapper<SerializerEntity> mapper = SerializerEntityMapper.builder()
+                .dateToLongSerializer(new Serializer<Date, Long>() {
+                    @Override
+                    public Long serialize(Date value) {
+                        return value != null ? value.getTime() : null;
+                    }
+
+                    @Override
+                    public Date deserialize(Long value) {
+                        return new Date(value);
+                    }
+                })
+                .build();
+        SerializerEntity entity = new SerializerEntity();
+        entity.setId(42);
+
+        ContentValues values = mapper.mapValues(entity);
+
+        assertThat(values.containsKey("created")).isTrue();
+        assertThat(values.get("created")).isNull();
+    }
 }
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android.storage;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import net.daverix.slingerorm.android.SQLiteDatabaseWrapper;
+import net.daverix.slingerorm.android.SchemaMigrator;
+import net.daverix.slingerorm.android.model.BuiltInTypesEntity;
+import net.daverix.slingerorm.android.model.EnumEntity;
+import net.daverix.slingerorm.android.model.EnumEntityMapper;
+import net.daverix.slingerorm.android.model.InstantEntity;
+import net.daverix.slingerorm.android.model.Priority;
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static com.google.common.truth.Truth.assertThat;
+import static net.daverix.slingerorm.android.SqliteDatabaseSubject.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class BuiltInTypesStorageTest {
+    private SQLiteDatabase db;
+    private BuiltInTypesStorage sut;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        sut = SlingerBuiltInTypesStorage.builder()
+                .database(db)
+                .build();
+        sut.createTable();
+    }
+
+    @Test
+    public void shouldRoundtripEntityByUUID() {
+        BuiltInTypesEntity entity = createEntity(UUID.randomUUID(), new Date(1000));
+        sut.insert(entity);
+
+        BuiltInTypesEntity actual = sut.getEntity(entity.getId());
+
+        assertThat(actual).isNotNull();
+        assertThat(actual.getId()).isEqualTo(entity.getId());
+        assertThat(actual.getCreated()).isEqualTo(entity.getCreated());
+        assertThat(actual.getAmount()).isEqualTo(entity.getAmount());
+        assertThat(actual.getPrice()).isEqualTo(entity.getPrice());
+    }
+
+    @Test
+    public void shouldUpdateEntityByUUID() {
+        BuiltInTypesEntity entity = createEntity(UUID.randomUUID(), new Date(1000));
+        sut.insert(entity);
+
+        entity.setAmount(new BigDecimal("42"));
+        sut.update(entity);
+
+        assertThat(sut.getEntity(entity.getId()).getAmount()).isEqualTo(new BigDecimal("42"));
+    }
+
+    @Test
+    public void shouldDeleteEntityByUUID() {
+        BuiltInTypesEntity first = createEntity(UUID.randomUUID(), new Date(1000));
+        BuiltInTypesEntity second = createEntity(UUID.randomUUID(), new Date(2000));
+        sut.insert(first);
+        sut.insert(second);
+
+        sut.delete(first);
+
+        assertThat(sut.getEntity(first.getId())).isNull();
+        assertThat(sut.getEntity(second.getId())).isNotNull();
+        sut.delete(second);
+        assertThat(db).withTable("BuiltInTypesEntity").isEmpty();
+    }
+
+    @Test
+    public void shouldCompareDatesAsMilliseconds() {
+        BuiltInTypesEntity first = createEntity(UUID.randomUUID(), new Date(1000));
+        BuiltInTypesEntity second = createEntity(UUID.randomUUID(), new Date(3000));
+        sut.insert(first);
+        sut.insert(second);
+
+        List<BuiltInTypesEntity> actual = sut.getCreatedAfter(new Date(2000));
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getId()).isEqualTo(second.getId());
+    }
+
+    @Test
+    public void shouldComparePricesAsScaledNumbers() {
+        BuiltInTypesEntity cheap = createEntity(UUID.randomUUID(), new Date(1000));
+        cheap.setPrice(new BigDecimal("9.99"));
+        BuiltInTypesEntity expensive = createEntity(UUID.randomUUID(), new Date(1000));
+        expensive.setPrice(new BigDecimal("12.34"));
+        sut.insert(cheap);
+        sut.insert(expensive);
+
+        List<BuiltInTypesEntity> actual = sut.getPricedAbove(new BigDecimal("10"));
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getId()).isEqualTo(expensive.getId());
+    }
+
+    @Test
+    public void shouldCompareAmountsWithoutExponent() {
+        BuiltInTypesEntity entity = createEntity(UUID.randomUUID(), new Date(1000));
+        entity.setAmount(new BigDecimal("1E+3"));
+        sut.insert(entity);
+
+        List<BuiltInTypesEntity> actual = sut.getWithAmount(new BigDecimal("1000"));
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getId()).isEqualTo(entity.getId());
+    }
+
+    @Test
+    public void shouldCompareInstantsAsMilliseconds() {
+        sut.createInstantTable();
+        InstantEntity first = new InstantEntity();
+        first.setId(1);
+        first.setCreated(Instant.ofEpochMilli(1000));
+        InstantEntity second = new InstantEntity();
+        second.setId(2);
+        second.setCreated(Instant.ofEpochMilli(3000));
+        sut.insert(first);
+        sut.insert(second);
+
+        List<InstantEntity> actual = sut.getInstantEntitiesCreatedAfter(Instant.ofEpochMilli(2000));
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getId()).isEqualTo(2);
+        assertThat(actual.get(0).getCreated()).isEqualTo(Instant.ofEpochMilli(3000));
+    }
+
+    @Test
+    public void shouldSetValuesAsTheyAreStored() {
+        BuiltInTypesEntity entity = createEntity(UUID.randomUUID(), new Date(1000));
+        sut.insert(entity);
+
+        sut.setValues(new Date(5000), new BigDecimal("1E+3"), new BigDecimal("12.34"), entity.getId());
+
+        BuiltInTypesEntity actual = sut.getEntity(entity.getId());
+        assertThat(actual.getCreated()).isEqualTo(new Date(5000));
+        assertThat(actual.getAmount()).isEqualTo(new BigDecimal("1000"));
+        assertThat(actual.getPrice()).isEqualTo(new BigDecimal("12.34"));
+    }
+
+    @Test
+    public void shouldSetPricesInChunksAsScaledNumbers() {
+        BuiltInTypesEntity cheap = createEntity(UUID.randomUUID(), new Date(1000));
+        cheap.setPrice(new BigDecimal("9.99"));
+        BuiltInTypesEntity expensive = createEntity(UUID.randomUUID(), new Date(1000));
+        expensive.setPrice(new BigDecimal("12.34"));
+        sut.insert(cheap);
+        sut.insert(expensive);
+
+        int updated = sut.setPriceOfPricedAbove(new BigDecimal("10.00"), new BigDecimal("10"));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(sut.getEntity(cheap.getId()).getPrice()).isEqualTo(new BigDecimal("9.99"));
+        assertThat(sut.getEntity(expensive.getId()).getPrice()).isEqualTo(new BigDecimal("10.00"));
+    }
+
+    @Test
+    public void shouldSetInstantAsMilliseconds() {
+        sut.createInstantTable();
+        InstantEntity entity = new InstantEntity();
+        entity.setId(1);
+        entity.setCreated(Instant.ofEpochMilli(1000));
+        sut.insert(entity);
+
+        sut.setCreated(Instant.ofEpochMilli(5000), 1);
+
+        List<InstantEntity> actual = sut.getInstantEntitiesCreatedAfter(Instant.ofEpochMilli(2000));
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getCreated()).isEqualTo(Instant.ofEpochMilli(5000));
+    }
+
+    @Test
+    public void shouldQueryByEnumCode() {
+        sut.createEnumTable();
+        EnumEntity low = new EnumEntity();
+        low.setId(1);
+        low.setPriority(Priority.LOW);
+        EnumEntity high = new EnumEntity();
+        high.setId(2);
+        high.setPriority(Priority.HIGH);
+        sut.insert(low);
+        sut.insert(high);
+
+        List<EnumEntity> actual = sut.getEnumEntities(Priority.HIGH);
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getId()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldAddColumnToEnumTableOfOlderVersionAndBackfillIt() {
+        db.execSQL("CREATE TABLE EnumEntity(id INTEGER NOT NULL PRIMARY KEY, status INTEGER, priority INTEGER)");
+        db.execSQL("INSERT INTO EnumEntity(id, status, priority) VALUES (1, 0, 20), (2, 2, 20)");
+
+        sut.createEnumTable();
+
+        SchemaMigrator migrator = new SchemaMigrator(new SQLiteDatabaseWrapper(db), 1);
+        assertThat(migrator.hasPendingMigrations()).isTrue();
+        assertThat(migrator.runPendingMigrations()).isTrue();
+        assertThat(migrator.hasPendingMigrations()).isFalse();
+        List<EnumEntity> actual = sut.getEnumEntities(Priority.NORMAL);
+        assertThat(actual).hasSize(2);
+        assertThat(actual.get(0).isArchived()).isFalse();
+        assertThat(actual.get(1).isArchived()).isTrue();
+    }
+
+    @Test
+    public void shouldNotChangeTableOfSameVersion() {
+        sut.createEnumTable();
+        EnumEntity entity = new EnumEntity();
+        entity.setId(1);
+        entity.setPriority(Priority.LOW);
+        entity.setArchived(true);
+        sut.insert(entity);
+
+        sut.createEnumTable();
+
+        assertThat(new SchemaMigrator(new SQLiteDatabaseWrapper(db)).hasPendingMigrations()).isFalse();
+        assertThat(sut.getEnumEntities(Priority.LOW).get(0).isArchived()).isTrue();
+    }
+
+    @Test
+    public void shouldUpgradeTableOfSameVersionWithoutTransactionOrDdl() {
+        sut.createEnumTable();
+        SchemaMigrator migrator = new SchemaMigrator(new SQLiteDatabaseWrapper(db) {
+            @Override
+            public void beginTransaction() {
+                throw new AssertionError("the table is up to date");
+            }
+
+            @Override
+            public void execSQL(String sql) {
+                throw new AssertionError("the table is up to date: " + sql);
+            }
+        });
+
+        migrator.upgrade(EnumEntityMapper.create());
+
+        assertThat(sut.getEnumEntities(Priority.LOW)).isEmpty();
+    }
+
+    private BuiltInTypesEntity createEntity(UUID id, Date created) {
+        BuiltInTypesEntity entity = new BuiltInTypesEntity();
+        entity.setId(id);
+        entity.setCreated(created);
+        entity.setAmount(new BigDecimal("1234.5678"));
+        entity.setPrice(new BigDecimal("19.99"));
+        return entity;
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.google.common.truth.Truth.assertThat;
@@ -177,6 +178,66 @@ public class ComplexEntityStorageTest {
         assertThat(actual).containsExactly(third, second).inOrder();
     }
 
+    @Test
+    public void shouldSetValueWithoutLoadingEntity() throws Exception {
+        sut.insert(createEntity(1, "first", 1.5d, true));
+        sut.insert(createEntity(2, "second", 2.5d, true));
+
+        int updated = sut.setValue(4.25d, 1);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(sut.getEntity(1).getValue()).isWithin(0.000001d).of(4.25d);
+        assertThat(sut.getEntity(1).getEntityName()).isEqualTo("first");
+        assertThat(sut.getEntity(2).getValue()).isWithin(0.000001d).of(2.5d);
+        assertThat(sut.setValue(1d, 3)).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldUpdateColumnOfMatchingRows() throws Exception {
+        sut.insert(createEntity(1, "first", 1d, true));
+        sut.insert(createEntity(2, "second", 2d, false));
+        sut.insert(createEntity(3, "third", 3d, true));
+
+        sut.addToValues(0.5d, true);
+
+        assertThat(sut.getEntity(1).getValue()).isWithin(0.000001d).of(1.5d);
+        assertThat(sut.getEntity(2).getValue()).isWithin(0.000001d).of(2d);
+        assertThat(sut.getEntity(3).getValue()).isWithin(0.000001d).of(3.5d);
+    }
+
+    @Test
+    public void shouldDeleteMatchingRowsInChunks() throws Exception {
+        sut.insert(createEntity(1, "first", 1d, true));
+        sut.insert(createEntity(2, "second", 2d, false));
+        sut.insert(createEntity(3, "third", 3d, true));
+        sut.insert(createEntity(4, "fourth", 4d, true));
+        sut.insert(createEntity(5, "fifth", 5d, false));
+        final List<Integer> progress = new ArrayList<>();
+
+        int deleted = sut.deleteComplex(true, progress::add);
+
+        assertThat(deleted).isEqualTo(3);
+        assertThat(progress).containsExactly(2, 3).inOrder();
+        assertThat(sut.getAllEntities()).hasSize(2);
+        assertThat(sut.getEntity(2)).isNotNull();
+        assertThat(sut.getEntity(5)).isNotNull();
+    }
+
+    @Test
+    public void shouldUpdateEveryMatchingRowOnceWhenUpdatingInChunks() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            sut.insert(createEntity(i, "entity " + i, i, true));
+        }
+
+        int updated = sut.addToValuesAbove(10d, 1d, null);
+
+        assertThat(updated).isEqualTo(4);
+        assertThat(sut.getEntity(1).getValue()).isWithin(0d).of(1d);
+        for (int i = 2; i <= 5; i++) {
+            assertThat(sut.getEntity(i).getValue()).isWithin(0d).of(i + 10d);
+        }
+    }
+
     private ComplexEntity createEntity(long id, String name, double value, boolean complex) {
         ComplexEntity entity = new ComplexEntity();
         entity.setId(id);
@@ -0,0 +1,533 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android.storage;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import net.daverix.slingerorm.android.SQLiteDatabaseWrapper;
+import net.daverix.slingerorm.android.SchemaMigrator;
+import net.daverix.slingerorm.android.model.Author;
+import net.daverix.slingerorm.android.model.AuthorBookCount;
+import net.daverix.slingerorm.android.model.Book;
+import net.daverix.slingerorm.android.model.BookWithAuthor;
+import net.daverix.slingerorm.core.android.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class LibraryStorageTest {
+    private SQLiteDatabase db;
+    private LibraryStorage sut;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        sut = SlingerLibraryStorage.builder()
+                .database(db)
+                .build();
+        sut.createAuthorTable();
+        sut.createBookTable();
+    }
+
+    @Test
+    public void shouldLoadBooksOfAuthor() {
+        sut.insert(createAuthor(1, "Tolkien"));
+        sut.insert(createBook(1, 1, "The Hobbit"));
+        sut.insert(createBook(2, 1, "The Silmarillion"));
+
+        Author actual = sut.getAuthor(1);
+
+        assertThat(actual.getBooks()).hasSize(2);
+        assertThat(actual.getBooks().get(0).getTitle()).isEqualTo("The Hobbit");
+    }
+
+    @Test
+    public void shouldSetEmptyListWhenAuthorHasNoBooks() {
+        sut.insert(createAuthor(1, "Tolkien"));
+
+        Author actual = sut.getAuthor(1);
+
+        assertThat(actual.getBooks()).isEmpty();
+    }
+
+    @Test
+    public void shouldLoadBooksOfMoreAuthorsThanSqliteCanBindAtOnce() {
+        for (int i = 1; i <= 1200; i++) {
+            sut.insert(createAuthor(i, "Author " + i));
+            sut.insert(createBook(i, i, "Book " + i));
+        }
+
+        List<Author> actual = sut.getAuthors();
+
+        assertThat(actual).hasSize(1200);
+        for (Author author : actual) {
+            assertThat(author.getBooks()).hasSize(1);
+            assertThat(author.getBooks().get(0).getAuthorId()).isEqualTo(author.getId());
+        }
+    }
+
+    @Test
+    public void shouldJoinBooksWithTheirAuthor() {
+        sut.insert(createAuthor(1, "Tolkien"));
+        sut.insert(createAuthor(2, "Pratchett"));
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        sut.insert(createBook(11, 2, "Mort"));
+        sut.insert(createBook(12, 1, "The Silmarillion"));
+
+        List<BookWithAuthor> actual = sut.getBooksWithAuthor("Tolkien");
+
+        assertThat(actual).hasSize(2);
+        assertThat(actual.get(0).getBook().getId()).isEqualTo(10);
+        assertThat(actual.get(0).getBook().getTitle()).isEqualTo("The Hobbit");
+        assertThat(actual.get(0).getAuthor().getId()).isEqualTo(1);
+        assertThat(actual.get(1).getBook().getId()).isEqualTo(12);
+        assertThat(actual.get(1).getAuthor().getName()).isEqualTo("Tolkien");
+    }
+
+    @Test
+    public void shouldJoinSingleBookWithItsAuthor() {
+        sut.insert(createAuthor(2, "Pratchett"));
+        sut.insert(createBook(11, 2, "Mort"));
+
+        BookWithAuthor actual = sut.getBookWithAuthor(11);
+
+        assertThat(actual.getBook().getTitle()).isEqualTo("Mort");
+        assertThat(actual.getAuthor().getId()).isEqualTo(2);
+        assertThat(sut.getBookWithAuthor(12)).isNull();
+    }
+
+    @Test
+    public void shouldQueryEntitiesWithSubquery() {
+        sut.insert(createAuthor(1, "Tolkien"));
+        sut.insert(createAuthor(2, "Pratchett"));
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        sut.insert(createBook(11, 2, "Mort"));
+
+        List<Author> actual = sut.getAuthorsWithTitleLike("The %");
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getName()).isEqualTo("Tolkien");
+        assertThat(actual.get(0).getBooks()).hasSize(1);
+    }
+
+    @Test
+    public void shouldMapQueryResultToProjection() {
+        sut.insert(createAuthor(1, "Tolkien"));
+        sut.insert(createAuthor(2, "Pratchett"));
+        sut.insert(createAuthor(3, "Adams"));
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        sut.insert(createBook(11, 2, "Mort"));
+        sut.insert(createBook(12, 2, "Guards! Guards!"));
+
+        List<AuthorBookCount> actual = sut.getAuthorBookCounts();
+
+        assertThat(actual).hasSize(3);
+        assertThat(actual.get(0).getName()).isEqualTo("Pratchett");
+        assertThat(actual.get(0).getBookCount()).isEqualTo(2);
+        assertThat(actual.get(0).getRank()).isEqualTo(1);
+        assertThat(actual.get(1).getName()).isEqualTo("Tolkien");
+        assertThat(actual.get(2).getName()).isEqualTo("Adams");
+        assertThat(actual.get(2).getBookCount()).isEqualTo(0);
+        assertThat(actual.get(2).getRank()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldMapSingleQueryResultToProjection() {
+        sut.insert(createAuthor(1, "Tolkien"));
+        sut.insert(createBook(10, 1, "The Hobbit"));
+
+        AuthorBookCount actual = sut.getAuthorBookCount(1);
+
+        assertThat(actual.getName()).isEqualTo("Tolkien");
+        assertThat(actual.getBookCount()).isEqualTo(1);
+        assertThat(actual.getRank()).isNull();
+        assertThat(sut.getAuthorBookCount(2)).isNull();
+    }
+
+    @Test
+    public void shouldFindBooksMatchingFullTextQuery() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        sut.insert(createBook(11, 2, "Mort"));
+        sut.insert(createBook(12, 1, "The Silmarillion"));
+
+        List<Book> actual = sut.searchBooks("the");
+
+        assertThat(actual).hasSize(2);
+        assertThat(actual.get(0).getTitle()).isEqualTo("The Hobbit");
+        assertThat(actual.get(1).getTitle()).isEqualTo("The Silmarillion");
+        assertThat(sut.searchBooks("silm*")).hasSize(1);
+    }
+
+    @Test
+    public void shouldKeepFullTextIndexInSyncWithTable() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        sut.insert(createBook(11, 2, "Mort"));
+
+        sut.replace(createBook(10, 1, "Unfinished Tales"));
+        sut.delete(createBook(11, 2, "Mort"));
+
+        assertThat(sut.searchBooks("hobbit")).isEmpty();
+        assertThat(sut.searchBooks("mort")).isEmpty();
+        assertThat(sut.searchBooks("tales")).hasSize(1);
+    }
+
+    @Test
+    public void shouldCombineMatchWithWhere() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        sut.insert(createBook(11, 2, "The Colour of Magic"));
+
+        Book actual = sut.searchBookOfAuthor(2, "the");
+
+        assertThat(actual.getId()).isEqualTo(11);
+        assertThat(sut.searchBookOfAuthor(2, "hobbit")).isNull();
+    }
+
+    @Test
+    public void shouldUpdateOnlyChangedColumnsOfLoadedBook() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        Book book = sut.searchBooks("hobbit").get(0);
+        db.execSQL("UPDATE Book SET authorId = 2 WHERE id = 10");
+
+        book.setTitle("There and Back Again");
+        sut.update(book);
+
+        Book actual = sut.searchBooks("back").get(0);
+        assertThat(actual.getTitle()).isEqualTo("There and Back Again");
+        assertThat(actual.getAuthorId()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldSkipUpdateWhenNothingChanged() {
+        Book book = createBook(10, 1, "The Hobbit");
+        sut.insert(book);
+        db.execSQL("UPDATE Book SET title = 'Mort' WHERE id = 10");
+
+        sut.update(book);
+
+        assertThat(sut.searchBooks("mort")).hasSize(1);
+    }
+
+    @Test
+    public void shouldUpdateAllColumnsOfBookThatIsNotTracked() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        db.execSQL("UPDATE Book SET title = 'Mort' WHERE id = 10");
+
+        sut.update(createBook(10, 1, "The Hobbit"));
+
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+    }
+
+    @Test
+    public void shouldNotTrackBookThatWasNotUpdated() {
+        Book book = createBook(10, 1, "The Hobbit");
+        sut.update(book);
+        db.execSQL("INSERT INTO Book(id, authorId, title) VALUES (10, 1, 'Mort')");
+
+        sut.update(book);
+
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+    }
+
+    @Test
+    public void shouldForgetDeletedBook() {
+        Book book = createBook(10, 1, "The Hobbit");
+        sut.insert(book);
+        sut.delete(book);
+        db.execSQL("INSERT INTO Book(id, authorId, title) VALUES (10, 1, 'Mort')");
+
+        sut.update(book);
+
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+    }
+
+    @Test
+    public void shouldIgnoreInsertOfExistingBook() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+
+        sut.insertIfAbsent(createBook(10, 2, "Mort"));
+        sut.insertIfAbsent(createBook(11, 2, "Mort"));
+
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+        assertThat(sut.searchBooks("mort")).hasSize(1);
+        assertThat(sut.searchBooks("mort").get(0).getId()).isEqualTo(11);
+    }
+
+    @Test
+    public void shouldNotTrackBookThatWasIgnored() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        Book ignored = createBook(10, 2, "Mort");
+        sut.insertIfAbsent(ignored);
+
+        ignored.setAuthorId(3);
+        sut.update(ignored);
+
+        assertThat(sut.searchBooks("mort")).hasSize(1);
+        assertThat(sut.searchBooks("mort").get(0).getAuthorId()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldNotRebuildFullTextIndexWhenBookTableIsCreatedAgain() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        db.execSQL("DELETE FROM Book_fts WHERE docid = (SELECT rowid FROM Book WHERE id = 10)");
+
+        sut.createBookTable();
+
+        assertThat(sut.searchBooks("hobbit")).isEmpty();
+    }
+
+    @Test
+    public void shouldRebuildFullTextIndexWhenTriggerIsMissing() {
+        db.execSQL("DROP TRIGGER Book_fts_ai");
+        sut.insert(createBook(10, 1, "The Hobbit"));
+        assertThat(sut.searchBooks("hobbit")).isEmpty();
+
+        sut.createBookTable();
+
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+        assertThat(getTriggerCount("Book_fts_ai")).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldInsertBookThatDoesNotExistOnUpsert() {
+        sut.upsert(createBook(10, 1, "The Hobbit"));
+
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+    }
+
+    @Test
+    public void shouldUpdateExistingBooksOnUpsert() {
+        sut.insert(createBook(10, 1, "The Hobbit"));
+
+        sut.upsert(Arrays.asList(createBook(10, 1, "Unfinished Tales"), createBook(11, 2, "Mort")));
+
+        assertThat(sut.searchBooks("hobbit")).isEmpty();
+        assertThat(sut.searchBooks("tales")).hasSize(1);
+        assertThat(sut.searchBooks("tales").get(0).getId()).isEqualTo(10);
+        assertThat(sut.searchBooks("mort")).hasSize(1);
+    }
+
+    @Test
+    public void shouldWriteAllColumnsOfBookAfterUpsertWasRolledBack() {
+        Book book = createBook(10, 1, "The Hobbit");
+        sut.insert(book);
+        book.setTitle("Mort");
+        try {
+            sut.upsert(Arrays.asList(book, null));
+        } catch (IllegalArgumentException expected) {
+            // the null book rolls back the transaction
+        }
+        assertThat(sut.searchBooks("mort")).isEmpty();
+
+        sut.update(book);
+
+        assertThat(sut.searchBooks("hobbit")).isEmpty();
+        assertThat(sut.searchBooks("mort")).hasSize(1);
+    }
+
+    @Test
+    public void shouldSetGeneratedIdOnInsertedAuthor() {
+        Author author = createAuthor(0, "Tolkien");
+
+        long id = sut.insert(author);
+
+        assertThat(id).isGreaterThan(0L);
+        assertThat(author.getId()).isEqualTo(id);
+        assertThat(sut.getAuthor(id).getName()).isEqualTo("Tolkien");
+    }
+
+    @Test
+    public void shouldReturnRowIdsOfInsertedAuthors() {
+        Author tolkien = createAuthor(0, "Tolkien");
+        Author pratchett = createAuthor(10, "Pratchett");
+
+        long[] ids = sut.insertAuthors(Arrays.asList(tolkien, pratchett));
+
+        assertThat(ids).hasLength(2);
+        assertThat(ids[0]).isEqualTo(tolkien.getId());
+        assertThat(ids[1]).isEqualTo(10L);
+        assertThat(sut.getAuthor(ids[0]).getName()).isEqualTo("Tolkien");
+        assertThat(sut.getAuthors()).hasSize(2);
+    }
+
+    @Test
+    public void shouldBulkLoadBooksAndRebuildIndexes() {
+        db.execSQL("CREATE INDEX Book_authorId ON Book(authorId)");
+        long synchronous = db.compileStatement("PRAGMA synchronous").simpleQueryForLong();
+        List<Book> books = Arrays.asList(createBook(12, 1, "The Silmarillion"),
+                createBook(10, 1, "The Hobbit"),
+                createBook(11, 2, "Mort"));
+
+        long loaded = sut.loadBooks(books.iterator());
+
+        assertThat(loaded).isEqualTo(3L);
+        assertThat(sut.searchBooks("the")).hasSize(2);
+        assertThat(sut.searchBooks("mort")).hasSize(1);
+        assertThat(db.compileStatement("SELECT count(*) FROM sqlite_master WHERE name = 'Book_authorId'").simpleQueryForLong()).isEqualTo(1L);
+        assertThat(db.compileStatement("PRAGMA synchronous").simpleQueryForLong()).isEqualTo(synchronous);
+
+        sut.insert(createBook(13, 2, "Small Gods"));
+        assertThat(sut.searchBooks("gods")).hasSize(1);
+    }
+
+    @Test
+    public void shouldRestoreIndexesOfBulkLoadThatWasKilled() {
+        sut.createTables();
+        sut.insert(createAuthor(1, "Tolkien"));
+        db.execSQL("CREATE INDEX Book_authorId ON Book(authorId)");
+        // what a load leaves behind when the app is killed before it's done
+        db.execSQL("INSERT INTO slinger_dropped_schema(name, type, table_name, sql) " +
+                "SELECT name, type, tbl_name, sql FROM sqlite_master WHERE name IN ('Book_authorId', 'Book_fts_ai')");
+        db.execSQL("DROP INDEX Book_authorId");
+        db.execSQL("DROP TRIGGER Book_fts_ai");
+        db.execSQL("INSERT INTO Book(id, authorId, title) VALUES (1, 1, 'The Hobbit')");
+
+        sut.createTables();
+
+        assertThat(db.compileStatement("SELECT count(*) FROM sqlite_master WHERE name = 'Book_authorId'").simpleQueryForLong()).isEqualTo(1L);
+        assertThat(getTriggerCount("Book_fts_ai")).isEqualTo(1);
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+        assertThat(db.compileStatement("SELECT count(*) FROM slinger_dropped_schema").simpleQueryForLong()).isEqualTo(0L);
+    }
+
+    private Author createAuthor(long id, String name) {
+        Author author = new Author();
+        author.setId(id);
+        author.setName(name);
+        return author;
+    }
+
+    @Test
+    public void shouldRebuildBookTableOfOlderVersionWhileItIsUsed() {
+        db.execSQL("DROP TABLE Book");
+        db.execSQL("DELETE FROM slinger_schema WHERE table_name = 'Book'");
+        db.execSQL("CREATE TABLE Book(id INTEGER NOT NULL PRIMARY KEY, authorId TEXT, title TEXT, isbn TEXT)");
+        db.execSQL("INSERT INTO Book(id, authorId, title, isbn) VALUES " +
+                "(1, '1', 'The Hobbit', '1'), (2, '1', 'The Silmarillion', '2'), (3, '2', 'Dune', '3')");
+        sut.createBookTable();
+        SchemaMigrator migrator = new SchemaMigrator(new SQLiteDatabaseWrapper(db), 2);
+        assertThat(migrator.hasPendingMigrations()).isTrue();
+
+        Thread.currentThread().interrupt();
+        assertThat(migrator.runPendingMigrations()).isFalse();
+        assertThat(Thread.interrupted()).isTrue();
+        sut.insert(createBook(4, 2, "Children of Dune"));
+        sut.delete(createBook(2, 1, "The Silmarillion"));
+        assertThat(migrator.runPendingMigrations()).isTrue();
+
+        assertThat(getColumnNames("Book")).containsExactly("id", "authorId", "title").inOrder();
+        assertThat(db.compileStatement("SELECT count(*) FROM Book WHERE authorId = 2")
+                .simpleQueryForLong()).isEqualTo(2);
+        assertThat(sut.searchBooks("dune")).hasSize(2);
+        assertThat(sut.searchBooks("silmarillion")).isEmpty();
+        sut.insert(createBook(5, 1, "Unfinished Tales"));
+        assertThat(sut.searchBooks("tales")).hasSize(1);
+    }
+
+    @Test
+    public void shouldUseBookTableWithRemovedRequiredColumnBeforeMigrationsRun() {
+        db.execSQL("DROP TABLE Book");
+        db.execSQL("DELETE FROM slinger_schema WHERE table_name = 'Book'");
+        db.execSQL("CREATE TABLE Book(id INTEGER NOT NULL PRIMARY KEY, authorId INTEGER, title TEXT, isbn TEXT NOT NULL)");
+        db.execSQL("INSERT INTO Book(id, authorId, title, isbn) VALUES (1, 1, 'The Hobbit', '1')");
+        sut.insert(createAuthor(1, "Tolkien"));
+        sut.createBookTable();
+        SchemaMigrator migrator = new SchemaMigrator(new SQLiteDatabaseWrapper(db));
+
+        sut.insert(createBook(2, 1, "The Silmarillion"));
+
+        assertThat(sut.getBooksWithAuthor("Tolkien")).hasSize(2);
+        assertThat(sut.searchBooks("silmarillion")).hasSize(1);
+        assertThat(migrator.runPendingMigrations()).isTrue();
+        assertThat(getColumnNames("Book")).containsExactly("id", "authorId", "title").inOrder();
+    }
+
+    @Test
+    public void shouldSkipCreatingTablesWhenSchemaIsUnchanged() {
+        sut.createTables();
+        db.execSQL("DROP TRIGGER Book_fts_ai");
+
+        sut.createTables();
+
+        assertThat(getTriggerCount("Book_fts_ai")).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldCreateTablesAgainWhenTheyWereDropped() {
+        sut.createTables();
+        db.execSQL("DROP TABLE Book_fts");
+        db.execSQL("DROP TABLE Book");
+        db.execSQL("DROP TABLE Author");
+
+        sut.createTables();
+
+        sut.insert(createAuthor(1, "Tolkien"));
+        sut.insert(createBook(1, 1, "The Hobbit"));
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+    }
+
+    @Test
+    public void shouldCreateTablesWhenSchemaHasChanged() {
+        sut.createTables();
+        db.execSQL("DROP TRIGGER Book_fts_ai");
+        db.execSQL("UPDATE slinger_storage SET schema_hash = 0");
+
+        sut.createTables();
+
+        assertThat(getTriggerCount("Book_fts_ai")).isEqualTo(1);
+        sut.insert(createAuthor(1, "Tolkien"));
+        sut.insert(createBook(1, 1, "The Hobbit"));
+        assertThat(sut.searchBooks("hobbit")).hasSize(1);
+    }
+
+    private long getTriggerCount(String name) {
+        return db.compileStatement("SELECT count(*) FROM sqlite_master WHERE type = 'trigger' AND name = '" + name + "'")
+                .simpleQueryForLong();
+    }
+
+    private List<String> getColumnNames(String tableName) {
+        List<String> names = new ArrayList<>();
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + tableName + ")", null);
+        try {
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(cursor.getColumnIndex("name")));
+            }
+        } finally {
+            cursor.close();
+        }
+        return names;
+    }
+
+    private Book createBook(long id, long authorId, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setAuthorId(authorId);
+        book.setTitle(title);
+        return book;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 David Laurell
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.daverix.slingerorm.android.storage;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import net.daverix.slingerorm.android.model.SerializerEntity;
+import net.daverix.slingerorm.android.model.SerializerEntityMapper;
+import net.daverix.slingerorm.core.android.BuildConfig;
+import net.daverix.slingerorm.serializer.Serializer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+public class SerializerEntityStorageTest {
+    private SQLiteDatabase db;
+    private SerializerEntityStorage sut;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        sut = SlingerSerializerEntityStorage.builder()
+                .database(db)
+                .serializerEntityMapper(SerializerEntityMapper.builder()
+                        .dateToLongSerializer(new Serializer<Date, Long>() {
+                            @Override
+                            public Long serialize(Date value) {
+                                return value != null ? value.getTime() / 1000 : null;
+                            }
+
+                            @Override
+                            public Date deserialize(Long value) {
+                                return value != null ? new Date(value * 1000) : null;
+                            }
+                        })
+                        .build())
+                .build();
+        sut.createTable();
+    }
+
+    @Test
+    public void shouldSetCreatedWithSerializer() {
+        sut.insert(createEntity(1, new Date(1000)));
+
+        sut.setCreated(new Date(5000), 1);
+
+        assertThat(sut.getEntity(1).getCreated()).isEqualTo(new Date(5000));
+        assertThat(db.compileStatement("SELECT created FROM SerializerEntity").simpleQueryForLong()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldCompareWithSerializedValue() {
+        sut.insert(createEntity(1, new Date(1000)));
+        sut.insert(createEntity(2, new Date(3000)));
+
+        List<SerializerEntity> actual = sut.getCreatedAfter(new Date(2000));
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getId()).isEqualTo(2);
+    }
+
+    private SerializerEntity createEntity(long id, Date created) {
+        SerializerEntity entity = new SerializerEntity();
+        entity.setId(id);
+        entity.setCreated(created);
+        return entity;
+    }
+}